@@ -0,0 +1,114 @@
+package com.recognition.benchmark;
+
+import com.recognition.dto.PriceSnapshot;
+import com.recognition.dto.response.PriceResponse;
+import com.recognition.entity.Asset;
+import com.recognition.entity.Price;
+import com.recognition.util.CandleAggregator;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Dữ liệu giá tổng hợp cho benchmark: random walk cố định seed, mỗi tick cách nhau {@code stepSeconds},
+ * giá scale 10^8 như cột prices.price, volume cộng dồn trong phiên như Finnhub.
+ */
+public final class SyntheticPrices {
+
+    public static final long START_EPOCH = 1_700_000_000L;
+
+    public final long[] epochSeconds;
+    public final long[] scaledPrices;
+    public final long[] volumes;
+
+    private SyntheticPrices(int ticks) {
+        epochSeconds = new long[ticks];
+        scaledPrices = new long[ticks];
+        volumes = new long[ticks];
+    }
+
+    public static SyntheticPrices randomWalk(int ticks, long stepSeconds, long seed) {
+        SyntheticPrices data = new SyntheticPrices(ticks);
+        SplittableRandom random = new SplittableRandom(seed);
+        long price = 150_00000000L; // 150.00000000
+        long volume = 0;
+        for (int i = 0; i < ticks; i++) {
+            long epoch = START_EPOCH + i * stepSeconds;
+            // Biến động ±0.2% mỗi tick, sang ngày mới thì volume phiên về 0
+            price = Math.max(1_000000L, price + price * (random.nextInt(401) - 200) / 100_000);
+            volume = (epoch % 86_400 < stepSeconds) ? 0 : volume + random.nextInt(5_000);
+            data.epochSeconds[i] = epoch;
+            data.scaledPrices[i] = price;
+            data.volumes[i] = volume;
+        }
+        return data;
+    }
+
+    public int size() {
+        return epochSeconds.length;
+    }
+
+    public BigDecimal price(int i) {
+        return CandleAggregator.fromScaled(scaledPrices[i]);
+    }
+
+    public OffsetDateTime timestamp(int i) {
+        return OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSeconds[i]), ZoneOffset.UTC);
+    }
+
+    public static Asset asset() {
+        return Asset.builder()
+                .id(UUID.nameUUIDFromBytes("BENCH".getBytes()))
+                .symbol("BENCH")
+                .name("Benchmark Corp")
+                .isActive(true)
+                .build();
+    }
+
+    public List<Price> entities(Asset asset) {
+        List<Price> prices = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) {
+            prices.add(Price.builder()
+                    .id(new UUID(asset.getId().getMostSignificantBits(), i))
+                    .asset(asset)
+                    .price(price(i))
+                    .timestamp(timestamp(i))
+                    .volume(BigDecimal.valueOf(volumes[i]))
+                    .changePercent(i == 0 ? null : BigDecimal.valueOf(scaledPrices[i] - scaledPrices[i - 1], 6))
+                    .high24h(price(i).add(BigDecimal.ONE))
+                    .low24h(price(i).subtract(BigDecimal.ONE))
+                    .marketCap(BigDecimal.valueOf(2_500_000_000_000L))
+                    .source("Finnhub")
+                    .build());
+        }
+        return prices;
+    }
+
+    public List<PriceSnapshot> snapshots(Asset asset) {
+        return entities(asset).stream().map(PriceSnapshot::from).toList();
+    }
+
+    public List<PriceResponse> responses(UUID assetId) {
+        List<PriceResponse> responses = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) {
+            PriceResponse response = new PriceResponse();
+            response.setAssetId(assetId);
+            response.setPrice(price(i));
+            response.setTimestamp(timestamp(i));
+            response.setVolume(volumes[i]);
+            response.setChangePercent(BigDecimal.valueOf(i % 400 - 200, 4));
+            response.setHigh24h(price(i).add(BigDecimal.ONE));
+            response.setLow24h(price(i).subtract(BigDecimal.ONE));
+            response.setMarketCap(BigDecimal.valueOf(2_500_000_000_000L));
+            response.setSource("Finnhub");
+            responses.add(response);
+        }
+        return responses;
+    }
+}
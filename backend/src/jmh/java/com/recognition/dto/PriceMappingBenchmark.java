@@ -0,0 +1,55 @@
+package com.recognition.dto;
+
+import com.recognition.benchmark.SyntheticPrices;
+import com.recognition.entity.Asset;
+import com.recognition.entity.Price;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chi phí map entity/snapshot → PriceDto cho một trang kết quả (history, top movers, latest).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriceMappingBenchmark {
+
+    @Param({"20", "1000"})
+    private int rows;
+
+    private List<Price> entities;
+    private List<PriceSnapshot> snapshots;
+
+    @Setup
+    public void setUp() {
+        Asset asset = SyntheticPrices.asset();
+        SyntheticPrices data = SyntheticPrices.randomWalk(rows, 60, 42);
+        entities = data.entities(asset);
+        snapshots = data.snapshots(asset);
+    }
+
+    @Benchmark
+    public void mapEntities(Blackhole bh) {
+        for (Price price : entities) {
+            bh.consume(PriceDtoMapper.toDto(price));
+        }
+    }
+
+    @Benchmark
+    public void mapSnapshots(Blackhole bh) {
+        for (PriceSnapshot snapshot : snapshots) {
+            bh.consume(PriceDtoMapper.toDto(snapshot));
+        }
+    }
+
+    @Benchmark
+    public List<PriceDto> mapSnapshotsToList() {
+        return snapshots.stream().map(PriceDtoMapper::toDto).toList();
+    }
+}
@@ -0,0 +1,55 @@
+package com.recognition.dto.response;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.recognition.benchmark.SyntheticPrices;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialize trang PriceResponse ra JSON như các endpoint history (Page và CursorPage),
+ * ObjectMapper cấu hình giống mặc định của Spring Boot (ngày giờ dạng ISO-8601).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriceResponseJsonBenchmark {
+
+    @Param({"20", "100", "1000"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private Page<PriceResponse> page;
+    private CursorPage<PriceResponse> cursorPage;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        List<PriceResponse> items = SyntheticPrices.randomWalk(pageSize, 60, 5)
+                .responses(UUID.nameUUIDFromBytes("BENCH".getBytes()));
+        page = new PageImpl<>(items, PageRequest.of(3, pageSize), 100_000);
+        cursorPage = CursorPage.of(items, "c2VlaytjdXJzb3I");
+    }
+
+    @Benchmark
+    public byte[] page() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] cursorPage() throws Exception {
+        return objectMapper.writeValueAsBytes(cursorPage);
+    }
+}
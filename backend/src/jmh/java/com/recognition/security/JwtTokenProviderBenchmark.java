@@ -0,0 +1,49 @@
+package com.recognition.security;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of issuing and checking JWTs on every authenticated request:
+ * the single-pass {@link JwtTokenProvider#parse(String)} for a valid and a tampered token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider provider;
+    private String token;
+    private String tampered;
+    private UUID userId;
+
+    @Setup
+    public void setUp() {
+        provider = new JwtTokenProvider("benchmarkSecretThatIsLongEnoughForHs256Signing", 3_600_000L);
+        userId = UUID.randomUUID();
+        token = provider.createToken(userId, "USER");
+        // Flip one signature character: parsing must reject it after the HMAC check
+        char last = token.charAt(token.length() - 1);
+        tampered = token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A');
+    }
+
+    @Benchmark
+    public String createToken() {
+        return provider.createToken(userId, "USER");
+    }
+
+    @Benchmark
+    public Object parse() {
+        return provider.parse(token);
+    }
+
+    @Benchmark
+    public Object parseTampered() {
+        return provider.parse(tampered);
+    }
+}
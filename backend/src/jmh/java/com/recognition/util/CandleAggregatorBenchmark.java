@@ -0,0 +1,58 @@
+package com.recognition.util;
+
+import com.recognition.benchmark.SyntheticPrices;
+import com.recognition.dto.CandleDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dựng nến trong getCandles: duyệt tick scale 10^8 theo thứ tự thời gian rồi xuất CandleDTO.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CandleAggregatorBenchmark {
+
+    private static final int LIMIT = 1_000;
+
+    @Param({"10000", "100000"})
+    private int ticks;
+
+    @Param({"FIVE_MINUTES", "ONE_HOUR", "ONE_DAY"})
+    private CandleResolution resolution;
+
+    private SyntheticPrices data;
+
+    @Setup
+    public void setUp() {
+        data = SyntheticPrices.randomWalk(ticks, 15, 11);
+    }
+
+    // Chỉ phần gom bucket
+    @Benchmark
+    public int aggregate() {
+        return feed().size();
+    }
+
+    // Gom bucket + tạo CandleDTO (BigDecimal, OffsetDateTime) như response thật
+    @Benchmark
+    public List<CandleDTO> aggregateAndMap() {
+        return feed().toCandles();
+    }
+
+    private CandleAggregator feed() {
+        CandleAggregator aggregator = new CandleAggregator(resolution, LIMIT);
+        long[] epochs = data.epochSeconds;
+        long[] prices = data.scaledPrices;
+        long[] volumes = data.volumes;
+        for (int i = 0; i < epochs.length; i++) {
+            aggregator.addTick(epochs[i], prices[i], volumes[i]);
+        }
+        return aggregator;
+    }
+}
@@ -0,0 +1,82 @@
+package com.recognition.util;
+
+import com.recognition.benchmark.SyntheticPrices;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * % thay đổi giữa hai tick liên tiếp: BigDecimal hiện tại (PriceChange.percent)
+ * so với phép chia trên long scale 10^8 cho cùng kết quả (làm tròn HALF_UP tới 4 chữ số của tỉ lệ).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChangePercentBenchmark {
+
+    private static final int TICKS = 10_000;
+
+    private BigDecimal[] prices;
+    private long[] scaled;
+
+    @Setup
+    public void setUp() {
+        SyntheticPrices data = SyntheticPrices.randomWalk(TICKS, 60, 7);
+        scaled = data.scaledPrices;
+        prices = new BigDecimal[TICKS];
+        for (int i = 0; i < TICKS; i++) {
+            prices[i] = data.price(i);
+        }
+
+        // Hai cách phải cho cùng kết quả, nếu không thì so sánh tốc độ không có ý nghĩa
+        for (int i = 1; i < TICKS; i++) {
+            BigDecimal expected = PriceChange.percent(prices[i - 1], prices[i]);
+            BigDecimal actual = toPercent(ratioScaled(scaled[i - 1], scaled[i]));
+            if (expected.compareTo(actual) != 0) {
+                throw new IllegalStateException("Mismatch at tick " + i + ": " + expected + " vs " + actual);
+            }
+        }
+    }
+
+    @Benchmark
+    public void bigDecimal(Blackhole bh) {
+        for (int i = 1; i < TICKS; i++) {
+            bh.consume(PriceChange.percent(prices[i - 1], prices[i]));
+        }
+    }
+
+    @Benchmark
+    public void scaledLong(Blackhole bh) {
+        for (int i = 1; i < TICKS; i++) {
+            bh.consume(ratioScaled(scaled[i - 1], scaled[i]));
+        }
+    }
+
+    // Tính bằng long rồi mới tạo BigDecimal cho response
+    @Benchmark
+    public void scaledLongToBigDecimal(Blackhole bh) {
+        for (int i = 1; i < TICKS; i++) {
+            bh.consume(toPercent(ratioScaled(scaled[i - 1], scaled[i])));
+        }
+    }
+
+    // (current - previous) / previous theo đơn vị 10^-4, làm tròn HALF_UP
+    static long ratioScaled(long previous, long current) {
+        long numerator = Math.multiplyExact(current - previous, 10_000L);
+        long quotient = numerator / previous;
+        long remainder = numerator % previous;
+        if (Math.abs(remainder) * 2 >= Math.abs(previous)) {
+            quotient += Long.signum(numerator) * Long.signum(previous);
+        }
+        return quotient;
+    }
+
+    static BigDecimal toPercent(long ratioScaled) {
+        return BigDecimal.valueOf(ratioScaled * 100, 4);
+    }
+}
@@ -0,0 +1,30 @@
+package com.recognition.alert;
+
+import com.recognition.entity.Alert;
+
+import java.util.Locale;
+
+/**
+ * Hướng của alert ngưỡng giá: ABOVE kích hoạt khi giá vượt lên trên ngưỡng, BELOW khi giá rơi xuống dưới.
+ */
+public enum AlertDirection {
+    ABOVE,
+    BELOW;
+
+    /**
+     * Đọc hướng từ condition_type (GREATER_THAN / LESS_THAN / ABOVE / BELOW...),
+     * nếu không nhận ra thì dựa vào alert_type (PRICE_ABOVE / PRICE_BELOW). Trả về null nếu không xác định được.
+     */
+    public static AlertDirection of(Alert alert) {
+        AlertDirection direction = parse(alert.getConditionType());
+        return direction != null ? direction : parse(alert.getAlertType());
+    }
+
+    private static AlertDirection parse(String value) {
+        if (value == null) return null;
+        String v = value.toUpperCase(Locale.ROOT);
+        if (v.contains("GREATER") || v.contains("ABOVE") || v.equals(">") || v.equals(">=")) return ABOVE;
+        if (v.contains("LESS") || v.contains("BELOW") || v.equals("<") || v.equals("<=")) return BELOW;
+        return null;
+    }
+}
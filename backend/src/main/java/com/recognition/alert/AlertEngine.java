@@ -0,0 +1,226 @@
+package com.recognition.alert;
+
+import com.recognition.cache.LatestPriceCache;
+import com.recognition.dto.PriceSnapshot;
+import com.recognition.entity.Alert;
+import com.recognition.entity.NotificationStatus;
+import com.recognition.event.PriceIngestedEvent;
+import com.recognition.repository.AlertJdbcRepository;
+import com.recognition.repository.AlertRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Đánh giá alert ngưỡng giá trên từng tick ingest.
+ * Alert active được giữ trong bộ nhớ, mỗi asset một {@link AlertThresholdIndex}; mỗi giá mới chỉ
+ * duyệt các ngưỡng vừa bị vượt qua. Alert kích hoạt được gom lại và ghi alert_logs (PENDING)
+ * cùng last_triggered theo lô, không truy vấn DB trên đường đánh giá.
+ */
+@Slf4j
+@Component
+public class AlertEngine {
+
+    private final AlertRepository alertRepository;
+    private final AlertJdbcRepository alertJdbcRepository;
+    private final LatestPriceCache latestPriceCache;
+    private final TransactionTemplate requiresNewTx;
+    private final TaskScheduler taskScheduler;
+
+    private final Map<UUID, AlertThresholdIndex> indexes = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<AlertHit> pendingHits = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+
+    // Khoảng tối thiểu giữa hai lần kích hoạt của cùng một alert
+    @Value("${price.alert.cooldown:PT15M}")
+    private Duration cooldown;
+
+    @Value("${price.alert.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    public AlertEngine(AlertRepository alertRepository,
+                       AlertJdbcRepository alertJdbcRepository,
+                       LatestPriceCache latestPriceCache,
+                       PlatformTransactionManager transactionManager,
+                       TaskScheduler taskScheduler) {
+        this.alertRepository = alertRepository;
+        this.alertJdbcRepository = alertJdbcRepository;
+        this.latestPriceCache = latestPriceCache;
+        this.requiresNewTx = new TransactionTemplate(transactionManager);
+        this.requiresNewTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.taskScheduler = taskScheduler;
+    }
+
+    @Order(3)
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reload();
+    }
+
+    /**
+     * Nạp lại toàn bộ alert active (bắt thay đổi tạo/sửa/tắt alert).
+     * Ghi hết alert đang chờ trước để last_triggered trong DB là mới nhất; khi thay index, giá trước đó
+     * và thời điểm kích hoạt trong bộ nhớ của từng alert được chép sang index mới (tick đánh giá trong
+     * lúc đang nạp không bị mất cooldown).
+     */
+    @Scheduled(fixedDelayString = "${price.alert.reload-ms:60000}", initialDelayString = "${price.alert.reload-ms:60000}")
+    public void reload() {
+        long start = System.currentTimeMillis();
+        flush();
+        Map<UUID, AlertThresholdIndex> fresh = new HashMap<>();
+        int loaded = 0;
+
+        for (Alert alert : alertRepository.findByIsActive(true)) {
+            AlertDirection direction = AlertDirection.of(alert);
+            if (direction == null || alert.getThresholdValue() == null) {
+                log.warn("Skipping alert {} with unsupported condition {}", alert.getId(), alert.getConditionType());
+                continue;
+            }
+            long lastTriggered = alert.getLastTriggered() != null
+                    ? alert.getLastTriggered().toInstant().toEpochMilli() : 0L;
+            fresh.computeIfAbsent(alert.getAssetId(), k -> new AlertThresholdIndex())
+                    .add(new AlertThresholdIndex.Entry(alert.getId(), direction, alert.getThresholdValue(), lastTriggered));
+            loaded++;
+        }
+
+        for (Map.Entry<UUID, AlertThresholdIndex> e : fresh.entrySet()) {
+            UUID assetId = e.getKey();
+            AlertThresholdIndex index = e.getValue();
+            AlertThresholdIndex previous = indexes.get(assetId);
+            if (previous == null) {
+                latestPriceCache.find(assetId).ifPresent(p -> index.seedPrice(p.price()));
+                indexes.put(assetId, index);
+                continue;
+            }
+            // Chép trạng thái và thay index trong cùng khoá để không tick nào lọt giữa hai bước
+            synchronized (previous) {
+                Map<UUID, Long> triggered = new HashMap<>();
+                previous.forEach(entry -> triggered.put(entry.alertId, entry.lastTriggeredMillis));
+                index.forEach(entry -> entry.lastTriggeredMillis =
+                        Math.max(entry.lastTriggeredMillis, triggered.getOrDefault(entry.alertId, 0L)));
+                index.seedPrice(previous.lastPrice());
+                latestPriceCache.find(assetId).ifPresent(p -> index.seedPrice(p.price()));
+                indexes.put(assetId, index);
+                previous.retire();
+            }
+        }
+        for (Iterator<Map.Entry<UUID, AlertThresholdIndex>> it = indexes.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<UUID, AlertThresholdIndex> e = it.next();
+            if (!fresh.containsKey(e.getKey())) {
+                synchronized (e.getValue()) {
+                    it.remove();
+                    e.getValue().retire();
+                }
+            }
+        }
+
+        log.info("Alert engine loaded {} active alerts on {} assets in {} ms",
+                loaded, fresh.size(), System.currentTimeMillis() - start);
+    }
+
+    // Chạy sau khi giá đã commit; chỉ đánh giá trong bộ nhớ rồi xếp hàng ghi log
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPriceIngested(PriceIngestedEvent event) {
+        for (PriceSnapshot snapshot : event.prices()) {
+            evaluate(snapshot);
+        }
+        // Đủ một lô thì ghi sớm trên thread của scheduler, không chặn thread ingest
+        if (pendingCount.get() >= flushBatchSize && flushRequested.compareAndSet(false, true)) {
+            try {
+                taskScheduler.schedule(() -> {
+                    flushRequested.set(false);
+                    flush();
+                }, Instant.now());
+            } catch (RuntimeException e) {
+                // Lần flush định kỳ vẫn ghi lô này
+                flushRequested.set(false);
+                log.warn("Could not schedule early alert flush: {}", e.getMessage());
+            }
+        }
+    }
+
+    void evaluate(PriceSnapshot snapshot) {
+        if (snapshot.price() == null) return;
+        AlertThresholdIndex index;
+        while ((index = indexes.get(snapshot.assetId())) != null) {
+            synchronized (index) {
+                // Index vừa bị reload thay thế trong lúc chờ khoá: đánh giá trên index mới
+                if (index.isRetired()) continue;
+                evaluateLocked(index, snapshot);
+                return;
+            }
+        }
+    }
+
+    private void evaluateLocked(AlertThresholdIndex index, PriceSnapshot snapshot) {
+
+        long now = System.currentTimeMillis();
+        long cooldownMillis = cooldown.toMillis();
+        OffsetDateTime triggeredAt = snapshot.timestamp() != null ? snapshot.timestamp() : OffsetDateTime.now();
+
+        index.onPrice(snapshot.price(), entry -> {
+            if (now - entry.lastTriggeredMillis < cooldownMillis) return;
+            entry.lastTriggeredMillis = now;
+            pendingHits.add(new AlertHit(entry.alertId, snapshot.assetId(), snapshot.assetSymbol(),
+                    entry.direction, entry.threshold, snapshot.price(), triggeredAt));
+            pendingCount.incrementAndGet();
+        });
+    }
+
+    /**
+     * Ghi các alert đã kích hoạt: chèn alert_logs và cập nhật last_triggered theo lô, mỗi lô một transaction.
+     */
+    @Scheduled(fixedDelayString = "${price.alert.flush-ms:1000}")
+    public synchronized void flush() {
+        while (!pendingHits.isEmpty()) {
+            List<AlertHit> batch = new ArrayList<>(Math.min(flushBatchSize, pendingCount.get()));
+            AlertHit hit;
+            while (batch.size() < flushBatchSize && (hit = pendingHits.poll()) != null) {
+                batch.add(hit);
+            }
+            pendingCount.addAndGet(-batch.size());
+            if (batch.isEmpty()) return;
+
+            try {
+                requiresNewTx.executeWithoutResult(status -> {
+                    alertJdbcRepository.insertLogs(batch, NotificationStatus.PENDING);
+                    alertJdbcRepository.touchLastTriggered(batch);
+                });
+                log.info("Recorded {} triggered alerts", batch.size());
+            } catch (Exception e) {
+                // Đưa lại vào hàng đợi, thử lại ở lần flush sau
+                pendingHits.addAll(batch);
+                pendingCount.addAndGet(batch.size());
+                log.warn("Failed to record {} triggered alerts: {}", batch.size(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    public int activeAlertCount() {
+        return indexes.values().stream().mapToInt(index -> {
+            synchronized (index) {
+                return index.size();
+            }
+        }).sum();
+    }
+}
@@ -0,0 +1,27 @@
+package com.recognition.alert;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Một alert vừa bị kích hoạt bởi một tick giá.
+ */
+public record AlertHit(
+        UUID alertId,
+        UUID assetId,
+        String assetSymbol,
+        AlertDirection direction,
+        BigDecimal threshold,
+        BigDecimal price,
+        OffsetDateTime triggeredAt
+) {
+
+    public String message() {
+        return String.format("%s price %s crossed %s %s",
+                assetSymbol != null ? assetSymbol : assetId,
+                price.stripTrailingZeros().toPlainString(),
+                direction == AlertDirection.ABOVE ? "above" : "below",
+                threshold.stripTrailingZeros().toPlainString());
+    }
+}
@@ -0,0 +1,105 @@
+package com.recognition.alert;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Các alert đang active của một asset, sắp theo ngưỡng trong hai cây (ABOVE / BELOW).
+ * Một tick từ giá trước {@code prev} sang giá mới {@code current} chỉ chạm đúng khoảng ngưỡng bị vượt qua:
+ * ABOVE kích hoạt khi prev <= ngưỡng < current, BELOW khi current < ngưỡng <= prev.
+ * Chi phí mỗi tick O(log n + số alert kích hoạt). Không thread-safe: người gọi khoá theo asset.
+ */
+final class AlertThresholdIndex {
+
+    /**
+     * Alert trong bộ nhớ; lastTriggeredMillis dùng cho cooldown.
+     */
+    static final class Entry {
+        final UUID alertId;
+        final AlertDirection direction;
+        final BigDecimal threshold;
+        long lastTriggeredMillis;
+
+        Entry(UUID alertId, AlertDirection direction, BigDecimal threshold, long lastTriggeredMillis) {
+            this.alertId = alertId;
+            this.direction = direction;
+            this.threshold = threshold;
+            this.lastTriggeredMillis = lastTriggeredMillis;
+        }
+    }
+
+    private final NavigableMap<BigDecimal, List<Entry>> above = new TreeMap<>();
+    private final NavigableMap<BigDecimal, List<Entry>> below = new TreeMap<>();
+    private BigDecimal lastPrice;
+    // Đã bị thay bằng index mới khi reload: người đang chờ khoá phải lấy lại index từ map
+    private boolean retired;
+
+    void add(Entry entry) {
+        tree(entry.direction).computeIfAbsent(entry.threshold, k -> new ArrayList<>(1)).add(entry);
+    }
+
+    boolean remove(UUID alertId, AlertDirection direction, BigDecimal threshold) {
+        NavigableMap<BigDecimal, List<Entry>> tree = tree(direction);
+        List<Entry> entries = tree.get(threshold);
+        if (entries == null) return false;
+        boolean removed = entries.removeIf(e -> e.alertId.equals(alertId));
+        if (entries.isEmpty()) tree.remove(threshold);
+        return removed;
+    }
+
+    int size() {
+        int n = 0;
+        for (List<Entry> l : above.values()) n += l.size();
+        for (List<Entry> l : below.values()) n += l.size();
+        return n;
+    }
+
+    void forEach(Consumer<Entry> action) {
+        for (List<Entry> l : above.values()) l.forEach(action);
+        for (List<Entry> l : below.values()) l.forEach(action);
+    }
+
+    boolean isRetired() {
+        return retired;
+    }
+
+    void retire() {
+        retired = true;
+    }
+
+    BigDecimal lastPrice() {
+        return lastPrice;
+    }
+
+    void seedPrice(BigDecimal price) {
+        if (lastPrice == null) lastPrice = price;
+    }
+
+    /**
+     * Chuyển giá hiện tại sang {@code current} và báo các alert có ngưỡng bị vượt qua.
+     * Tick đầu tiên (chưa biết giá trước) chỉ ghi nhận giá, không kích hoạt gì.
+     */
+    void onPrice(BigDecimal current, Consumer<Entry> hits) {
+        BigDecimal prev = lastPrice;
+        lastPrice = current;
+        if (prev == null) return;
+
+        int cmp = current.compareTo(prev);
+        if (cmp > 0) {
+            emit(above.subMap(prev, true, current, false), hits);
+        } else if (cmp < 0) {
+            emit(below.subMap(current, false, prev, true), hits);
+        }
+    }
+
+    private static void emit(NavigableMap<BigDecimal, List<Entry>> range, Consumer<Entry> hits) {
+        for (List<Entry> entries : range.values()) {
+            entries.forEach(hits);
+        }
+    }
+
+    private NavigableMap<BigDecimal, List<Entry>> tree(AlertDirection direction) {
+        return direction == AlertDirection.ABOVE ? above : below;
+    }
+}
@@ -0,0 +1,51 @@
+package com.recognition.cache;
+
+import com.recognition.dto.AssetSearchResult;
+import com.recognition.repository.AssetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.util.List;
+
+/**
+ * Phần chung của các bảng asset giữ trong bộ nhớ (registry symbol, chỉ mục tìm kiếm):
+ * nạp lười lần đầu, nạp sẵn khi khởi động và nạp lại toàn bộ dưới khoá của instance.
+ * Lớp con tự đặt lịch nạp lại định kỳ qua {@link #reload()}.
+ */
+@Slf4j
+abstract class AssetReloadingCache {
+
+    protected final AssetRepository assetRepository;
+    private volatile boolean loaded = false;
+
+    protected AssetReloadingCache(AssetRepository assetRepository) {
+        this.assetRepository = assetRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        ensureLoaded();
+    }
+
+    // Nạp lại toàn bộ để bắt các thay đổi không đi qua service (SQL tay, instance khác)
+    public synchronized void reload() {
+        long start = System.currentTimeMillis();
+        load(assetRepository.findAllSearchEntries());
+        loaded = true;
+        log.info("{} loaded {} assets in {} ms", getClass().getSimpleName(), size(), System.currentTimeMillis() - start);
+    }
+
+    public abstract int size();
+
+    // Thay toàn bộ nội dung bằng danh sách từ DB; gọi trong khoá của instance
+    protected abstract void load(List<AssetSearchResult> all);
+
+    protected final void ensureLoaded() {
+        if (loaded) return;
+        synchronized (this) {
+            if (loaded) return;
+            reload();
+        }
+    }
+}
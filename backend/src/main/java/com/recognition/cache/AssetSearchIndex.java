@@ -0,0 +1,285 @@
+package com.recognition.cache;
+
+import com.recognition.dto.AssetSearchResult;
+import com.recognition.repository.AssetRepository;
+import com.recognition.util.AfterCommit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Chỉ mục tìm kiếm asset theo symbol/tên giữ trong bộ nhớ cho typeahead.
+ * Gồm trie tiền tố (symbol, tên đầy đủ và từng từ của tên) và posting list trigram cho khớp chuỗi con.
+ * Ảnh chụp chỉ mục là bất biến và được dựng lại khi asset thêm/xoá (copy-on-write, một lần cho mỗi
+ * transaction), nên đọc không cần khoá và không chạm tới Postgres.
+ */
+@Component
+public class AssetSearchIndex extends AssetReloadingCache {
+
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 50;
+
+    // Số ứng viên tối đa lấy từ trie trước khi xếp hạng, tránh duyệt cả cây với truy vấn 1 ký tự
+    private static final int PREFIX_CANDIDATES = 256;
+
+    private final Map<UUID, AssetSearchResult> assets = new ConcurrentHashMap<>();
+    private volatile Snapshot snapshot = Snapshot.build(List.of());
+
+    public AssetSearchIndex(AssetRepository assetRepository) {
+        super(assetRepository);
+    }
+
+    /**
+     * Tìm theo symbol hoặc tên, không phân biệt hoa thường; kết quả đã xếp hạng, tối đa {@code limit} phần tử.
+     */
+    public List<AssetSearchResult> search(String query, int limit) {
+        if (query == null || query.isBlank() || limit <= 0) {
+            return List.of();
+        }
+        ensureLoaded();
+        return snapshot.search(normalize(query), Math.min(limit, MAX_LIMIT));
+    }
+
+    @Scheduled(fixedDelayString = "${asset.search.reload-ms:600000}", initialDelayString = "${asset.search.reload-ms:600000}")
+    public void scheduledReload() {
+        reload();
+    }
+
+    public void put(AssetSearchResult asset) {
+        apply(Collections.singletonMap(asset.id(), asset));
+    }
+
+    public void remove(UUID assetId) {
+        apply(Collections.singletonMap(assetId, null));
+    }
+
+    // Chỉ áp dụng khi transaction ghi asset đã commit; thay đổi của cả transaction được dựng lại một lần (null = xoá)
+    public void putAfterCommit(AssetSearchResult asset) {
+        AfterCommit.collect(this, asset.id(), asset, this::apply);
+    }
+
+    public void removeAfterCommit(UUID assetId) {
+        AfterCommit.collect(this, assetId, null, this::apply);
+    }
+
+    @Override
+    public int size() {
+        return snapshot.entries.length;
+    }
+
+    @Override
+    protected void load(List<AssetSearchResult> all) {
+        assets.clear();
+        all.forEach(asset -> assets.put(asset.id(), asset));
+        rebuild();
+    }
+
+    private synchronized void apply(Map<UUID, AssetSearchResult> changes) {
+        // Nạp trước nếu chưa nạp, để lần nạp lười sau đó không ghi đè thay đổi này
+        ensureLoaded();
+        boolean changed = false;
+        for (Map.Entry<UUID, AssetSearchResult> change : changes.entrySet()) {
+            AssetSearchResult previous = change.getValue() == null
+                    ? assets.remove(change.getKey())
+                    : assets.put(change.getKey(), change.getValue());
+            changed |= !Objects.equals(previous, change.getValue());
+        }
+        if (changed) {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        snapshot = Snapshot.build(assets.values());
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Ảnh chụp bất biến: entry được đánh số theo thứ tự symbol, trie và posting list tham chiếu theo chỉ số.
+     */
+    static final class Snapshot {
+
+        private final AssetSearchResult[] entries;
+        private final String[] symbols;
+        private final String[] names;
+        private final TrieNode symbolTrie = new TrieNode();
+        private final TrieNode nameTrie = new TrieNode();
+        private final Map<Long, int[]> trigrams;
+
+        private Snapshot(AssetSearchResult[] entries) {
+            this.entries = entries;
+            this.symbols = new String[entries.length];
+            this.names = new String[entries.length];
+
+            Map<Long, List<Integer>> postings = new HashMap<>();
+            for (int i = 0; i < entries.length; i++) {
+                symbols[i] = normalize(entries[i].symbol());
+                names[i] = normalize(entries[i].name());
+
+                symbolTrie.insert(symbols[i], i);
+                if (!names[i].isEmpty()) {
+                    nameTrie.insert(names[i], i);
+                    for (String word : names[i].split("[^\\p{L}\\p{N}]+")) {
+                        if (!word.isEmpty()) nameTrie.insert(word, i);
+                    }
+                }
+
+                Set<Long> seen = new HashSet<>();
+                addTrigrams(symbols[i], seen);
+                addTrigrams(names[i], seen);
+                for (Long trigram : seen) {
+                    postings.computeIfAbsent(trigram, k -> new ArrayList<>()).add(i);
+                }
+            }
+
+            // Entry được thêm theo chỉ số tăng dần nên mỗi posting list đã sắp xếp sẵn
+            this.trigrams = new HashMap<>(postings.size() * 2);
+            postings.forEach((trigram, ids) ->
+                    trigrams.put(trigram, ids.stream().mapToInt(Integer::intValue).toArray()));
+        }
+
+        static Snapshot build(Collection<AssetSearchResult> assets) {
+            AssetSearchResult[] entries = assets.stream()
+                    .filter(a -> a.symbol() != null)
+                    .sorted(Comparator.comparing(AssetSearchResult::symbol))
+                    .toArray(AssetSearchResult[]::new);
+            return new Snapshot(entries);
+        }
+
+        List<AssetSearchResult> search(String query, int limit) {
+            if (query.isEmpty() || entries.length == 0) {
+                return List.of();
+            }
+
+            Set<Integer> candidates = new LinkedHashSet<>();
+            symbolTrie.collect(query, PREFIX_CANDIDATES, candidates);
+            nameTrie.collect(query, PREFIX_CANDIDATES, candidates);
+            if (query.length() >= 3) {
+                substringMatches(query, candidates);
+            }
+
+            return candidates.stream()
+                    .map(i -> new Scored(i, score(i, query)))
+                    .filter(s -> s.score > 0)
+                    .sorted(Comparator.comparingInt(Scored::score).reversed()
+                            .thenComparingInt(s -> symbols[s.index].length())
+                            .thenComparingInt(Scored::index))
+                    .limit(limit)
+                    .map(s -> entries[s.index])
+                    .toList();
+        }
+
+        // Giao các posting list trigram của truy vấn (bắt đầu từ list ngắn nhất) rồi kiểm tra lại bằng contains
+        private void substringMatches(String query, Set<Integer> out) {
+            Set<Long> grams = new HashSet<>();
+            addTrigrams(query, grams);
+
+            List<int[]> lists = new ArrayList<>(grams.size());
+            for (Long gram : grams) {
+                int[] list = trigrams.get(gram);
+                if (list == null) return;
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.length));
+
+            int[] current = lists.get(0);
+            for (int n = 1; n < lists.size() && current.length > 0; n++) {
+                current = intersect(current, lists.get(n));
+            }
+            for (int i : current) {
+                if (symbols[i].contains(query) || names[i].contains(query)) {
+                    out.add(i);
+                }
+            }
+        }
+
+        private int score(int i, String query) {
+            String symbol = symbols[i];
+            String name = names[i];
+            int score;
+            if (symbol.equals(query)) score = 1_000;
+            else if (symbol.startsWith(query)) score = 800;
+            else if (name.startsWith(query)) score = 600;
+            else if (startsWord(name, query)) score = 500;
+            else if (symbol.contains(query)) score = 300;
+            else if (name.contains(query)) score = 200;
+            else return 0;
+            // Asset đã ngừng theo dõi vẫn tìm được nhưng xếp sau
+            return Boolean.FALSE.equals(entries[i].isActive()) ? score - 50 : score;
+        }
+
+        private static boolean startsWord(String name, String query) {
+            int from = 0;
+            while ((from = name.indexOf(query, from)) >= 0) {
+                if (from == 0 || !Character.isLetterOrDigit(name.charAt(from - 1))) return true;
+                from++;
+            }
+            return false;
+        }
+
+        private record Scored(int index, int score) {
+        }
+    }
+
+    static final class TrieNode {
+        private final Map<Character, TrieNode> children = new TreeMap<>();
+        private int[] ids = new int[0];
+
+        void insert(String key, int id) {
+            TrieNode node = this;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new TrieNode());
+            }
+            if (node.ids.length == 0 || node.ids[node.ids.length - 1] != id) {
+                node.ids = Arrays.copyOf(node.ids, node.ids.length + 1);
+                node.ids[node.ids.length - 1] = id;
+            }
+        }
+
+        // Duyệt theo chiều rộng dưới nút tiền tố: khoá ngắn (khớp sát hơn) được lấy trước
+        void collect(String prefix, int max, Set<Integer> out) {
+            TrieNode node = this;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.children.get(prefix.charAt(i));
+            }
+            if (node == null) return;
+
+            int added = 0;
+            Deque<TrieNode> queue = new ArrayDeque<>();
+            queue.add(node);
+            while (!queue.isEmpty()) {
+                TrieNode current = queue.poll();
+                for (int id : current.ids) {
+                    if (out.add(id) && ++added >= max) return;
+                }
+                queue.addAll(current.children.values());
+            }
+        }
+    }
+
+    private static void addTrigrams(String text, Set<Long> out) {
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            out.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+}
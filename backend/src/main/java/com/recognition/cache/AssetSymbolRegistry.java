@@ -0,0 +1,148 @@
+package com.recognition.cache;
+
+import com.recognition.dto.AssetSearchResult;
+import com.recognition.repository.AssetRepository;
+import com.recognition.util.AfterCommit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bảng tra symbol ↔ assetId dùng chung, giữ trong bộ nhớ.
+ * Nạp một lần khi khởi động và cập nhật khi asset được tạo/xoá, nên mọi endpoint theo symbol
+ * được phân giải bằng một lần tra map; symbol không tồn tại trả về rỗng mà không chạm DB.
+ * Symbol được so khớp không phân biệt hoa thường.
+ */
+@Component
+public class AssetSymbolRegistry extends AssetReloadingCache {
+
+    private final Map<String, UUID> idsBySymbol = new ConcurrentHashMap<>();
+    private final Map<UUID, String> symbolsById = new ConcurrentHashMap<>();
+
+    public AssetSymbolRegistry(AssetRepository assetRepository) {
+        super(assetRepository);
+    }
+
+    /**
+     * Phân giải một mã do client gửi lên: UUID của asset hoặc symbol.
+     */
+    public Optional<UUID> resolve(String code) {
+        if (code == null || code.isBlank()) {
+            return Optional.empty();
+        }
+        ensureLoaded();
+        UUID id = parseUuid(code.trim());
+        if (id != null) {
+            return symbolsById.containsKey(id) ? Optional.of(id) : Optional.empty();
+        }
+        return Optional.ofNullable(idsBySymbol.get(key(code)));
+    }
+
+    public Optional<UUID> findIdBySymbol(String symbol) {
+        if (symbol == null) {
+            return Optional.empty();
+        }
+        ensureLoaded();
+        return Optional.ofNullable(idsBySymbol.get(key(symbol)));
+    }
+
+    public boolean containsSymbol(String symbol) {
+        return findIdBySymbol(symbol).isPresent();
+    }
+
+    // Symbol đúng như lưu trong DB
+    public Optional<String> symbolOf(UUID assetId) {
+        ensureLoaded();
+        return Optional.ofNullable(symbolsById.get(assetId));
+    }
+
+    // Giữ thứ tự đầu vào, bỏ qua symbol không tồn tại
+    public Map<String, UUID> resolveSymbols(Collection<String> symbols) {
+        ensureLoaded();
+        Map<String, UUID> resolved = new LinkedHashMap<>();
+        for (String symbol : symbols) {
+            if (symbol == null) continue;
+            UUID id = idsBySymbol.get(key(symbol));
+            if (id != null) resolved.putIfAbsent(symbolsById.getOrDefault(id, symbol), id);
+        }
+        return resolved;
+    }
+
+    @Override
+    public int size() {
+        return symbolsById.size();
+    }
+
+    @Scheduled(fixedDelayString = "${asset.registry.reload-ms:300000}", initialDelayString = "${asset.registry.reload-ms:300000}")
+    public void scheduledReload() {
+        reload();
+    }
+
+    @Override
+    protected void load(List<AssetSearchResult> all) {
+        Set<UUID> present = new HashSet<>();
+        for (AssetSearchResult asset : all) {
+            if (asset.symbol() == null) continue;
+            put(asset.id(), asset.symbol());
+            present.add(asset.id());
+        }
+        for (UUID id : new ArrayList<>(symbolsById.keySet())) {
+            if (!present.contains(id)) remove(id);
+        }
+    }
+
+    // Nạp trước nếu chưa nạp, để lần nạp lười sau đó không xoá mất asset vừa đăng ký
+    public synchronized void register(UUID assetId, String symbol) {
+        ensureLoaded();
+        put(assetId, symbol);
+    }
+
+    public synchronized void unregister(UUID assetId) {
+        ensureLoaded();
+        remove(assetId);
+    }
+
+    // Chỉ áp dụng khi transaction ghi asset đã commit (áp dụng ngay nếu không có transaction)
+    public void registerAfterCommit(UUID assetId, String symbol) {
+        AfterCommit.run(() -> register(assetId, symbol));
+    }
+
+    public void unregisterAfterCommit(UUID assetId) {
+        AfterCommit.run(() -> unregister(assetId));
+    }
+
+    // Gọi khi đang giữ khoá của instance
+    private void put(UUID assetId, String symbol) {
+        String previous = symbolsById.put(assetId, symbol);
+        if (previous != null && !key(previous).equals(key(symbol))) {
+            idsBySymbol.remove(key(previous), assetId);
+        }
+        idsBySymbol.put(key(symbol), assetId);
+    }
+
+    private void remove(UUID assetId) {
+        String symbol = symbolsById.remove(assetId);
+        if (symbol != null) {
+            idsBySymbol.remove(key(symbol), assetId);
+        }
+    }
+
+    private static String key(String symbol) {
+        return symbol.trim().toUpperCase(Locale.ROOT);
+    }
+
+    // Kiểm tra nhanh hình dạng UUID trước khi parse, không dùng regex/exception cho symbol thường
+    static UUID parseUuid(String code) {
+        if (code.length() != 36 || code.charAt(8) != '-' || code.charAt(13) != '-'
+                || code.charAt(18) != '-' || code.charAt(23) != '-') {
+            return null;
+        }
+        try {
+            return UUID.fromString(code);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.recognition.cache;
+
+import com.recognition.dto.PriceSnapshot;
+import com.recognition.event.PriceIngestedEvent;
+import com.recognition.repository.PriceJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Giá mới nhất của từng asset giữ trong bộ nhớ (assetId -> snapshot).
+ * Nạp một lần bằng một truy vấn DISTINCT ON khi khởi động, sau đó được cập nhật
+ * từ các sự kiện ingest nên mọi lần đọc giá mới nhất chỉ là một lần tra map.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LatestPriceCache {
+
+    private final PriceJdbcRepository priceJdbcRepository;
+
+    private final Map<UUID, PriceSnapshot> latest = new ConcurrentHashMap<>();
+    private volatile boolean loaded = false;
+
+    @Order(0)
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        ensureLoaded();
+    }
+
+    public Optional<PriceSnapshot> find(UUID assetId) {
+        ensureLoaded();
+        return Optional.ofNullable(latest.get(assetId));
+    }
+
+    public Collection<PriceSnapshot> snapshots() {
+        ensureLoaded();
+        return latest.values();
+    }
+
+    public void put(PriceSnapshot snapshot) {
+        // Chỉ ghi đè khi bản ghi mới hơn, tránh ghi lùi khi nạp và ingest chạy song song
+        latest.merge(snapshot.assetId(), snapshot,
+                (current, incoming) -> incoming.isNewerThan(current) ? incoming : current);
+    }
+
+    public void evict(UUID assetId) {
+        latest.remove(assetId);
+    }
+
+    // Chỉ cập nhật sau khi transaction ghi giá đã commit
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPriceIngested(PriceIngestedEvent event) {
+        event.prices().forEach(this::put);
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        synchronized (this) {
+            if (loaded) return;
+            long start = System.currentTimeMillis();
+            priceJdbcRepository.findAllLatest().forEach(this::put);
+            loaded = true;
+            log.info("Latest price cache warmed with {} assets in {} ms",
+                    latest.size(), System.currentTimeMillis() - start);
+        }
+    }
+}
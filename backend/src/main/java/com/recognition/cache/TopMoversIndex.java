@@ -0,0 +1,106 @@
+package com.recognition.cache;
+
+import com.recognition.dto.PriceSnapshot;
+import com.recognition.event.PriceIngestedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Bảng xếp hạng asset theo changePercent của giá mới nhất, giữ trong một skip list có thứ tự.
+ * Được seed từ {@link LatestPriceCache} khi khởi động và cập nhật tăng dần theo sự kiện ingest,
+ * nên top gainers/losers chỉ là duyệt k phần tử đầu/cuối của tập đã sắp xếp.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TopMoversIndex {
+
+    // Sắp theo changePercent, hoà thì theo assetId để mỗi asset là một phần tử riêng
+    private static final Comparator<Ranked> ORDER = Comparator
+            .comparing(Ranked::changePercent)
+            .thenComparing(Ranked::assetId);
+
+    private record Ranked(BigDecimal changePercent, UUID assetId, PriceSnapshot snapshot) {
+    }
+
+    private final LatestPriceCache latestPriceCache;
+
+    private final ConcurrentSkipListSet<Ranked> ranking = new ConcurrentSkipListSet<>(ORDER);
+    private final Map<UUID, PriceSnapshot> current = new ConcurrentHashMap<>();
+    private volatile boolean loaded = false;
+
+    // Chạy sau LatestPriceCache.warmUp (@Order(0))
+    @Order(1)
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        ensureLoaded();
+    }
+
+    public List<PriceSnapshot> topGainers(int limit) {
+        ensureLoaded();
+        return take(ranking.descendingIterator(), limit);
+    }
+
+    public List<PriceSnapshot> topLosers(int limit) {
+        ensureLoaded();
+        return take(ranking.iterator(), limit);
+    }
+
+    public void put(PriceSnapshot snapshot) {
+        // compute khoá theo asset: thay phần tử cũ trong ranking một cách nguyên tử với map
+        current.compute(snapshot.assetId(), (assetId, existing) -> {
+            if (existing != null && !snapshot.isNewerThan(existing)) {
+                return existing;
+            }
+            if (existing != null && existing.changePercent() != null) {
+                ranking.remove(new Ranked(existing.changePercent(), assetId, existing));
+            }
+            if (snapshot.changePercent() != null) {
+                ranking.add(new Ranked(snapshot.changePercent(), assetId, snapshot));
+            }
+            return snapshot;
+        });
+    }
+
+    public void evict(UUID assetId) {
+        current.computeIfPresent(assetId, (id, existing) -> {
+            if (existing.changePercent() != null) {
+                ranking.remove(new Ranked(existing.changePercent(), id, existing));
+            }
+            return null;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPriceIngested(PriceIngestedEvent event) {
+        event.prices().forEach(this::put);
+    }
+
+    private static List<PriceSnapshot> take(Iterator<Ranked> it, int limit) {
+        List<PriceSnapshot> result = new ArrayList<>(Math.max(0, Math.min(limit, 64)));
+        while (it.hasNext() && result.size() < limit) {
+            result.add(it.next().snapshot());
+        }
+        return result;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        synchronized (this) {
+            if (loaded) return;
+            latestPriceCache.snapshots().forEach(this::put);
+            loaded = true;
+            log.info("Top movers index seeded with {} ranked assets", ranking.size());
+        }
+    }
+}
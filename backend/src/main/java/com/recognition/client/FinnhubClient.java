@@ -1,158 +1,213 @@
 package com.recognition.client;
 
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
-import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class FinnhubClient {
 
-    private static final String FINNHUB_BASE_URL = "https://finnhub.io/api/v1";
     private static final String QUOTE_ENDPOINT = "/quote";
     private static final String COMPANY_PROFILE_ENDPOINT = "/stock/profile2";
 
+    // Thời gian chờ thêm cho mỗi lượt fetch hàng loạt, ngoài thời gian rate limiter bắt buộc phải chờ
+    private static final Duration FETCH_ALL_GRACE = Duration.ofSeconds(15);
+
     private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader symbolReader;
+    private final TokenBucket rateLimiter;
+    private final int permitsPerMinute;
+    private final String baseUrl;
+    // Mỗi request chạy trên một virtual thread; số request đồng thời thực tế do rateLimiter quyết định
+    private final ExecutorService fetchExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     @Value("${finnhub.api.key}")
     private String apiToken;
 
-    // Lấy giá hiện tại cổ phiếu từ Finnhub
-    public BigDecimal fetchPrice(String symbol) {
-        String url = UriComponentsBuilder.fromHttpUrl(FINNHUB_BASE_URL + QUOTE_ENDPOINT)
+    public FinnhubClient(RestTemplate restTemplate,
+                         ObjectMapper objectMapper,
+                         @Value("${finnhub.rate-limit.per-minute:60}") int permitsPerMinute,
+                         @Value("${finnhub.rate-limit.burst:30}") int burst,
+                         @Value("${finnhub.api.base-url:https://finnhub.io/api/v1}") String baseUrl) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.symbolReader = objectMapper.readerFor(MarketSymbol.class);
+        this.permitsPerMinute = permitsPerMinute;
+        this.rateLimiter = new TokenBucket(permitsPerMinute, burst);
+        this.baseUrl = baseUrl;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchExecutor.shutdownNow();
+    }
+
+    // Lấy quote hiện tại (giá, cao/thấp, mở cửa, volume) của cổ phiếu trong một request
+    public Quote fetchQuote(String symbol) {
+        String url = UriComponentsBuilder.fromHttpUrl(baseUrl + QUOTE_ENDPOINT)
                 .queryParam("symbol", symbol)
                 .queryParam("token", apiToken)
                 .toUriString();
 
         try {
-            ResponseEntity<Map> response = restTemplate.getForEntity(url, Map.class);
+            Quote quote = getForEntity(url, Quote.class).getBody();
 
-            if (response.getBody() == null || response.getBody().get("c") == null) {
-                log.warn(" No price found for symbol: {}", symbol);
+            if (quote == null || !quote.isValid()) {
+                log.warn(" No valid quote found for symbol: {}", symbol);
                 return null;
             }
 
-            BigDecimal price = new BigDecimal(response.getBody().get("c").toString());
-            if (price.compareTo(BigDecimal.ZERO) <= 0) {
-                log.warn(" Invalid price value ({}) for symbol: {}", price, symbol);
-                return null;
-            }
-
-            return price;
+            return quote;
         } catch (Exception e) {
-            log.error(" Error fetching price for {}: {}", symbol, e.getMessage());
+            log.error(" Error fetching quote for {}: {}", symbol, e.getMessage());
             return null;
         }
     }
 
-    // Lấy danh sách mã cổ phiếu theo sàn
-    public List<Map<String, Object>> fetchMarketSymbols(String exchange) {
-        String url = UriComponentsBuilder.fromHttpUrl(FINNHUB_BASE_URL + "/stock/symbol")
+    /**
+     * Duyệt danh sách mã cổ phiếu của sàn bằng parser streaming, không dựng cả danh sách trong bộ nhớ.
+     * Trả về tối đa {@code limit} mã thoả {@code filter}; dừng đọc response ngay khi đủ.
+     */
+    public List<MarketSymbol> fetchMarketSymbols(String exchange, Predicate<MarketSymbol> filter, int limit) {
+        String url = UriComponentsBuilder.fromHttpUrl(baseUrl + "/stock/symbol")
                 .queryParam("exchange", exchange)
                 .queryParam("token", apiToken)
                 .toUriString();
 
-        try {
-            ResponseEntity<List> response = restTemplate.getForEntity(url, List.class);
-            return response.getBody();
-        } catch (Exception e) {
-            log.error(" Error fetching market symbols for exchange {}: {}", exchange, e.getMessage());
-            return Collections.emptyList();
+        List<MarketSymbol> result = new ArrayList<>(Math.min(limit, 64));
+        if (limit <= 0) {
+            return result;
         }
-    }
 
-    // Lấy thông tin chỉ số tài chính (P/E, P/B, ROE, Dividend Yield...) của cổ phiếu.
-    public Map<String, Object> fetchStockMetrics(String symbol) {
-        String url = String.format(
-                "%s/stock/metric?symbol=%s&metric=all&token=%s",
-                FINNHUB_BASE_URL, symbol, apiToken
-        );
         try {
-            ResponseEntity<Map> response = restTemplate.getForEntity(url, Map.class);
-            return (Map<String, Object>) response.getBody().get("metric");
+            acquirePermit();
+            restTemplate.execute(url, HttpMethod.GET, null, response -> {
+                try (JsonParser parser = objectMapper.getFactory().createParser(response.getBody())) {
+                    if (parser.nextToken() != JsonToken.START_ARRAY) {
+                        log.warn(" Unexpected symbol list payload for exchange {}", exchange);
+                        return null;
+                    }
+                    int scanned = 0;
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        MarketSymbol symbol = symbolReader.readValue(parser);
+                        scanned++;
+                        if (symbol.symbol() != null && filter.test(symbol)) {
+                            result.add(symbol);
+                            if (result.size() >= limit) break;
+                        }
+                    }
+                    log.info(" Scanned {} symbols on {} to find {} matches", scanned, exchange, result.size());
+                }
+                return null;
+            });
         } catch (Exception e) {
-            log.warn(" Failed to fetch metrics for {}: {}", symbol, e.getMessage());
-            return Collections.emptyMap();
+            log.error(" Error fetching market symbols for exchange {}: {}", exchange, e.getMessage());
         }
+        return result;
     }
 
-    // Lấy khối lượng giao dịch hiện tại của cổ phiếu
-    public BigDecimal fetchQuoteVolume(String symbol) {
-        String url = UriComponentsBuilder
-                .fromHttpUrl(FINNHUB_BASE_URL + QUOTE_ENDPOINT)
+    // Lấy thông tin chỉ số tài chính (P/E, P/B, ROE, Dividend Yield...) của cổ phiếu.
+    public StockMetrics fetchStockMetrics(String symbol) {
+        String url = UriComponentsBuilder.fromHttpUrl(baseUrl + "/stock/metric")
                 .queryParam("symbol", symbol)
+                .queryParam("metric", "all")
                 .queryParam("token", apiToken)
                 .toUriString();
-
         try {
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-            if (response == null || response.get("v") == null) {
-                log.warn(" No volume found for symbol: {}", symbol);
-                return null;
-            }
-
-            return new BigDecimal(response.get("v").toString());
+            StockMetrics.Response response = getForEntity(url, StockMetrics.Response.class).getBody();
+            return response != null && response.metric() != null ? response.metric() : StockMetrics.EMPTY;
         } catch (Exception e) {
-            log.error(" Error fetching volume for {}: {}", symbol, e.getMessage());
-            return null;
+            log.warn(" Failed to fetch metrics for {}: {}", symbol, e.getMessage());
+            return StockMetrics.EMPTY;
         }
     }
 
-    // Lấy giá cho toàn bộ danh sách cổ phiếu theo mã cổ phiếu
-    public Map<String, BigDecimal> fetchAllPrices(List<String> symbols) {
-        Map<String, BigDecimal> result = new ConcurrentHashMap<>();
+    // Lấy quote cho toàn bộ danh sách cổ phiếu, mỗi mã đúng một request
+    public Map<String, Quote> fetchAllQuotes(List<String> symbols) {
+        return fetchAll(symbols, this::fetchQuote);
+    }
+
+    /**
+     * Gọi {@code fetcher} cho từng mã trên virtual thread, tốc độ bị chặn bởi rate limiter dùng chung.
+     * Mã lỗi hoặc trả về null bị bỏ qua; kết quả chỉ chứa các mã lấy được.
+     */
+    public <T> Map<String, T> fetchAll(List<String> symbols, Function<String, T> fetcher) {
+        Map<String, T> result = new ConcurrentHashMap<>();
 
         if (symbols == null || symbols.isEmpty()) {
             return result;
         }
 
-        int threadLimit = Math.min(5, symbols.size()); // Giới hạn 5 luồng để tránh bị Finnhub chặn
-        ExecutorService executor = Executors.newFixedThreadPool(threadLimit);
-
         long startTime = System.currentTimeMillis();
-
-        try {
-            List<Future<?>> futures = new ArrayList<>();
-            for (String symbol : symbols) {
-                futures.add(executor.submit(() -> {
-                    try {
-                        BigDecimal price = fetchPrice(symbol);
-                        if (price != null) {
-                            result.put(symbol, price);
-                        }
-                        Thread.sleep(100);
-                    } catch (Exception ex) {
-                        log.warn(" Failed to fetch price for {}: {}", symbol, ex.getMessage());
-                    }
-                }));
-            }
-
-            for (Future<?> f : futures) {
-                try {
-                    f.get(15, TimeUnit.SECONDS); // timeout riêng từng tác vụ
-                } catch (TimeoutException e) {
-                    log.warn(" Timeout fetching one of symbols");
+        // Hạn chót theo quota: n request cần ít nhất n / permitsPerMinute phút
+        long deadline = System.nanoTime()
+                + TimeUnit.MINUTES.toNanos(symbols.size()) / permitsPerMinute
+                + FETCH_ALL_GRACE.toNanos();
+
+        List<Future<?>> futures = new ArrayList<>(symbols.size());
+        for (String symbol : symbols) {
+            futures.add(fetchExecutor.submit(() -> {
+                T value = fetcher.apply(symbol);
+                if (value != null) {
+                    result.put(symbol, value);
                 }
-            }
+            }));
+        }
 
-        } catch (Exception e) {
-            log.error(" Error in fetchAllPrices: {}", e.getMessage());
-        } finally {
-            executor.shutdown();
+        int timedOut = 0;
+        for (Future<?> f : futures) {
+            try {
+                f.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                f.cancel(true);
+                timedOut++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(x -> x.cancel(true));
+                break;
+            } catch (ExecutionException e) {
+                log.warn(" Fetch task failed: {}", e.getCause().getMessage());
+            }
+        }
+        if (timedOut > 0) {
+            log.warn(" {} of {} symbols timed out", timedOut, symbols.size());
         }
 
         long duration = System.currentTimeMillis() - startTime;
-        log.info(" fetchAllPrices completed for {} symbols in {} ms", symbols.size(), duration);
+        log.info(" fetchAll completed for {} symbols ({} ok) in {} ms", symbols.size(), result.size(), duration);
 
         return result;
     }
+
+    // Mọi request đi qua rate limiter dùng chung
+    private <T> ResponseEntity<T> getForEntity(String url, Class<T> type) {
+        acquirePermit();
+        return restTemplate.getForEntity(url, type);
+    }
+
+    private void acquirePermit() {
+        try {
+            rateLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Finnhub rate limit", e);
+        }
+    }
 }
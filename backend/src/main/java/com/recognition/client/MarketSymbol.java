@@ -0,0 +1,18 @@
+package com.recognition.client;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Một phần tử của danh sách /stock/symbol Finnhub.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record MarketSymbol(
+        String symbol,
+        String displaySymbol,
+        String description,
+        String type,
+        String currency,
+        String mic,
+        String figi
+) {
+}
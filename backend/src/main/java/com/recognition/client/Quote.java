@@ -0,0 +1,50 @@
+package com.recognition.client;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Kết quả của một request /quote Finnhub, đọc thẳng vào kiểu nguyên thủy.
+ * c = giá hiện tại, h/l/o = cao/thấp/mở cửa trong ngày, pc = giá đóng cửa phiên trước,
+ * v = khối lượng (0 nếu Finnhub không trả), t = thời điểm quote (epoch giây).
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record Quote(double c, double h, double l, double o, double pc, long v, long t) {
+
+    public boolean isValid() {
+        return c > 0;
+    }
+
+    public BigDecimal price() {
+        return BigDecimal.valueOf(c);
+    }
+
+    public BigDecimal high() {
+        return h > 0 ? BigDecimal.valueOf(h) : null;
+    }
+
+    public BigDecimal low() {
+        return l > 0 ? BigDecimal.valueOf(l) : null;
+    }
+
+    public BigDecimal open() {
+        return o > 0 ? BigDecimal.valueOf(o) : null;
+    }
+
+    public BigDecimal previousClose() {
+        return pc > 0 ? BigDecimal.valueOf(pc) : null;
+    }
+
+    public BigDecimal volume() {
+        return v > 0 ? BigDecimal.valueOf(v) : null;
+    }
+
+    // null nếu Finnhub trả t = 0 (mã không có dữ liệu giao dịch)
+    public OffsetDateTime timestamp() {
+        return t > 0 ? OffsetDateTime.ofInstant(Instant.ofEpochSecond(t), ZoneOffset.UTC) : null;
+    }
+}
@@ -0,0 +1,36 @@
+package com.recognition.client;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.math.BigDecimal;
+
+/**
+ * Các chỉ số tài chính dùng tới trong khối "metric" của /stock/metric Finnhub.
+ * Jackson đọc số thẳng vào BigDecimal; chỉ số không có trong response là null.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record StockMetrics(
+        BigDecimal marketCapitalization,
+        BigDecimal volume,
+        BigDecimal shareOutstanding,
+        BigDecimal peNormalizedAnnual,
+        BigDecimal pbAnnual,
+        BigDecimal evToEbitdaAnnual,
+        BigDecimal epsAnnual,
+        BigDecimal bookValuePerShareAnnual
+) {
+
+    public static final StockMetrics EMPTY = new StockMetrics(null, null, null, null, null, null, null, null);
+
+    // Không có chỉ số nào (kể cả khi Finnhub trả "metric": {} thay vì lỗi)
+    public boolean isEmpty() {
+        return marketCapitalization == null && volume == null && shareOutstanding == null
+                && peNormalizedAnnual == null && pbAnnual == null && evToEbitdaAnnual == null
+                && epsAnnual == null && bookValuePerShareAnnual == null;
+    }
+
+    // Vỏ ngoài của response: {"metric": {...}, "series": {...}}
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Response(StockMetrics metric) {
+    }
+}
@@ -0,0 +1,71 @@
+package com.recognition.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Bộ giới hạn tốc độ token bucket dùng chung cho mọi request tới Finnhub.
+ * Nạp lại {@code permitsPerMinute} token mỗi phút (liên tục, không theo bậc), tối đa {@code capacity} token dồn lại.
+ * Mỗi lần {@link #acquire()} đặt trước một slot thời gian dưới lock (lock công bằng nên slot cấp theo thứ tự đến)
+ * rồi ngủ đúng một lần tới slot đó ngoài lock, thay vì cả đám waiter cùng thức dậy tranh một token.
+ * Dùng ReentrantLock thay cho synchronized để virtual thread không bị ghim khi chờ.
+ */
+public class TokenBucket {
+
+    private final long intervalNanos;
+    // Độ sớm tối đa của slot so với hiện tại: phần token dồn lại (burst)
+    private final long burstNanos;
+    private final LongSupplier nanoClock;
+    private final ReentrantLock lock = new ReentrantLock(true);
+
+    // Thời điểm slot kế tiếp được cấp
+    private long nextFree;
+
+    public TokenBucket(int permitsPerMinute, int capacity) {
+        this(permitsPerMinute, capacity, System::nanoTime);
+    }
+
+    TokenBucket(int permitsPerMinute, int capacity, LongSupplier nanoClock) {
+        if (permitsPerMinute <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("permitsPerMinute and capacity must be positive");
+        }
+        this.intervalNanos = Math.max(1, TimeUnit.MINUTES.toNanos(1) / permitsPerMinute);
+        this.burstNanos = (capacity - 1) * intervalNanos;
+        this.nanoClock = nanoClock;
+        this.nextFree = nanoClock.getAsLong() - burstNanos;
+    }
+
+    // Chờ tới slot đã đặt (chặn thread hiện tại); bị ngắt thì slot đó bỏ phí
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve(false);
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    public boolean tryAcquire() {
+        return reserve(true) == 0;
+    }
+
+    /**
+     * Đặt slot kế tiếp; trả về số nano giây phải chờ tới slot đó (0 = dùng được ngay).
+     * Với {@code onlyIfAvailable}, không đặt khi phải chờ và trả về thời gian chờ.
+     */
+    long reserve(boolean onlyIfAvailable) {
+        lock.lock();
+        try {
+            long now = nanoClock.getAsLong();
+            // Không dồn quá capacity token khi bucket rảnh lâu
+            long slot = Math.max(nextFree, now - burstNanos);
+            long waitNanos = Math.max(0, slot - now);
+            if (waitNanos > 0 && onlyIfAvailable) {
+                return waitNanos;
+            }
+            nextFree = slot + intervalNanos;
+            return waitNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.recognition.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class RefreshJobConfig {
+
+    // Pool cố định cho job làm mới giá: số worker và hàng đợi đều có giới hạn
+    @Bean(name = "refreshJobExecutor")
+    public ThreadPoolTaskExecutor refreshJobExecutor(@Value("${price.job.workers:2}") int workers,
+                                                     @Value("${price.job.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("refresh-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
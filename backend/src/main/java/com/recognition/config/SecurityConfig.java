@@ -10,9 +10,9 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
-import com.recognition.repository.UserRepository;
 import com.recognition.security.JwtAuthenticationFilter;
 import com.recognition.security.JwtTokenProvider;
+import com.recognition.security.UserPrincipalCache;
 import com.recognition.service.CustomOAuth2UserService;
 
 import lombok.RequiredArgsConstructor;
@@ -22,7 +22,7 @@ import lombok.RequiredArgsConstructor;
 public class SecurityConfig {
 
     private final JwtTokenProvider jwtTokenProvider;
-    private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
     private final CustomOAuth2UserService customOAuth2UserService;
 
     @Bean
@@ -43,8 +43,10 @@ public class SecurityConfig {
                 }))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/api/auth/**", "/auth/oauth2/**", "/oauth2/**", "/actuator/**").permitAll()
-                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/api/auth/**", "/auth/oauth2/**", "/oauth2/**",
+                                "/actuator/health", "/actuator/health/**").permitAll()
+                        // Metrics lộ thông tin JVM/HTTP/datasource/Finnhub: chỉ ADMIN
+                        .requestMatchers("/api/admin/**", "/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated())
                 .addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
         return http.build();
@@ -70,7 +72,7 @@ public class SecurityConfig {
 
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(jwtTokenProvider, userRepository);
+        return new JwtAuthenticationFilter(jwtTokenProvider, userPrincipalCache);
     }
 
     @Bean
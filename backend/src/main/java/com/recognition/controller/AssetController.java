@@ -1,5 +1,7 @@
 package com.recognition.controller;
 
+import com.recognition.cache.AssetSearchIndex;
+import com.recognition.dto.AssetSearchResult;
 import com.recognition.entity.Asset;
 import com.recognition.entity.Price;
 import com.recognition.exception.ResourceNotFoundException;
@@ -68,10 +70,14 @@ public class AssetController {
         }
     }
 
-    // 4. Tìm kiếm cổ phiếu theo tên hoặc ký hiệu
+    // 4. Tìm kiếm cổ phiếu theo tên hoặc ký hiệu (typeahead, chỉ mục trong bộ nhớ)
     @GetMapping("/search")
-    public ResponseEntity<List<Asset>> searchAssets(@RequestParam String query) {
-        List<Asset> results = assetService.searchAssets(query);
+    @Operation(summary = "Search assets", description = "Ranked symbol/name search for typeahead: exact symbol, prefix, then substring matches")
+    public ResponseEntity<List<AssetSearchResult>> searchAssets(
+            @RequestParam String query,
+            @Parameter(description = "Maximum results (1-" + AssetSearchIndex.MAX_LIMIT + ")")
+            @RequestParam(defaultValue = "" + AssetSearchIndex.DEFAULT_LIMIT) int limit) {
+        List<AssetSearchResult> results = assetService.searchAssets(query, limit);
         return ResponseEntity.ok(results);
     }
 
@@ -4,7 +4,6 @@ import java.io.IOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.Optional;
-import java.util.UUID;
 
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.core.user.OAuth2User;
@@ -21,6 +20,7 @@ import com.recognition.dto.request.RegisterRequest;
 import com.recognition.dto.response.AuthResponse;
 import com.recognition.entity.Users;
 import com.recognition.repository.UserRepository;
+import com.recognition.security.JwtClaims;
 import com.recognition.security.JwtTokenProvider;
 import com.recognition.service.AuthService;
 import com.recognition.service.JwtService;
@@ -126,12 +126,12 @@ public class AuthController {
         }
         token = token.substring(7);
 
-        if (!jwtTokenProvider.validateToken(token)) {
+        Optional<JwtClaims> claims = jwtTokenProvider.parse(token);
+        if (claims.isEmpty()) {
             return new AuthResponse(false, "Token invalid or expired", null, null);
         }
 
-        UUID userId = jwtTokenProvider.getUserIdFromToken(token);
-        Optional<Users> userOpt = userRepository.findById(userId);
+        Optional<Users> userOpt = userRepository.findById(claims.get().userId());
 
         if (userOpt.isEmpty()) {
             return new AuthResponse(false, "User not found", null, null);
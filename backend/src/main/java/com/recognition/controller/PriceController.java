@@ -1,12 +1,15 @@
 package com.recognition.controller;
 
 import com.recognition.dto.PriceDto;
+import com.recognition.dto.QuoteWindow;
 import com.recognition.dto.CandleDTO;
+import com.recognition.dto.response.CursorPage;
 import com.recognition.dto.response.StatisticsDTO;
 import com.recognition.dto.response.PriceResponse;
 import com.recognition.entity.Price;
 import com.recognition.exception.InvalidSortPropertyException;
 import com.recognition.service.AsyncPriceService;
+import com.recognition.service.PriceRollupService;
 import com.recognition.service.PriceService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -23,6 +26,7 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
@@ -42,6 +46,7 @@ public class PriceController {
 
     private final PriceService priceService;
     private final AsyncPriceService asyncPriceService;
+    private final PriceRollupService priceRollupService;
 
     //1. Lấy giá mới nhất theo asset
     @GetMapping("/{assetId}/latest")
@@ -110,9 +115,11 @@ public class PriceController {
     public ResponseEntity<?> getChart(
             @PathVariable UUID assetId,
             @RequestParam(defaultValue = "1d") String interval,
+            @Parameter(description = "Candle size: 1m, 5m, 1h or 1d (default depends on interval)")
+            @RequestParam(required = false) String resolution,
             @RequestParam(defaultValue = "100") int limit
     ) {
-        List<CandleDTO> data = priceService.getCandles(assetId, interval, limit);
+        List<CandleDTO> data = priceService.getCandles(assetId, interval, resolution, limit);
         return ResponseEntity.ok(Map.of(
                 "success", true,
                 "message", "Chart data fetched successfully",
@@ -129,6 +136,10 @@ public class PriceController {
 
         log.info("Calculating price change for asset: {} over {} hours", assetId, hours);
         BigDecimal change = priceService.calculatePriceChange(assetId, hours);
+        // Không có giá trước mốc thời gian: không có số liệu để so sánh
+        if (change == null) {
+            return ResponseEntity.noContent().build();
+        }
         return ResponseEntity.ok(change);
     }
 
@@ -183,7 +194,33 @@ public class PriceController {
         return ResponseEntity.ok(asyncPriceService.getJobStatus(jobId));
     }
 
-    // 10. Top tăng hoặc giảm giá
+    // 10. Huỷ job (dừng sau lô đang chạy)
+    @PostMapping("/fetch-all/cancel/{jobId}")
+    public ResponseEntity<?> cancelFetchAll(@PathVariable String jobId) {
+        if (!asyncPriceService.cancelJob(jobId)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("message", "Job not found or already finished"));
+        }
+        return ResponseEntity.accepted().body(Map.of(
+                "message", "Cancellation requested",
+                "jobId", jobId
+        ));
+    }
+
+    // 11. Dựng lại bảng rollup (phút/giờ/ngày) từ lịch sử giá
+    @PostMapping("/rollups/backfill")
+    @Operation(summary = "Backfill price rollups",
+            description = "Rebuild minute/hour/day OHLCV bars from the raw price history in the background")
+    public ResponseEntity<?> backfillRollups() {
+        if (priceRollupService.isBackfillRunning()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", "Rollup backfill is already running"));
+        }
+        priceRollupService.backfillAsync();
+        return ResponseEntity.accepted().body(Map.of("message", "Rollup backfill started"));
+    }
+
+    // 12. Top tăng hoặc giảm giá
     @GetMapping("/top")
     @Operation(summary = "Get top gainers or losers",
             description = "Return the top assets with highest or lowest price change percentage")
@@ -200,7 +237,85 @@ public class PriceController {
         ));
     }
 
-    // 11. Chuyển PriceDto → PriceResponse
+    // 13. Lịch sử giá theo cursor (keyset): không đếm tổng, trang sâu nhanh như trang đầu
+    @GetMapping("/{assetId}/history/cursor")
+    @Operation(summary = "Scroll price history",
+            description = "Cursor-based price history; pass nextCursor from the previous page to continue")
+    public ResponseEntity<CursorPage<PriceResponse>> getPriceHistoryCursor(
+            @PathVariable UUID assetId,
+
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate startDate,
+
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate endDate,
+
+            @Parameter(description = "Opaque cursor returned as nextCursor by the previous page")
+            @RequestParam(required = false) String cursor,
+
+            @RequestParam(defaultValue = "100") int limit,
+
+            @Parameter(schema = @Schema(allowableValues = {"desc", "asc"}))
+            @RequestParam(defaultValue = "desc") String order
+    ) {
+        if (!order.equalsIgnoreCase("asc") && !order.equalsIgnoreCase("desc")) {
+            throw new InvalidSortPropertyException(order);
+        }
+
+        OffsetDateTime start = startDate != null
+                ? startDate.atStartOfDay().atOffset(ZoneOffset.UTC)
+                : null;
+        OffsetDateTime end = endDate != null
+                ? endDate.atTime(LocalTime.MAX).atOffset(ZoneOffset.UTC)
+                : null;
+
+        CursorPage<PriceDto> page = priceService.getPriceHistoryCursor(
+                assetId, start, end, cursor, limit, order.equalsIgnoreCase("asc"));
+        return ResponseEntity.ok(new CursorPage<>(
+                page.items().stream().map(this::mapToResponse).toList(),
+                page.size(), page.hasMore(), page.nextCursor()));
+    }
+
+    // 14. Giá mới nhất + % thay đổi nhiều cửa sổ cho nhiều asset trong một lần gọi (màn hình watchlist)
+    @GetMapping("/batch")
+    @Operation(summary = "Batch quotes",
+            description = "Latest price, volume and change over several windows for asset ids and/or symbols, "
+                    + "or the authenticated user's watchlist, in one response")
+    public ResponseEntity<?> getBatchQuotes(
+            @RequestParam(required = false) List<UUID> assetIds,
+            @RequestParam(required = false) List<String> symbols,
+            @Parameter(description = "Include the authenticated user's watchlist")
+            @RequestParam(defaultValue = "false") boolean watchlist,
+            @Parameter(description = "Change windows such as 1h,24h,7d (default 1h,24h,7d,30d)")
+            @RequestParam(required = false) List<String> windows,
+            Authentication authentication
+    ) {
+        UUID userId = null;
+        if (watchlist) {
+            if (authentication == null || !(authentication.getPrincipal() instanceof UUID principal)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(Map.of("message", "Authentication required for watchlist quotes"));
+            }
+            userId = principal;
+        }
+        List<UUID> ids = assetIds != null ? assetIds : List.of();
+        List<String> codes = symbols != null ? symbols : List.of();
+        if (ids.isEmpty() && codes.isEmpty() && userId == null) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("message", "Provide assetIds, symbols or watchlist=true"));
+        }
+
+        try {
+            List<QuoteWindow> parsed = QuoteWindow.parseAll(windows);
+            return ResponseEntity.ok(priceService.getBatchQuotes(ids, codes, userId, parsed));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // 15. Chuyển PriceDto → PriceResponse
     private PriceResponse mapToResponse(PriceDto dto) {
         PriceResponse response = new PriceResponse();
         response.setAssetId(dto.getAssetId());
@@ -0,0 +1,79 @@
+package com.recognition.controller;
+
+import com.recognition.entity.Asset;
+import com.recognition.exception.ResourceNotFoundException;
+import com.recognition.export.PriceExportFormat;
+import com.recognition.repository.AssetRepository;
+import com.recognition.service.PriceExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Tải lịch sử giá dạng file, response được ghi dần theo cursor DB (chunked) thay vì dựng list trong bộ nhớ.
+ */
+@RestController
+@RequestMapping("/api/prices")
+@RequiredArgsConstructor
+@Tag(name = "Price export", description = "Stream price history as CSV or a compact columnar binary file")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class PriceExportController {
+
+    private final PriceExportService priceExportService;
+    private final AssetRepository assetRepository;
+
+    // 1. Export lịch sử giá trong khoảng ngày (mặc định toàn bộ lịch sử)
+    @GetMapping("/{assetId}/export")
+    @Operation(summary = "Export price history",
+            description = "Streams rows oldest first. 'columnar' is a delta/varint encoded column format (see ColumnarPriceWriter)")
+    public ResponseEntity<StreamingResponseBody> export(
+            @PathVariable UUID assetId,
+
+            @Parameter(schema = @Schema(allowableValues = {"csv", "columnar"}))
+            @RequestParam(defaultValue = "csv") String format,
+
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate startDate,
+
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate endDate
+    ) {
+        PriceExportFormat exportFormat = PriceExportFormat.from(format);
+        Asset asset = assetRepository.findById(assetId)
+                .orElseThrow(() -> new ResourceNotFoundException("Asset not found with ID: " + assetId));
+
+        OffsetDateTime start = startDate != null
+                ? startDate.atStartOfDay().atOffset(ZoneOffset.UTC)
+                : OffsetDateTime.of(1970, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        OffsetDateTime end = endDate != null
+                ? endDate.atTime(LocalTime.MAX).atOffset(ZoneOffset.UTC)
+                : OffsetDateTime.now(ZoneOffset.UTC);
+
+        String filename = String.format("%s_%s_%s.%s", asset.getSymbol(),
+                start.toLocalDate(), end.toLocalDate(), exportFormat.getExtension());
+        StreamingResponseBody body = out -> priceExportService.export(assetId, start, end, exportFormat, out);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
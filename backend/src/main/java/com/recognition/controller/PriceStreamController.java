@@ -0,0 +1,85 @@
+package com.recognition.controller;
+
+import com.recognition.cache.AssetSymbolRegistry;
+import com.recognition.entity.Watchlist;
+import com.recognition.repository.WatchlistRepository;
+import com.recognition.stream.PriceStreamHub;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.*;
+
+/**
+ * Luồng giá realtime qua Server-Sent Events: client mở một kết nối và nhận một event mỗi khi giá đổi,
+ * thay cho việc poll /api/prices/{assetId}/latest.
+ */
+@RestController
+@RequestMapping("/api/stream")
+@RequiredArgsConstructor
+@Tag(name = "Price stream", description = "Server-sent price updates per asset or per watchlist")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class PriceStreamController {
+
+    private static final int MAX_ASSETS_PER_STREAM = 200;
+
+    private final PriceStreamHub priceStreamHub;
+    private final WatchlistRepository watchlistRepository;
+    private final AssetSymbolRegistry assetSymbolRegistry;
+
+    // 1. Nghe giá của các asset theo id
+    @GetMapping(value = "/prices", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream prices of assets",
+            description = "Server-sent events named 'price', one per change, conflated per asset for slow clients")
+    public ResponseEntity<?> streamPrices(@RequestParam List<UUID> assetIds) {
+        if (assetIds.isEmpty() || assetIds.size() > MAX_ASSETS_PER_STREAM) {
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("message", "assetIds must contain 1-" + MAX_ASSETS_PER_STREAM + " ids"));
+        }
+        return open(new LinkedHashSet<>(assetIds));
+    }
+
+    // 2. Nghe giá của toàn bộ mã trong watchlist của người dùng hiện tại
+    @GetMapping(value = "/watchlist", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream prices of my watchlist")
+    public ResponseEntity<?> streamWatchlist(Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof UUID userId)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("message", "Authentication required"));
+        }
+
+        List<String> symbols = watchlistRepository.findByUserId(userId).stream()
+                .map(Watchlist::getSymbol)
+                .toList();
+        Set<UUID> assetIds = new LinkedHashSet<>();
+        for (UUID assetId : assetSymbolRegistry.resolveSymbols(symbols).values()) {
+            if (assetIds.size() >= MAX_ASSETS_PER_STREAM) break;
+            assetIds.add(assetId);
+        }
+        if (assetIds.isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("message", "Watchlist is empty"));
+        }
+        return open(assetIds);
+    }
+
+    private ResponseEntity<?> open(Set<UUID> assetIds) {
+        try {
+            SseEmitter emitter = priceStreamHub.subscribe(assetIds);
+            return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(emitter);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+}
@@ -3,10 +3,10 @@ package com.recognition.controller;
 import com.recognition.dto.UserDTO;
 import com.recognition.dto.request.UpdateUserRequest;
 import com.recognition.dto.request.WatchlistRequest;
-import com.recognition.security.JwtTokenProvider;
 import com.recognition.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
@@ -16,19 +16,16 @@ import java.util.*;
 public class UserController {
 
     private final UserService userService;
-    private final JwtTokenProvider jwtTokenProvider;
 
-    public UserController(UserService userService, JwtTokenProvider jwtTokenProvider) {
+    public UserController(UserService userService) {
         this.userService = userService;
-        this.jwtTokenProvider = jwtTokenProvider;
     }
 
     // Lấy thông tin người dùng hiện tại
     @GetMapping("/me")
-    public ResponseEntity<?> getCurrentUser(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getCurrentUser(Authentication authentication) {
         try {
-            String token = authHeader.replace("Bearer ", "");
-            UUID userId = jwtTokenProvider.getUserIdFromToken(token);
+            UUID userId = currentUserId(authentication);
             UserDTO dto = userService.getCurrentUser(userId);
             return ResponseEntity.ok(buildResponse(true, "OK", dto));
         } catch (Exception e) {
@@ -39,11 +36,10 @@ public class UserController {
 
     // Cập nhật người dùng
     @PutMapping("/me")
-    public ResponseEntity<?> updateUser(@RequestHeader("Authorization") String authHeader,
+    public ResponseEntity<?> updateUser(Authentication authentication,
                                         @Valid @RequestBody UpdateUserRequest request) {
         try {
-            String token = authHeader.replace("Bearer ", "");
-            UUID userId = jwtTokenProvider.getUserIdFromToken(token);
+            UUID userId = currentUserId(authentication);
 
             UserDTO updated = userService.updateUser(userId, request);
             return ResponseEntity.ok(buildResponse(true, "Updated", updated));
@@ -55,10 +51,9 @@ public class UserController {
 
     // Cổ phiếu yêu thích
     @GetMapping("/watchlist")
-    public ResponseEntity<?> getWatchlist(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getWatchlist(Authentication authentication) {
         try {
-            String token = authHeader.replace("Bearer ", "");
-            UUID userId = jwtTokenProvider.getUserIdFromToken(token);
+            UUID userId = currentUserId(authentication);
 
             List<String> list = userService.getWatchlist(userId);
             return ResponseEntity.ok(buildResponse(true, "OK", list));
@@ -69,10 +64,9 @@ public class UserController {
 
     @PostMapping("/watchlist")
     public ResponseEntity<?> addWatchlist(@Valid @RequestBody WatchlistRequest request,
-                                          @RequestHeader("Authorization") String authHeader) {
+                                          Authentication authentication) {
         try {
-            String token = authHeader.replace("Bearer ", "");
-            UUID userId = jwtTokenProvider.getUserIdFromToken(token);
+            UUID userId = currentUserId(authentication);
 
             userService.addWatchlist(userId, request.getSymbol());
             return ResponseEntity.ok(buildResponse(true, "Added", null));
@@ -83,10 +77,9 @@ public class UserController {
 
     @DeleteMapping("/watchlist")
     public ResponseEntity<?> removeWatchlist(@Valid @RequestBody WatchlistRequest request,
-                                             @RequestHeader("Authorization") String authHeader) {
+                                             Authentication authentication) {
         try {
-            String token = authHeader.replace("Bearer ", "");
-            UUID userId = jwtTokenProvider.getUserIdFromToken(token);
+            UUID userId = currentUserId(authentication);
 
             userService.removeWatchlist(userId, request.getSymbol());
             return ResponseEntity.ok(buildResponse(true, "Removed", null));
@@ -95,6 +88,14 @@ public class UserController {
         }
     }
 
+    // userId do JwtAuthenticationFilter đặt làm principal sau khi đã parse token
+    private static UUID currentUserId(Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof UUID userId)) {
+            throw new IllegalStateException("Authentication required");
+        }
+        return userId;
+    }
+
     private Object buildResponse(boolean success, String message, Object data) {
         return new HashMap<>() {{
             put("success", success);
@@ -0,0 +1,14 @@
+package com.recognition.dto;
+
+import java.util.UUID;
+
+/**
+ * Kết quả tìm kiếm asset gọn nhẹ cho typeahead (không kèm description/metrics).
+ */
+public record AssetSearchResult(
+        UUID id,
+        String symbol,
+        String name,
+        Boolean isActive
+) {
+}
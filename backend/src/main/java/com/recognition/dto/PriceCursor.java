@@ -0,0 +1,50 @@
+package com.recognition.dto;
+
+import com.recognition.exception.InvalidCursorException;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Vị trí (timestamp, id) của bản ghi cuối trang trước trong lịch sử giá, kèm chiều sắp xếp.
+ * Được mã hoá base64url thành chuỗi mờ để client chỉ việc gửi lại nguyên vẹn.
+ */
+public record PriceCursor(boolean ascending, OffsetDateTime timestamp, UUID id) {
+
+    private static final byte VERSION = 1;
+    private static final int ENCODED_BYTES = 1 + 1 + Long.BYTES + 2 * Long.BYTES;
+
+    public String encode() {
+        Instant instant = timestamp.toInstant();
+        ByteBuffer buffer = ByteBuffer.allocate(ENCODED_BYTES)
+                .put(VERSION)
+                .put((byte) (ascending ? 1 : 0))
+                // timestamptz của PostgreSQL có độ chính xác micro giây
+                .putLong(ChronoUnit.MICROS.between(Instant.EPOCH, instant))
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    public static PriceCursor decode(String cursor) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("not base64url");
+        }
+        if (bytes.length != ENCODED_BYTES || bytes[0] != VERSION) {
+            throw new InvalidCursorException("unsupported format");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+        boolean ascending = buffer.get() == 1;
+        Instant instant = Instant.EPOCH.plus(buffer.getLong(), ChronoUnit.MICROS);
+        UUID id = new UUID(buffer.getLong(), buffer.getLong());
+        return new PriceCursor(ascending, OffsetDateTime.ofInstant(instant, ZoneOffset.UTC), id);
+    }
+}
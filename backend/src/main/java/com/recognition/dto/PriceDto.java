@@ -19,6 +19,27 @@ public class PriceDto {
   private BigDecimal marketCap;
   private String source;
 
+  public PriceDto() {
+  }
+
+  // Dùng cho JPQL constructor projection (SELECT new ...PriceDto(...)), thứ tự khớp các field ở trên
+  public PriceDto(UUID id, UUID assetId, String assetName, String assetSymbol,
+                  BigDecimal price, OffsetDateTime timestamp, BigDecimal volume, BigDecimal changePercent,
+                  BigDecimal high24h, BigDecimal low24h, BigDecimal marketCap, String source) {
+    this.id = id;
+    this.assetId = assetId;
+    this.assetName = assetName;
+    this.assetSymbol = assetSymbol;
+    this.price = price;
+    this.timestamp = timestamp;
+    this.volume = volume;
+    this.changePercent = changePercent;
+    this.high24h = high24h;
+    this.low24h = low24h;
+    this.marketCap = marketCap;
+    this.source = source;
+  }
+
   // Getters & Setters
   public UUID getId() { return id; }
   public void setId(UUID id) { this.id = id; }
@@ -0,0 +1,46 @@
+package com.recognition.dto;
+
+import com.recognition.entity.Price;
+
+/**
+ * Map entity/snapshot giá sang {@link PriceDto} cho response (history, latest, top movers).
+ */
+public final class PriceDtoMapper {
+
+    private PriceDtoMapper() {
+    }
+
+    public static PriceDto toDto(Price price) {
+        PriceDto dto = new PriceDto();
+        dto.setId(price.getId());
+        dto.setAssetId(price.getAsset().getId());
+        dto.setAssetName(price.getAsset().getName());
+        dto.setAssetSymbol(price.getAsset().getSymbol());
+        dto.setPrice(price.getPrice());
+        dto.setTimestamp(price.getTimestamp());
+        dto.setVolume(price.getVolume());
+        dto.setChangePercent(price.getChangePercent());
+        dto.setHigh24h(price.getHigh24h());
+        dto.setLow24h(price.getLow24h());
+        dto.setMarketCap(price.getMarketCap());
+        dto.setSource(price.getSource());
+        return dto;
+    }
+
+    public static PriceDto toDto(PriceSnapshot price) {
+        PriceDto dto = new PriceDto();
+        dto.setId(price.id());
+        dto.setAssetId(price.assetId());
+        dto.setAssetName(price.assetName());
+        dto.setAssetSymbol(price.assetSymbol());
+        dto.setPrice(price.price());
+        dto.setTimestamp(price.timestamp());
+        dto.setVolume(price.volume());
+        dto.setChangePercent(price.changePercent());
+        dto.setHigh24h(price.high24h());
+        dto.setLow24h(price.low24h());
+        dto.setMarketCap(price.marketCap());
+        dto.setSource(price.source());
+        return dto;
+    }
+}
@@ -0,0 +1,48 @@
+package com.recognition.dto;
+
+import com.recognition.entity.Price;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Ảnh chụp bất biến của một bản ghi giá, dùng cho cache và sự kiện ingest
+ * (không giữ tham chiếu tới entity/proxy JPA).
+ */
+public record PriceSnapshot(
+        UUID id,
+        UUID assetId,
+        String assetSymbol,
+        String assetName,
+        BigDecimal price,
+        OffsetDateTime timestamp,
+        BigDecimal volume,
+        BigDecimal changePercent,
+        BigDecimal high24h,
+        BigDecimal low24h,
+        BigDecimal marketCap,
+        String source
+) {
+
+    public static PriceSnapshot from(Price price) {
+        return new PriceSnapshot(
+                price.getId(),
+                price.getAsset().getId(),
+                price.getAsset().getSymbol(),
+                price.getAsset().getName(),
+                price.getPrice(),
+                price.getTimestamp(),
+                price.getVolume(),
+                price.getChangePercent(),
+                price.getHigh24h(),
+                price.getLow24h(),
+                price.getMarketCap(),
+                price.getSource()
+        );
+    }
+
+    public boolean isNewerThan(PriceSnapshot other) {
+        return other == null || !timestamp.isBefore(other.timestamp());
+    }
+}
@@ -0,0 +1,57 @@
+package com.recognition.dto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cửa sổ tính % thay đổi giá cho API batch, dạng "&lt;số&gt;&lt;đơn vị&gt;" với đơn vị m/h/d/w (vd. 1h, 24h, 7d).
+ */
+public record QuoteWindow(String label, Duration duration) {
+
+    public static final List<String> DEFAULT_LABELS = List.of("1h", "24h", "7d", "30d");
+    public static final int MAX_WINDOWS = 8;
+    private static final Duration MAX_DURATION = Duration.ofDays(366);
+
+    public static QuoteWindow parse(String label) {
+        String value = label == null ? "" : label.trim().toLowerCase();
+        if (value.length() < 2) {
+            throw new IllegalArgumentException("Invalid window: " + label);
+        }
+        long amount;
+        try {
+            amount = Long.parseLong(value.substring(0, value.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid window: " + label);
+        }
+        Duration unit = switch (value.charAt(value.length() - 1)) {
+            case 'm' -> Duration.ofMinutes(1);
+            case 'h' -> Duration.ofHours(1);
+            case 'd' -> Duration.ofDays(1);
+            case 'w' -> Duration.ofDays(7);
+            default -> throw new IllegalArgumentException("Invalid window: " + label);
+        };
+        // Kiểm tra số lượng trước khi nhân để số quá lớn không tràn thành cửa sổ âm/ngoại lệ số học
+        if (amount <= 0 || amount > MAX_DURATION.dividedBy(unit)) {
+            throw new IllegalArgumentException("Window must be between 1m and 366d: " + label);
+        }
+        Duration duration = unit.multipliedBy(amount);
+        return new QuoteWindow(value, duration);
+    }
+
+    // Bỏ trùng theo nhãn, giữ thứ tự; rỗng thì dùng bộ mặc định
+    public static List<QuoteWindow> parseAll(List<String> labels) {
+        List<String> source = labels == null || labels.isEmpty() ? DEFAULT_LABELS : labels;
+        Map<String, QuoteWindow> windows = new LinkedHashMap<>();
+        for (String label : source) {
+            QuoteWindow window = parse(label);
+            windows.putIfAbsent(window.label(), window);
+        }
+        if (windows.size() > MAX_WINDOWS) {
+            throw new IllegalArgumentException("At most " + MAX_WINDOWS + " windows are allowed");
+        }
+        return new ArrayList<>(windows.values());
+    }
+}
@@ -0,0 +1,24 @@
+package com.recognition.dto.response;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Giá mới nhất của một asset kèm % thay đổi theo từng cửa sổ (nhãn cửa sổ → %).
+ * price/timestamp null khi asset chưa có giá nào; % của một cửa sổ là null khi không có giá nào trước mốc.
+ */
+public record AssetQuote(
+        UUID assetId,
+        String symbol,
+        String name,
+        BigDecimal price,
+        BigDecimal volume,
+        BigDecimal high24h,
+        BigDecimal low24h,
+        OffsetDateTime timestamp,
+        BigDecimal changePercent,
+        Map<String, BigDecimal> changes
+) {
+}
@@ -0,0 +1,14 @@
+package com.recognition.dto.response;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Kết quả API batch: quote theo thứ tự yêu cầu, các id/symbol không tìm thấy và mốc thời gian tính thay đổi.
+ */
+public record BatchQuoteResponse(
+        List<AssetQuote> quotes,
+        List<String> notFound,
+        OffsetDateTime asOf
+) {
+}
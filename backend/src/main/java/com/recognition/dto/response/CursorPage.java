@@ -0,0 +1,19 @@
+package com.recognition.dto.response;
+
+import java.util.List;
+
+/**
+ * Một trang kết quả phân trang theo cursor: không có tổng số bản ghi,
+ * {@code nextCursor} null khi đã hết dữ liệu.
+ */
+public record CursorPage<T>(
+        List<T> items,
+        int size,
+        boolean hasMore,
+        String nextCursor
+) {
+
+    public static <T> CursorPage<T> of(List<T> items, String nextCursor) {
+        return new CursorPage<>(items, items.size(), nextCursor != null, nextCursor);
+    }
+}
@@ -5,11 +5,30 @@ import java.time.OffsetDateTime;
 
 /**
  * DTO tính toán thống kê giá trong khoảng thời gian.
+ * volatility = độ lệch chuẩn / giá trung bình * 100 (%),
+ * vwap tính trên phần volume tăng thêm giữa hai tick liên tiếp (volume Finnhub là cộng dồn trong phiên).
  */
 public record StatisticsDTO(
         BigDecimal minPrice,
         BigDecimal maxPrice,
         BigDecimal avgPrice,
+        BigDecimal firstPrice,
+        BigDecimal lastPrice,
+        BigDecimal stdDev,
+        BigDecimal volatility,
+        BigDecimal vwap,
+        long sampleCount,
         OffsetDateTime from,
         OffsetDateTime to
-) {}
+) {
+
+    public StatisticsDTO(BigDecimal minPrice, BigDecimal maxPrice, BigDecimal avgPrice,
+                         OffsetDateTime from, OffsetDateTime to) {
+        this(minPrice, maxPrice, avgPrice, null, null, null, null, null, 0, from, to);
+    }
+
+    public static StatisticsDTO empty(OffsetDateTime from, OffsetDateTime to) {
+        return new StatisticsDTO(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO,
+                null, null, null, null, null, 0, from, to);
+    }
+}
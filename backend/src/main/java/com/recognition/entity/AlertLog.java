@@ -15,7 +15,8 @@ import jakarta.persistence.Table;
 @Table(name = "alert_logs", indexes = {
     @Index(name = "idx_alert_logs_alert_id", columnList = "alert_id"),
     @Index(name = "idx_alert_logs_triggered_at", columnList = "triggered_at"),
-    @Index(name = "idx_alert_logs_status", columnList = "notification_status")
+    @Index(name = "idx_alert_logs_status", columnList = "notification_status"),
+    @Index(name = "idx_alert_logs_dispatch", columnList = "notification_status, next_attempt_at")
 })
 public class AlertLog {
 
@@ -45,6 +46,10 @@ public class AlertLog {
   @Column(name = "retry_count", nullable = false)
   private Integer retryCount = 0;
 
+  // Thời điểm sớm nhất được gửi lại (backoff), hoặc hạn lease khi đang gửi
+  @Column(name = "next_attempt_at", columnDefinition = "TIMESTAMP WITH TIME ZONE")
+  private OffsetDateTime nextAttemptAt;
+
   // Getters and setters
 
   public UUID getId() {
@@ -110,4 +115,12 @@ public class AlertLog {
   public void setRetryCount(Integer retryCount) {
     this.retryCount = retryCount;
   }
+
+  public OffsetDateTime getNextAttemptAt() {
+    return nextAttemptAt;
+  }
+
+  public void setNextAttemptAt(OffsetDateTime nextAttemptAt) {
+    this.nextAttemptAt = nextAttemptAt;
+  }
 }
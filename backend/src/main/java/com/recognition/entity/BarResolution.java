@@ -0,0 +1,44 @@
+package com.recognition.entity;
+
+import com.recognition.util.CandleResolution;
+
+/**
+ * Độ phân giải của bảng rollup price_bars.
+ */
+public enum BarResolution {
+    MINUTE("minute", 60),
+    HOUR("hour", 3_600),
+    DAY("day", 86_400);
+
+    private final String truncUnit;
+    private final long seconds;
+
+    BarResolution(String truncUnit, long seconds) {
+        this.truncUnit = truncUnit;
+        this.seconds = seconds;
+    }
+
+    // Đơn vị dùng cho date_trunc trong PostgreSQL
+    public String getTruncUnit() {
+        return truncUnit;
+    }
+
+    public long getSeconds() {
+        return seconds;
+    }
+
+    public long bucketStart(long epochSecond) {
+        return Math.floorDiv(epochSecond, seconds) * seconds;
+    }
+
+    // Rollup thô nhất mà vẫn chia hết kích thước nến yêu cầu
+    public static BarResolution forCandle(CandleResolution candle) {
+        BarResolution best = MINUTE;
+        for (BarResolution r : values()) {
+            if (candle.getSeconds() % r.seconds == 0) {
+                best = r;
+            }
+        }
+        return best;
+    }
+}
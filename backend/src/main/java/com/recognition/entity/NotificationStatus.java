@@ -0,0 +1,13 @@
+package com.recognition.entity;
+
+/**
+ * Trạng thái gửi thông báo của một alert_logs.
+ * FAILED vẫn còn được thử lại; DEAD_LETTER là đã bỏ cuộc sau quá số lần thử.
+ */
+public enum NotificationStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    FAILED,
+    DEAD_LETTER
+}
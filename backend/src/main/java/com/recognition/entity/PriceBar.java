@@ -0,0 +1,76 @@
+package com.recognition.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Nến OHLCV tổng hợp sẵn theo phút/giờ/ngày cho từng asset,
+ * được cập nhật tăng dần khi ingest và backfill từ bảng prices.
+ */
+@Entity
+@Table(
+        name = "price_bars",
+        uniqueConstraints = {
+                @UniqueConstraint(
+                        name = "uq_price_bar_asset_resolution_bucket",
+                        columnNames = {"asset_id", "resolution", "bucket_start"}
+                )
+        }
+)
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceBar {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.UUID)
+  private UUID id;
+
+  @Column(name = "asset_id", nullable = false)
+  private UUID assetId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "resolution", nullable = false, length = 10)
+  private BarResolution resolution;
+
+  @Column(name = "bucket_start", nullable = false, columnDefinition = "TIMESTAMP WITH TIME ZONE")
+  private OffsetDateTime bucketStart;
+
+  @Column(name = "open", nullable = false, precision = 18, scale = 8)
+  private BigDecimal open;
+
+  @Column(name = "high", nullable = false, precision = 18, scale = 8)
+  private BigDecimal high;
+
+  @Column(name = "low", nullable = false, precision = 18, scale = 8)
+  private BigDecimal low;
+
+  @Column(name = "close", nullable = false, precision = 18, scale = 8)
+  private BigDecimal close;
+
+  @Column(name = "volume", precision = 20, scale = 2)
+  private BigDecimal volume;
+
+  @Column(name = "tick_count", nullable = false)
+  private Long tickCount;
+
+  // Tổng giá các tick trong bucket, để tính trung bình khi gộp nhiều bar
+  @Column(name = "price_sum", nullable = false, precision = 30, scale = 8)
+  private BigDecimal priceSum;
+
+  // Tổng bình phương giá, để tính độ lệch chuẩn từ bar; null ở bar ghi trước khi có cột này
+  @Column(name = "price_sq_sum", precision = 38, scale = 16)
+  private BigDecimal priceSqSum;
+
+  @Column(name = "open_time", nullable = false, columnDefinition = "TIMESTAMP WITH TIME ZONE")
+  private OffsetDateTime openTime;
+
+  @Column(name = "close_time", nullable = false, columnDefinition = "TIMESTAMP WITH TIME ZONE")
+  private OffsetDateTime closeTime;
+}
@@ -0,0 +1,64 @@
+package com.recognition.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Job làm mới giá cho toàn bộ asset active. Asset được xử lý theo thứ tự symbol,
+ * {@code lastSymbol} là mã cuối cùng đã commit nên job có thể chạy tiếp sau khi khởi động lại.
+ */
+@Entity
+@Table(name = "refresh_jobs", indexes = {
+        @Index(name = "idx_refresh_job_status", columnList = "status")
+})
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshJob {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.UUID)
+  private UUID id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "status", nullable = false, length = 20)
+  private RefreshJobStatus status;
+
+  @Column(name = "total_symbols", nullable = false)
+  @Builder.Default
+  private int totalSymbols = 0;
+
+  @Column(name = "processed_symbols", nullable = false)
+  @Builder.Default
+  private int processedSymbols = 0;
+
+  @Column(name = "updated_count", nullable = false)
+  @Builder.Default
+  private int updatedCount = 0;
+
+  @Column(name = "failed_count", nullable = false)
+  @Builder.Default
+  private int failedCount = 0;
+
+  @Column(name = "last_symbol", length = 50)
+  private String lastSymbol;
+
+  @Column(name = "error_message", columnDefinition = "TEXT")
+  private String errorMessage;
+
+  @CreationTimestamp
+  @Column(name = "created_at", updatable = false)
+  private OffsetDateTime createdAt;
+
+  @Column(name = "started_at")
+  private OffsetDateTime startedAt;
+
+  @Column(name = "finished_at")
+  private OffsetDateTime finishedAt;
+}
@@ -0,0 +1,16 @@
+package com.recognition.entity;
+
+/**
+ * Trạng thái của một job làm mới giá hàng loạt.
+ */
+public enum RefreshJobStatus {
+  QUEUED,
+  RUNNING,
+  CANCELLED,
+  DONE,
+  FAILED;
+
+  public boolean isFinished() {
+    return this == CANCELLED || this == DONE || this == FAILED;
+  }
+}
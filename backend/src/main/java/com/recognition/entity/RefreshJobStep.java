@@ -0,0 +1,53 @@
+package com.recognition.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Một bước (một lô symbol) của {@link RefreshJob}, được ghi trong cùng transaction với giá của lô đó.
+ */
+@Entity
+@Table(name = "refresh_job_steps", indexes = {
+        @Index(name = "idx_refresh_job_step_job", columnList = "job_id, step_no")
+})
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshJobStep {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.UUID)
+  private UUID id;
+
+  @Column(name = "job_id", nullable = false)
+  private UUID jobId;
+
+  @Column(name = "step_no", nullable = false)
+  private int stepNo;
+
+  @Column(name = "first_symbol", length = 50)
+  private String firstSymbol;
+
+  @Column(name = "last_symbol", length = 50)
+  private String lastSymbol;
+
+  @Column(name = "symbol_count", nullable = false)
+  private int symbolCount;
+
+  @Column(name = "updated_count", nullable = false)
+  private int updatedCount;
+
+  @Column(name = "failed_count", nullable = false)
+  private int failedCount;
+
+  @Column(name = "duration_ms", nullable = false)
+  private long durationMs;
+
+  @Column(name = "finished_at", nullable = false)
+  private OffsetDateTime finishedAt;
+}
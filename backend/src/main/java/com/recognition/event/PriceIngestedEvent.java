@@ -0,0 +1,15 @@
+package com.recognition.event;
+
+import com.recognition.dto.PriceSnapshot;
+
+import java.util.List;
+
+/**
+ * Phát ra sau khi một hoặc nhiều bản ghi giá mới được ghi vào DB.
+ */
+public record PriceIngestedEvent(List<PriceSnapshot> prices) {
+
+    public static PriceIngestedEvent of(PriceSnapshot price) {
+        return new PriceIngestedEvent(List.of(price));
+    }
+}
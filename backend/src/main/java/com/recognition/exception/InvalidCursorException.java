@@ -0,0 +1,7 @@
+package com.recognition.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super("Invalid cursor: " + message);
+    }
+}
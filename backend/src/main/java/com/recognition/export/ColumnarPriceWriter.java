@@ -0,0 +1,135 @@
+package com.recognition.export;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Định dạng export nhị phân theo cột (kiểu Parquet thu gọn), ghi theo từng row group cố định
+ * nên bộ nhớ không phụ thuộc số dòng.
+ * <pre>
+ * file      := MAGIC version:u8 columnCount:u8 column* rowGroup* 0:varint totalRows:varint MAGIC
+ * column    := nameLength:u8 name:utf8 scale:u8
+ * rowGroup  := rowCount:varint (chunkLength:varint chunk){columnCount}
+ *              sourceLength:varint sourceChunk
+ * chunk     := nullBitmap[ceil(rowCount/8)] zigzagVarint(delta)*   -- chỉ các ô có giá trị, delta so với ô trước
+ * sourceChunk := (utf8Length:varint utf8)*                          -- 0 = null, n+1 = chuỗi n byte
+ * </pre>
+ * Timestamp (micro giây) và giá tăng/giảm nhẹ giữa các tick nên delta thường chỉ 1-3 byte.
+ */
+public final class ColumnarPriceWriter implements PriceRowSink, Closeable {
+
+    public static final byte[] MAGIC = {'P', 'X', 'C', 'F'};
+    public static final int VERSION = 1;
+    public static final int DEFAULT_ROW_GROUP_SIZE = 8_192;
+
+    private final DataOutputStream out;
+    private final int rowGroupSize;
+    private final long[][] columns;
+    private final String[] sources;
+    private final ByteArrayOutputStream chunk = new ByteArrayOutputStream(64 * 1024);
+    private int size;
+    private long totalRows;
+
+    public ColumnarPriceWriter(OutputStream out) throws IOException {
+        this(out, DEFAULT_ROW_GROUP_SIZE);
+    }
+
+    public ColumnarPriceWriter(OutputStream out, int rowGroupSize) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        this.rowGroupSize = rowGroupSize;
+        this.columns = new long[PriceExportColumns.COUNT][rowGroupSize];
+        this.sources = new String[rowGroupSize];
+
+        this.out.write(MAGIC);
+        this.out.writeByte(VERSION);
+        this.out.writeByte(PriceExportColumns.COUNT);
+        for (int c = 0; c < PriceExportColumns.COUNT; c++) {
+            byte[] name = PriceExportColumns.NAMES[c].getBytes(StandardCharsets.UTF_8);
+            this.out.writeByte(name.length);
+            this.out.write(name);
+            this.out.writeByte(PriceExportColumns.SCALES[c]);
+        }
+    }
+
+    @Override
+    public void accept(long epochMicros, long price, long volume, long changePercent,
+                       long high24h, long low24h, long marketCap, String source) throws IOException {
+        columns[0][size] = epochMicros;
+        columns[1][size] = price;
+        columns[2][size] = volume;
+        columns[3][size] = changePercent;
+        columns[4][size] = high24h;
+        columns[5][size] = low24h;
+        columns[6][size] = marketCap;
+        sources[size] = source;
+        if (++size == rowGroupSize) flushRowGroup();
+    }
+
+    public long rows() {
+        return totalRows + size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushRowGroup();
+        writeVarint(out, 0);
+        writeVarint(out, totalRows);
+        out.write(MAGIC);
+        out.flush();
+    }
+
+    private void flushRowGroup() throws IOException {
+        if (size == 0) return;
+        writeVarint(out, size);
+
+        byte[] bitmap = new byte[(size + 7) >>> 3];
+        for (long[] column : columns) {
+            chunk.reset();
+            Arrays.fill(bitmap, (byte) 0);
+            for (int i = 0; i < size; i++) {
+                if (column[i] != PriceExportColumns.NULL) bitmap[i >>> 3] |= (byte) (1 << (i & 7));
+            }
+            chunk.write(bitmap);
+            long previous = 0;
+            for (int i = 0; i < size; i++) {
+                if (column[i] == PriceExportColumns.NULL) continue;
+                writeVarint(chunk, zigzag(column[i] - previous));
+                previous = column[i];
+            }
+            writeVarint(out, chunk.size());
+            chunk.writeTo(out);
+        }
+
+        chunk.reset();
+        for (int i = 0; i < size; i++) {
+            if (sources[i] == null) {
+                writeVarint(chunk, 0);
+            } else {
+                byte[] bytes = sources[i].getBytes(StandardCharsets.UTF_8);
+                writeVarint(chunk, bytes.length + 1L);
+                chunk.write(bytes);
+            }
+            sources[i] = null;
+        }
+        writeVarint(out, chunk.size());
+        chunk.writeTo(out);
+        // Đẩy từng row group xuống client để response chảy liên tục
+        out.flush();
+
+        totalRows += size;
+        size = 0;
+    }
+
+    static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    static void writeVarint(OutputStream out, long v) throws IOException {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+}
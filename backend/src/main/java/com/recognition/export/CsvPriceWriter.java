@@ -0,0 +1,85 @@
+package com.recognition.export;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Ghi dòng giá ra CSV trực tiếp vào output stream, dùng lại một StringBuilder cho mọi dòng.
+ * Số thập phân được in từ long đã quy scale, không tạo BigDecimal.
+ */
+public final class CsvPriceWriter implements PriceRowSink, Closeable {
+
+    private static final String HEADER = "timestamp,price,volume,change_percent,high_24h,low_24h,market_cap,source\n";
+    private static final long[] POW10 = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L};
+
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(128);
+    private long rows;
+
+    public CsvPriceWriter(OutputStream out) throws IOException {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        this.out.write(HEADER);
+    }
+
+    @Override
+    public void accept(long epochMicros, long price, long volume, long changePercent,
+                       long high24h, long low24h, long marketCap, String source) throws IOException {
+        line.setLength(0);
+        line.append(Instant.ofEpochSecond(Math.floorDiv(epochMicros, 1_000_000), Math.floorMod(epochMicros, 1_000_000) * 1_000L));
+        appendScaled(line.append(','), price, PriceExportColumns.SCALES[1]);
+        appendScaled(line.append(','), volume, PriceExportColumns.SCALES[2]);
+        appendScaled(line.append(','), changePercent, PriceExportColumns.SCALES[3]);
+        appendScaled(line.append(','), high24h, PriceExportColumns.SCALES[4]);
+        appendScaled(line.append(','), low24h, PriceExportColumns.SCALES[5]);
+        appendScaled(line.append(','), marketCap, PriceExportColumns.SCALES[6]);
+        line.append(',');
+        if (source != null) appendQuoted(line, source);
+        line.append('\n');
+        out.append(line);
+        rows++;
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.flush();
+    }
+
+    // In value / 10^scale, bỏ các số 0 thừa ở phần thập phân
+    static void appendScaled(StringBuilder sb, long value, int scale) {
+        if (value == PriceExportColumns.NULL) return;
+        if (scale == 0) {
+            sb.append(value);
+            return;
+        }
+        if (value < 0) {
+            sb.append('-');
+            value = -value;
+        }
+        long unit = POW10[scale];
+        sb.append(value / unit);
+        long fraction = value % unit;
+        if (fraction == 0) return;
+        int digits = scale;
+        while (fraction % 10 == 0) {
+            fraction /= 10;
+            digits--;
+        }
+        sb.append('.');
+        for (long p = POW10[digits - 1]; p > fraction; p /= 10) sb.append('0');
+        sb.append(fraction);
+    }
+
+    private static void appendQuoted(StringBuilder sb, String s) {
+        boolean quote = s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0;
+        if (!quote) {
+            sb.append(s);
+            return;
+        }
+        sb.append('"').append(s.replace("\"", "\"\"")).append('"');
+    }
+}
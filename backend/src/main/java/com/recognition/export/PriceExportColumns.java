@@ -0,0 +1,21 @@
+package com.recognition.export;
+
+/**
+ * Các cột số của file export và scale thập phân tương ứng.
+ * Giá quy về long nhân 10^8 (đúng scale cột prices.price), % thay đổi nhân 10^4,
+ * volume/market cap nhân 10^2 (đúng scale numeric(20,2), không làm tròn mất phần lẻ).
+ */
+public final class PriceExportColumns {
+
+    public static final long NULL = Long.MIN_VALUE;
+
+    public static final String[] NAMES = {
+            "timestamp_us", "price", "volume", "change_percent", "high_24h", "low_24h", "market_cap"
+    };
+    public static final int[] SCALES = {0, 8, 2, 4, 8, 8, 2};
+
+    public static final int COUNT = NAMES.length;
+
+    private PriceExportColumns() {
+    }
+}
@@ -0,0 +1,35 @@
+package com.recognition.export;
+
+import java.util.Locale;
+
+/**
+ * Định dạng file export lịch sử giá.
+ */
+public enum PriceExportFormat {
+    CSV("text/csv", "csv"),
+    COLUMNAR("application/octet-stream", "pxc");
+
+    private final String contentType;
+    private final String extension;
+
+    PriceExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static PriceExportFormat from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported export format: " + value + " (use csv or columnar)");
+        }
+    }
+}
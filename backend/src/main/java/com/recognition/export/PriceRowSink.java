@@ -0,0 +1,13 @@
+package com.recognition.export;
+
+import java.io.IOException;
+
+/**
+ * Nhận từng dòng giá khi export, dưới dạng số nguyên thuỷ đã quy scale (xem {@link PriceExportColumns}).
+ * Giá trị {@link PriceExportColumns#NULL} nghĩa là cột rỗng.
+ */
+public interface PriceRowSink {
+
+    void accept(long epochMicros, long price, long volume, long changePercent,
+                long high24h, long low24h, long marketCap, String source) throws IOException;
+}
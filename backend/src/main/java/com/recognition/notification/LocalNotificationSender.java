@@ -0,0 +1,64 @@
+package com.recognition.notification;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Kênh gửi giả lập để chạy offline: chỉ ghi log và giữ các thông báo gần nhất trong bộ nhớ.
+ * Các target trong {@code stub.fail-targets} luôn gửi lỗi, dùng để thử đường retry/dead-letter.
+ * Có thứ tự thấp nhất nên kênh thật cùng method sẽ được ưu tiên.
+ */
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@ConditionalOnProperty(name = "price.alert.notification.stub.enabled", havingValue = "true", matchIfMissing = true)
+public class LocalNotificationSender implements NotificationSender {
+
+    private static final int RECENT_LIMIT = 500;
+
+    private final Set<String> methods;
+    private final Set<String> failTargets;
+    private final ArrayDeque<NotificationJob> recent = new ArrayDeque<>();
+
+    public LocalNotificationSender(@Value("${price.alert.notification.stub.methods:EMAIL,TELEGRAM,SMS,WEBHOOK,PUSH}") List<String> methods,
+                                   @Value("${price.alert.notification.stub.fail-targets:}") List<String> failTargets) {
+        this.methods = methods.stream().map(m -> m.trim().toUpperCase(Locale.ROOT))
+                .filter(m -> !m.isEmpty()).collect(Collectors.toUnmodifiableSet());
+        this.failTargets = failTargets.stream().map(String::trim)
+                .filter(t -> !t.isEmpty()).collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<String> methods() {
+        return methods;
+    }
+
+    @Override
+    public void send(String target, List<NotificationJob> batch) {
+        if (failTargets.contains(target)) {
+            throw new IllegalStateException("Stub delivery to " + target + " failed");
+        }
+        synchronized (recent) {
+            for (NotificationJob job : batch) {
+                if (recent.size() == RECENT_LIMIT) recent.pollFirst();
+                recent.addLast(job);
+            }
+        }
+        log.info("[stub] {} notification(s) to {}: {}", batch.size(), target,
+                batch.stream().map(NotificationJob::message).collect(Collectors.joining(" | ")));
+    }
+
+    // Các thông báo đã "gửi" gần nhất, cũ trước
+    public List<NotificationJob> recent() {
+        synchronized (recent) {
+            return new ArrayList<>(recent);
+        }
+    }
+}
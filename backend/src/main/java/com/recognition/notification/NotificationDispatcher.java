@@ -0,0 +1,234 @@
+package com.recognition.notification;
+
+import com.recognition.entity.NotificationStatus;
+import com.recognition.repository.AlertJdbcRepository;
+import com.recognition.repository.AlertJdbcRepository.DeliveryFailure;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gửi thông báo cho các alert_logs đang chờ, tách hẳn khỏi đường ingest giá:
+ * AlertEngine chỉ ghi log PENDING, dispatcher định kỳ nhận log tới hạn (tối đa số chỗ còn trống
+ * trong hàng đợi có giới hạn), gom theo (method, target) thành lô và đẩy vào pool riêng của từng method,
+ * nên một kênh chậm chỉ làm đầy pool của chính nó.
+ * Lỗi được thử lại với backoff luỹ thừa; quá {@code max-retries} lần thì chuyển DEAD_LETTER.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "price.alert.notification.enabled", havingValue = "true", matchIfMissing = true)
+public class NotificationDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1_000;
+
+    private final AlertJdbcRepository alertJdbcRepository;
+    private final Map<String, NotificationSender> senders = new HashMap<>();
+    private final Map<String, ThreadPoolTaskExecutor> pools = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final int queueCapacity;
+    private final int workersPerMethod;
+    private final int batchSize;
+    private final int maxRetries;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+
+    private final Counter sentCounter;
+    private final Counter retryCounter;
+    private final Counter deadCounter;
+
+    public NotificationDispatcher(AlertJdbcRepository alertJdbcRepository,
+                                  List<NotificationSender> senderList,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${price.alert.notification.queue-capacity:1000}") int queueCapacity,
+                                  @Value("${price.alert.notification.workers-per-method:2}") int workersPerMethod,
+                                  @Value("${price.alert.notification.batch-size:20}") int batchSize,
+                                  @Value("${price.alert.notification.max-retries:5}") int maxRetries,
+                                  @Value("${price.alert.notification.backoff-base:PT5S}") Duration baseBackoff,
+                                  @Value("${price.alert.notification.backoff-max:PT30M}") Duration maxBackoff,
+                                  @Value("${price.alert.notification.lease:PT5M}") Duration lease) {
+        this.alertJdbcRepository = alertJdbcRepository;
+        this.queueCapacity = queueCapacity;
+        this.workersPerMethod = workersPerMethod;
+        this.batchSize = batchSize;
+        this.maxRetries = maxRetries;
+        this.baseBackoff = baseBackoff;
+        this.maxBackoff = maxBackoff;
+        this.lease = lease;
+
+        // Danh sách đã sắp theo @Order: kênh đứng trước thắng khi trùng method
+        for (NotificationSender sender : senderList) {
+            for (String method : sender.methods()) {
+                senders.putIfAbsent(method.toUpperCase(Locale.ROOT), sender);
+            }
+        }
+        log.info("Notification dispatcher ready for methods {}", senders.keySet());
+
+        Gauge.builder("alert.notification.in-flight", inFlight, AtomicInteger::get)
+                .description("Notifications claimed and not yet delivered")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("alert.notification.delivery").tag("result", "sent").register(meterRegistry);
+        this.retryCounter = Counter.builder("alert.notification.delivery").tag("result", "retry").register(meterRegistry);
+        this.deadCounter = Counter.builder("alert.notification.delivery").tag("result", "dead_letter").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Log đang gửi dở sẽ được nhận lại khi hết lease
+        pools.values().forEach(ThreadPoolTaskExecutor::shutdown);
+    }
+
+    /**
+     * Nhận các log tới hạn, chỉ trong giới hạn chỗ trống của hàng đợi, rồi phân lô theo (method, target).
+     */
+    @Scheduled(fixedDelayString = "${price.alert.notification.poll-ms:1000}")
+    public void poll() {
+        int free = queueCapacity - inFlight.get();
+        if (free <= 0) return;
+
+        List<NotificationJob> jobs = alertJdbcRepository.claimDue(free, lease);
+        if (jobs.isEmpty()) return;
+        inFlight.addAndGet(jobs.size());
+
+        Map<String, Map<String, List<NotificationJob>>> byMethodAndTarget = new LinkedHashMap<>();
+        List<NotificationJob> undeliverable = new ArrayList<>();
+        for (NotificationJob job : jobs) {
+            String method = job.method() != null ? job.method().toUpperCase(Locale.ROOT) : null;
+            if (method == null || job.target() == null || !senders.containsKey(method)) {
+                undeliverable.add(job);
+                continue;
+            }
+            byMethodAndTarget.computeIfAbsent(method, k -> new LinkedHashMap<>())
+                    .computeIfAbsent(job.target(), k -> new ArrayList<>()).add(job);
+        }
+
+        if (!undeliverable.isEmpty()) {
+            complete(undeliverable, () -> deadLetter(undeliverable, "No sender for notification method or missing target"));
+        }
+
+        byMethodAndTarget.forEach((method, byTarget) -> {
+            NotificationSender sender = senders.get(method);
+            ThreadPoolTaskExecutor pool = pools.computeIfAbsent(method, this::newPool);
+            byTarget.forEach((target, targetJobs) -> {
+                for (int from = 0; from < targetJobs.size(); from += batchSize) {
+                    List<NotificationJob> batch = targetJobs.subList(from, Math.min(from + batchSize, targetJobs.size()));
+                    try {
+                        pool.execute(() -> deliver(sender, target, batch));
+                    } catch (TaskRejectedException e) {
+                        // Pool của method này đầy: trả log về hàng chờ, không tính là một lần thử
+                        complete(batch, () -> release(batch));
+                    }
+                }
+            });
+        });
+    }
+
+    void deliver(NotificationSender sender, String target, List<NotificationJob> batch) {
+        complete(batch, () -> {
+            try {
+                sender.send(target, batch);
+                alertJdbcRepository.markSent(batch.stream().map(NotificationJob::logId).toList());
+                sentCounter.increment(batch.size());
+            } catch (Exception e) {
+                log.warn("Delivery of {} notification(s) to {} failed: {}", batch.size(), target, e.getMessage());
+                retryOrDeadLetter(batch, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            }
+        });
+    }
+
+    private void retryOrDeadLetter(List<NotificationJob> batch, String error) {
+        OffsetDateTime now = OffsetDateTime.now();
+        String message = truncate(error);
+        List<DeliveryFailure> failures = new ArrayList<>(batch.size());
+        int dead = 0;
+        for (NotificationJob job : batch) {
+            int attempts = job.retryCount() + 1;
+            if (attempts > maxRetries) {
+                failures.add(new DeliveryFailure(job.logId(), NotificationStatus.DEAD_LETTER, attempts, null, message));
+                dead++;
+            } else {
+                Duration delay = withJitter(backoff(attempts, baseBackoff, maxBackoff));
+                failures.add(new DeliveryFailure(job.logId(), NotificationStatus.FAILED, attempts, now.plus(delay), message));
+            }
+        }
+        alertJdbcRepository.markFailed(failures);
+        retryCounter.increment(batch.size() - dead);
+        deadCounter.increment(dead);
+    }
+
+    private void deadLetter(List<NotificationJob> jobs, String error) {
+        alertJdbcRepository.markFailed(jobs.stream()
+                .map(job -> new DeliveryFailure(job.logId(), NotificationStatus.DEAD_LETTER, job.retryCount(), null, error))
+                .toList());
+        deadCounter.increment(jobs.size());
+    }
+
+    private void release(List<NotificationJob> jobs) {
+        OffsetDateTime retryAt = OffsetDateTime.now().plus(baseBackoff);
+        alertJdbcRepository.markFailed(jobs.stream()
+                .map(job -> new DeliveryFailure(job.logId(), NotificationStatus.FAILED, job.retryCount(), retryAt,
+                        "Dispatch queue full"))
+                .toList());
+    }
+
+    // Luôn giải phóng chỗ trong hàng đợi; nếu ghi kết quả lỗi, log sẽ được nhận lại khi hết lease
+    private void complete(List<NotificationJob> jobs, Runnable outcome) {
+        try {
+            outcome.run();
+        } catch (Exception e) {
+            log.warn("Failed to record outcome for {} notification(s): {}", jobs.size(), e.getMessage());
+        } finally {
+            inFlight.addAndGet(-jobs.size());
+        }
+    }
+
+    /**
+     * Backoff luỹ thừa: base * 2^(attempt-1), chặn trên bởi max.
+     */
+    static Duration backoff(int attempt, Duration base, Duration max) {
+        int shift = Math.min(Math.max(attempt - 1, 0), 30);
+        long millis = base.toMillis() << shift;
+        return millis <= 0 || millis > max.toMillis() ? max : Duration.ofMillis(millis);
+    }
+
+    // Cộng thêm tối đa 20% ngẫu nhiên để các log lỗi cùng lúc không thử lại cùng một thời điểm
+    private static Duration withJitter(Duration delay) {
+        long jitter = (long) (delay.toMillis() * 0.2 * ThreadLocalRandom.current().nextDouble());
+        return delay.plusMillis(jitter);
+    }
+
+    private static String truncate(String s) {
+        return s.length() <= MAX_ERROR_LENGTH ? s : s.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private ThreadPoolTaskExecutor newPool(String method) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workersPerMethod);
+        executor.setMaxPoolSize(workersPerMethod);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("notify-" + method.toLowerCase(Locale.ROOT) + "-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
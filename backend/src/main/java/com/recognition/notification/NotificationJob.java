@@ -0,0 +1,20 @@
+package com.recognition.notification;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Một alert_logs đã được dispatcher nhận để gửi, kèm kênh và địa chỉ nhận của alert.
+ */
+public record NotificationJob(
+        UUID logId,
+        UUID alertId,
+        String method,
+        String target,
+        String message,
+        BigDecimal triggeredPrice,
+        OffsetDateTime triggeredAt,
+        int retryCount
+) {
+}
@@ -0,0 +1,16 @@
+package com.recognition.notification;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Kênh gửi thông báo (email, telegram, webhook...).
+ * Mỗi lần gọi nhận một lô thông báo cho cùng một địa chỉ nhận; ném exception nếu cả lô gửi thất bại.
+ */
+public interface NotificationSender {
+
+    // Các giá trị notification_method mà kênh này xử lý (viết hoa)
+    Set<String> methods();
+
+    void send(String target, List<NotificationJob> batch) throws Exception;
+}
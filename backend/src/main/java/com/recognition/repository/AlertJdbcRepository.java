@@ -0,0 +1,148 @@
+package com.recognition.repository;
+
+import com.recognition.alert.AlertHit;
+import com.recognition.entity.NotificationStatus;
+import com.recognition.notification.NotificationJob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Ghi kết quả đánh giá alert theo lô JDBC: chèn alert_logs và cập nhật last_triggered;
+ * nhận và cập nhật trạng thái gửi thông báo cho dispatcher.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AlertJdbcRepository {
+
+    private static final String INSERT_LOG_SQL = """
+            INSERT INTO alert_logs (id, alert_id, triggered_price, triggered_at, notification_status,
+                                    message_content, retry_count)
+            VALUES (?, ?, ?, ?, ?, ?, 0)
+            """;
+
+    // Chỉ ghi đè khi mốc mới hơn (các lô có thể được flush không theo thứ tự)
+    private static final String TOUCH_LAST_TRIGGERED_SQL = """
+            UPDATE alerts SET last_triggered = ?
+            WHERE id = ? AND (last_triggered IS NULL OR last_triggered < ?)
+            """;
+
+    /*
+     * Nhận tối đa ? log tới hạn gửi trong một câu: log PENDING/FAILED đã hết backoff, hoặc SENDING đã quá lease
+     * (worker trước đó chết giữa chừng). SKIP LOCKED để nhiều instance không nhận trùng.
+     */
+    private static final String CLAIM_DUE_SQL = """
+            WITH due AS (
+                SELECT id FROM alert_logs
+                WHERE (notification_status IN ('PENDING', 'FAILED')
+                       AND (next_attempt_at IS NULL OR next_attempt_at <= now()))
+                   OR (notification_status = 'SENDING' AND next_attempt_at <= now())
+                ORDER BY triggered_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            ), claimed AS (
+                UPDATE alert_logs l
+                SET notification_status = 'SENDING',
+                    next_attempt_at = now() + ? * INTERVAL '1 millisecond'
+                FROM due
+                WHERE l.id = due.id
+                RETURNING l.id, l.alert_id, l.message_content, l.triggered_price, l.triggered_at, l.retry_count
+            )
+            SELECT c.*, a.notification_method, a.notification_target
+            FROM claimed c
+            LEFT JOIN alerts a ON a.id = c.alert_id
+            """;
+
+    private static final String MARK_SENT_SQL = """
+            UPDATE alert_logs SET notification_status = 'SENT', error_message = NULL, next_attempt_at = NULL
+            WHERE id = ?
+            """;
+
+    private static final String MARK_FAILED_SQL = """
+            UPDATE alert_logs SET notification_status = ?, retry_count = ?, next_attempt_at = ?, error_message = ?
+            WHERE id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record DeliveryFailure(UUID logId, NotificationStatus status, int retryCount,
+                                  OffsetDateTime nextAttemptAt, String errorMessage) {
+    }
+
+    public void insertLogs(List<AlertHit> hits, NotificationStatus status) {
+        if (hits.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT_LOG_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                AlertHit hit = hits.get(i);
+                ps.setObject(1, UUID.randomUUID());
+                ps.setObject(2, hit.alertId());
+                ps.setBigDecimal(3, hit.price());
+                ps.setObject(4, hit.triggeredAt());
+                ps.setString(5, status.name());
+                ps.setString(6, hit.message());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return hits.size();
+            }
+        });
+    }
+
+    public void touchLastTriggered(List<AlertHit> hits) {
+        if (hits.isEmpty()) return;
+        jdbcTemplate.batchUpdate(TOUCH_LAST_TRIGGERED_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                AlertHit hit = hits.get(i);
+                ps.setObject(1, hit.triggeredAt());
+                ps.setObject(2, hit.alertId());
+                ps.setObject(3, hit.triggeredAt());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return hits.size();
+            }
+        });
+    }
+
+    // Chuyển tối đa limit log tới hạn sang SENDING (giữ trong lease) và trả về kèm kênh/địa chỉ nhận
+    public List<NotificationJob> claimDue(int limit, Duration lease) {
+        return jdbcTemplate.query(CLAIM_DUE_SQL, (rs, rowNum) -> new NotificationJob(
+                rs.getObject("id", UUID.class),
+                rs.getObject("alert_id", UUID.class),
+                rs.getString("notification_method"),
+                rs.getString("notification_target"),
+                rs.getString("message_content"),
+                rs.getBigDecimal("triggered_price"),
+                rs.getObject("triggered_at", OffsetDateTime.class),
+                rs.getInt("retry_count")
+        ), limit, lease.toMillis());
+    }
+
+    public void markSent(List<UUID> logIds) {
+        if (logIds.isEmpty()) return;
+        jdbcTemplate.batchUpdate(MARK_SENT_SQL, logIds, logIds.size(), (ps, id) -> ps.setObject(1, id));
+    }
+
+    public void markFailed(List<DeliveryFailure> failures) {
+        if (failures.isEmpty()) return;
+        jdbcTemplate.batchUpdate(MARK_FAILED_SQL, failures, failures.size(), (ps, f) -> {
+            ps.setString(1, f.status().name());
+            ps.setInt(2, f.retryCount());
+            ps.setObject(3, f.nextAttemptAt());
+            ps.setString(4, f.errorMessage());
+            ps.setObject(5, f.logId());
+        });
+    }
+}
@@ -1,13 +1,17 @@
 package com.recognition.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import com.recognition.dto.AssetSearchResult;
 import com.recognition.entity.Asset;
 
 @Repository
@@ -17,6 +21,8 @@ public interface AssetRepository extends JpaRepository<Asset, UUID>, JpaSpecific
 
     Optional<Asset> findBySymbol(String symbol);
 
+    List<Asset> findBySymbolIn(Collection<String> symbols);
+
     boolean existsBySymbol(String symbol);
 
     boolean existsById(UUID assetId);
@@ -24,5 +30,14 @@ public interface AssetRepository extends JpaRepository<Asset, UUID>, JpaSpecific
     void deleteById(UUID assetId);
 
     List<Asset> findByIsActiveTrue();
-    List<Asset> findBySymbolContainingIgnoreCaseOrNameContainingIgnoreCase(String symbol, String name);
+
+    // Duyệt asset active theo thứ tự symbol (keyset), dùng cho job làm mới có thể chạy tiếp
+    List<Asset> findByIsActiveTrueOrderBySymbolAsc(Pageable pageable);
+    List<Asset> findByIsActiveTrueAndSymbolGreaterThanOrderBySymbolAsc(String symbol, Pageable pageable);
+    long countByIsActiveTrue();
+    long countByIsActiveTrueAndSymbolGreaterThan(String symbol);
+
+    // Chỉ các cột cần cho chỉ mục tìm kiếm, không nạp description/metrics
+    @Query("SELECT new com.recognition.dto.AssetSearchResult(a.id, a.symbol, a.name, a.isActive) FROM Asset a")
+    List<AssetSearchResult> findAllSearchEntries();
 }
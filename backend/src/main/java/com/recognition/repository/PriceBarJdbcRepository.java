@@ -0,0 +1,271 @@
+package com.recognition.repository;
+
+import com.recognition.entity.BarResolution;
+import com.recognition.util.CandleAggregator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Ghi/đọc bảng rollup price_bars bằng JDBC: tính lại bucket bị ảnh hưởng khi ingest,
+ * backfill set-based từ prices và duyệt bar theo cursor cho biểu đồ.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PriceBarJdbcRepository {
+
+    /*
+     * Tính lại từ nguồn các bucket bị ảnh hưởng bởi một lần ingest (ghi đè bar cũ), nên chạy lại bao nhiêu lần
+     * cũng cho cùng kết quả: bar phút từ prices, bar giờ từ bar phút, bar ngày từ bar giờ.
+     * Bucket truyền vào dạng hai mảng song song (asset_id, epoch giây của bucket_start).
+     */
+    private static final String REFRESH_FROM_TICKS_SQL = """
+            INSERT INTO price_bars (id, asset_id, resolution, bucket_start, open, high, low, close,
+                                    volume, tick_count, price_sum, price_sq_sum, open_time, close_time)
+            SELECT gen_random_uuid(), k.asset_id, ?, k.bucket,
+                   (array_agg(p.price ORDER BY p.timestamp ASC))[1],
+                   MAX(p.price), MIN(p.price),
+                   (array_agg(p.price ORDER BY p.timestamp DESC))[1],
+                   (array_agg(p.volume ORDER BY p.timestamp DESC))[1],
+                   COUNT(*), SUM(p.price), SUM(p.price * p.price), MIN(p.timestamp), MAX(p.timestamp)
+            FROM (
+                SELECT asset_id, to_timestamp(epoch) AS bucket
+                FROM unnest(?::uuid[], ?::bigint[]) AS u(asset_id, epoch)
+            ) k
+            JOIN prices p ON p.asset_id = k.asset_id
+                         AND p.timestamp >= k.bucket AND p.timestamp < k.bucket + make_interval(secs => ?)
+            GROUP BY k.asset_id, k.bucket
+            ON CONFLICT (asset_id, resolution, bucket_start) DO UPDATE SET
+                open = EXCLUDED.open, high = EXCLUDED.high, low = EXCLUDED.low, close = EXCLUDED.close,
+                volume = EXCLUDED.volume, tick_count = EXCLUDED.tick_count, price_sum = EXCLUDED.price_sum,
+                price_sq_sum = EXCLUDED.price_sq_sum,
+                open_time = EXCLUDED.open_time, close_time = EXCLUDED.close_time
+            """;
+
+    private static final String REFRESH_FROM_BARS_SQL = """
+            INSERT INTO price_bars (id, asset_id, resolution, bucket_start, open, high, low, close,
+                                    volume, tick_count, price_sum, price_sq_sum, open_time, close_time)
+            SELECT gen_random_uuid(), k.asset_id, ?, k.bucket,
+                   (array_agg(b.open ORDER BY b.bucket_start ASC))[1],
+                   MAX(b.high), MIN(b.low),
+                   (array_agg(b.close ORDER BY b.bucket_start DESC))[1],
+                   (array_agg(b.volume ORDER BY b.bucket_start DESC))[1],
+                   SUM(b.tick_count), SUM(b.price_sum),
+                   -- Thiếu bình phương ở bất kỳ bar con nào thì để null thay vì cộng thiếu
+                   CASE WHEN COUNT(b.price_sq_sum) = COUNT(*) THEN SUM(b.price_sq_sum) END,
+                   MIN(b.open_time), MAX(b.close_time)
+            FROM (
+                SELECT asset_id, to_timestamp(epoch) AS bucket
+                FROM unnest(?::uuid[], ?::bigint[]) AS u(asset_id, epoch)
+            ) k
+            JOIN price_bars b ON b.asset_id = k.asset_id AND b.resolution = ?
+                             AND b.bucket_start >= k.bucket AND b.bucket_start < k.bucket + make_interval(secs => ?)
+            GROUP BY k.asset_id, k.bucket
+            ON CONFLICT (asset_id, resolution, bucket_start) DO UPDATE SET
+                open = EXCLUDED.open, high = EXCLUDED.high, low = EXCLUDED.low, close = EXCLUDED.close,
+                volume = EXCLUDED.volume, tick_count = EXCLUDED.tick_count, price_sum = EXCLUDED.price_sum,
+                price_sq_sum = EXCLUDED.price_sq_sum,
+                open_time = EXCLUDED.open_time, close_time = EXCLUDED.close_time
+            """;
+
+    // Tính lại toàn bộ bar trong một khoảng thời gian từ dữ liệu gốc (ghi đè bar cũ)
+    private static final String BACKFILL_SQL = """
+            INSERT INTO price_bars (id, asset_id, resolution, bucket_start, open, high, low, close,
+                                    volume, tick_count, price_sum, price_sq_sum, open_time, close_time)
+            SELECT gen_random_uuid(), asset_id, ?, bucket,
+                   (array_agg(price ORDER BY timestamp ASC))[1],
+                   MAX(price), MIN(price),
+                   (array_agg(price ORDER BY timestamp DESC))[1],
+                   (array_agg(volume ORDER BY timestamp DESC))[1],
+                   COUNT(*), SUM(price), SUM(price * price), MIN(timestamp), MAX(timestamp)
+            FROM (
+                SELECT asset_id, price, volume, timestamp,
+                       date_trunc(?, timestamp AT TIME ZONE 'UTC') AT TIME ZONE 'UTC' AS bucket
+                FROM prices
+                WHERE timestamp >= ? AND timestamp < ?
+            ) t
+            GROUP BY asset_id, bucket
+            ON CONFLICT (asset_id, resolution, bucket_start) DO UPDATE SET
+                open = EXCLUDED.open, high = EXCLUDED.high, low = EXCLUDED.low, close = EXCLUDED.close,
+                volume = EXCLUDED.volume, tick_count = EXCLUDED.tick_count, price_sum = EXCLUDED.price_sum,
+                price_sq_sum = EXCLUDED.price_sq_sum,
+                open_time = EXCLUDED.open_time, close_time = EXCLUDED.close_time
+            """;
+
+    /*
+     * Dựng bar cho một asset từ dữ liệu gốc trước khi xoá; chỉ chèn bucket còn thiếu,
+     * không ghi đè bar đã được cập nhật tăng dần (dữ liệu gốc của bucket đó có thể đã bị xoá một phần).
+     */
+    private static final String FILL_MISSING_SQL = """
+            INSERT INTO price_bars (id, asset_id, resolution, bucket_start, open, high, low, close,
+                                    volume, tick_count, price_sum, price_sq_sum, open_time, close_time)
+            SELECT gen_random_uuid(), asset_id, ?, bucket,
+                   (array_agg(price ORDER BY timestamp ASC))[1],
+                   MAX(price), MIN(price),
+                   (array_agg(price ORDER BY timestamp DESC))[1],
+                   (array_agg(volume ORDER BY timestamp DESC))[1],
+                   COUNT(*), SUM(price), SUM(price * price), MIN(timestamp), MAX(timestamp)
+            FROM (
+                SELECT asset_id, price, volume, timestamp,
+                       date_trunc(?, timestamp AT TIME ZONE 'UTC') AT TIME ZONE 'UTC' AS bucket
+                FROM prices
+                WHERE asset_id = ? AND timestamp >= ? AND timestamp < ?
+            ) t
+            GROUP BY asset_id, bucket
+            ON CONFLICT (asset_id, resolution, bucket_start) DO NOTHING
+            """;
+
+    // Xoá một lô bar cũ của một độ phân giải (bounded)
+    private static final String DELETE_BARS_CHUNK_SQL = """
+            DELETE FROM price_bars
+            WHERE id IN (
+                SELECT id FROM price_bars
+                WHERE resolution = ? AND bucket_start < ?
+                LIMIT ?
+            )
+            """;
+
+    private static final String BARS_IN_RANGE_SQL = """
+            SELECT EXTRACT(EPOCH FROM bucket_start)::bigint AS ts,
+                   (open * 100000000)::bigint  AS open_scaled,
+                   (high * 100000000)::bigint  AS high_scaled,
+                   (low * 100000000)::bigint   AS low_scaled,
+                   (close * 100000000)::bigint AS close_scaled,
+                   volume::bigint              AS volume
+            FROM price_bars
+            WHERE asset_id = ? AND resolution = ? AND bucket_start BETWEEN ? AND ?
+            ORDER BY bucket_start ASC
+            """;
+
+    // Bucket đầu tiên của một asset/độ phân giải trong [from, to), đi theo unique index (asset, resolution, bucket)
+    private static final String FIRST_BUCKET_SQL = """
+            SELECT MIN(bucket_start) FROM price_bars
+            WHERE asset_id = ? AND resolution = ? AND bucket_start >= ? AND bucket_start < ?
+            """;
+
+    private static final String CLOSE_BEFORE_SQL = """
+            SELECT close FROM price_bars
+            WHERE asset_id = ? AND resolution = ? AND bucket_start <= ?
+            ORDER BY bucket_start DESC
+            LIMIT 1
+            """;
+
+    private static final String PRICE_RANGE_SQL = "SELECT MIN(timestamp), MAX(timestamp) FROM prices";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record BucketKey(UUID assetId, long bucketStartEpoch) {
+    }
+
+    @FunctionalInterface
+    public interface BarConsumer {
+        void accept(long epochSecond, long open, long high, long low, long close, long volume);
+    }
+
+    /**
+     * Tính lại các bucket của một độ phân giải từ nguồn mịn hơn (MINUTE: prices, HOUR: MINUTE, DAY: HOUR).
+     * Gọi theo thứ tự MINUTE → HOUR → DAY trong cùng transaction. Trả về số bar được ghi.
+     */
+    public int refreshBuckets(BarResolution resolution, Collection<BucketKey> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return 0;
+        }
+
+        Object[] assetIds = keys.stream().map(BucketKey::assetId).toArray();
+        Long[] epochs = keys.stream().map(BucketKey::bucketStartEpoch).toArray(Long[]::new);
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps;
+            int i = 1;
+            if (resolution == BarResolution.MINUTE) {
+                ps = con.prepareStatement(REFRESH_FROM_TICKS_SQL);
+                ps.setString(i++, resolution.name());
+                ps.setArray(i++, con.createArrayOf("uuid", assetIds));
+                ps.setArray(i++, con.createArrayOf("bigint", epochs));
+            } else {
+                BarResolution source = resolution == BarResolution.HOUR ? BarResolution.MINUTE : BarResolution.HOUR;
+                ps = con.prepareStatement(REFRESH_FROM_BARS_SQL);
+                ps.setString(i++, resolution.name());
+                ps.setArray(i++, con.createArrayOf("uuid", assetIds));
+                ps.setArray(i++, con.createArrayOf("bigint", epochs));
+                ps.setString(i++, source.name());
+            }
+            ps.setLong(i, resolution.getSeconds());
+            return ps;
+        });
+    }
+
+    // Trả về số bar được ghi cho khoảng [from, to)
+    public int backfill(BarResolution resolution, OffsetDateTime from, OffsetDateTime to) {
+        return jdbcTemplate.update(BACKFILL_SQL, resolution.name(), resolution.getTruncUnit(), from, to);
+    }
+
+    // Chèn các bar còn thiếu của asset cho khoảng [from, to), trả về số bar được ghi
+    public int fillMissing(BarResolution resolution, UUID assetId, OffsetDateTime from, OffsetDateTime to) {
+        return jdbcTemplate.update(FILL_MISSING_SQL, resolution.name(), resolution.getTruncUnit(), assetId, from, to);
+    }
+
+    // Xoá tối đa limit bar có bucket_start trước cutoff, trả về số bar đã xoá
+    public int deleteBarsChunk(BarResolution resolution, OffsetDateTime cutoff, int limit) {
+        return jdbcTemplate.update(DELETE_BARS_CHUNK_SQL, resolution.name(), cutoff, limit);
+    }
+
+    // Thời điểm bắt đầu của bar sớm nhất trong [from, to), null nếu không có bar nào
+    public OffsetDateTime findFirstBucketStart(UUID assetId, BarResolution resolution,
+                                               OffsetDateTime from, OffsetDateTime to) {
+        return jdbcTemplate.queryForObject(FIRST_BUCKET_SQL, OffsetDateTime.class,
+                assetId, resolution.name(), from, to);
+    }
+
+    // Giá đóng cửa của bar cuối cùng kết thúc trước (hoặc đúng) thời điểm, null nếu không có
+    public BigDecimal findCloseBefore(UUID assetId, BarResolution resolution, OffsetDateTime time) {
+        List<BigDecimal> close = jdbcTemplate.queryForList(CLOSE_BEFORE_SQL, BigDecimal.class,
+                assetId, resolution.name(), time.minusSeconds(resolution.getSeconds()));
+        return close.isEmpty() ? null : close.get(0);
+    }
+
+    // Khoảng thời gian [min, max] của dữ liệu gốc, null nếu bảng rỗng
+    public OffsetDateTime[] findPriceTimeRange() {
+        return jdbcTemplate.query(PRICE_RANGE_SQL, rs -> {
+            if (!rs.next() || rs.getObject(1) == null) {
+                return null;
+            }
+            return new OffsetDateTime[]{
+                    rs.getObject(1, OffsetDateTime.class),
+                    rs.getObject(2, OffsetDateTime.class)
+            };
+        });
+    }
+
+    /**
+     * Duyệt các bar của một asset theo thứ tự thời gian, giá quy về long scale 10^8.
+     * Trả về số bar đã đọc.
+     */
+    public int streamBars(UUID assetId, BarResolution resolution, OffsetDateTime from, OffsetDateTime to,
+                          BarConsumer consumer) {
+        int[] count = {0};
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(BARS_IN_RANGE_SQL);
+            ps.setFetchSize(1_000);
+            ps.setObject(1, assetId);
+            ps.setString(2, resolution.name());
+            ps.setObject(3, from);
+            ps.setObject(4, to);
+            return ps;
+        }, rs -> {
+            long volume = rs.getLong("volume");
+            if (rs.wasNull()) volume = CandleAggregator.NO_VOLUME;
+            consumer.accept(rs.getLong("ts"),
+                    rs.getLong("open_scaled"), rs.getLong("high_scaled"),
+                    rs.getLong("low_scaled"), rs.getLong("close_scaled"), volume);
+            count[0]++;
+        });
+        return count[0];
+    }
+}
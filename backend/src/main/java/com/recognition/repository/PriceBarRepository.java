@@ -0,0 +1,13 @@
+package com.recognition.repository;
+
+import com.recognition.entity.PriceBar;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface PriceBarRepository extends JpaRepository<PriceBar, UUID> {
+
+    void deleteAllByAssetId(UUID assetId);
+}
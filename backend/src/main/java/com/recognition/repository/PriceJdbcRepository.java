@@ -0,0 +1,461 @@
+package com.recognition.repository;
+
+import com.recognition.dto.PriceCursor;
+import com.recognition.dto.PriceSnapshot;
+import com.recognition.dto.response.StatisticsDTO;
+import com.recognition.entity.Price;
+import com.recognition.export.PriceExportColumns;
+import com.recognition.export.PriceRowSink;
+import com.recognition.util.CandleAggregator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.*;
+
+/**
+ * Truy vấn set-based trên bảng prices bằng JDBC thuần,
+ * dùng cho các đường ingest/đọc hàng loạt mà JPA xử lý theo từng entity.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PriceJdbcRepository {
+
+    private static final String LATEST_PRICE_PER_ASSET_SQL = """
+            SELECT DISTINCT ON (p.asset_id)
+                   p.id, p.asset_id, a.symbol, a.name, p.price, p.timestamp, p.volume,
+                   p.change_percent, p.high_24h, p.low_24h, p.market_cap, p.source
+            FROM prices p
+            JOIN assets a ON a.id = p.asset_id
+            ORDER BY p.asset_id, p.timestamp DESC
+            """;
+
+    // Giá/volume được quy đổi sang số nguyên ngay trong DB để phía Java đọc bằng kiểu nguyên thủy
+    private static final String TICKS_IN_RANGE_SQL = """
+            SELECT EXTRACT(EPOCH FROM timestamp)::bigint AS ts,
+                   (price * 100000000)::bigint          AS price_scaled,
+                   volume::bigint                       AS volume
+            FROM prices
+            WHERE asset_id = ? AND timestamp BETWEEN ? AND ?
+            ORDER BY timestamp ASC
+            """;
+
+    private static final int STREAM_FETCH_SIZE = 1_000;
+
+    private static final String FIRST_TICK_SQL = """
+            SELECT MIN(timestamp) FROM prices
+            WHERE asset_id = ? AND timestamp >= ? AND timestamp < ?
+            """;
+
+    /*
+     * Toàn bộ thống kê trong một lượt quét index (asset_id, timestamp) phía DB.
+     * dv = phần volume tăng thêm so với tick trước; giá trị âm (sang phiên mới) bị bỏ qua khi tính VWAP.
+     */
+    private static final String STATS_IN_RANGE_SQL = """
+            WITH t AS (
+                SELECT price, timestamp,
+                       volume - LAG(volume) OVER (ORDER BY timestamp) AS dv
+                FROM prices
+                WHERE asset_id = ? AND timestamp BETWEEN ? AND ?
+            )
+            SELECT COUNT(*)                                       AS sample_count,
+                   MIN(price)                                     AS min_price,
+                   MAX(price)                                     AS max_price,
+                   ROUND(AVG(price), 8)                           AS avg_price,
+                   ROUND(STDDEV_SAMP(price), 8)                   AS std_dev,
+                   ROUND(STDDEV_SAMP(price) / NULLIF(AVG(price), 0) * 100, 4) AS volatility,
+                   ROUND(SUM(price * dv) FILTER (WHERE dv > 0)
+                         / NULLIF(SUM(dv) FILTER (WHERE dv > 0), 0), 8) AS vwap,
+                   (SELECT price FROM t ORDER BY timestamp ASC LIMIT 1)  AS first_price,
+                   (SELECT price FROM t ORDER BY timestamp DESC LIMIT 1) AS last_price
+            FROM t
+            """;
+
+    /*
+     * Cùng bộ thống kê nhưng phần giữa khoảng đọc từ bar giờ: tick gốc chỉ cho hai mép [from, barsFrom)
+     * và [barsTo, to]. Mỗi tick/bar là một "điểm" (bar: open/close, low/high, tổng giá, tổng bình phương);
+     * độ lệch chuẩn tính từ Σp và Σp², VWAP của bar lấy giá trung bình bar nhân phần volume tăng thêm.
+     * missing_sq > 0 khi có bar cũ chưa có price_sq_sum: phía gọi quay về STATS_IN_RANGE_SQL.
+     */
+    private static final String STATS_WITH_BARS_SQL = """
+            WITH pts AS (
+                SELECT timestamp AS open_t, timestamp AS close_t, price AS open_p, price AS close_p,
+                       price AS lo, price AS hi, 1::bigint AS n, price AS p_sum, price * price AS p_sq,
+                       price AS vwap_p, volume
+                FROM prices
+                WHERE asset_id = ?
+                  AND ((timestamp >= ? AND timestamp < ?) OR (timestamp >= ? AND timestamp <= ?))
+                UNION ALL
+                SELECT open_time, close_time, open, close, low, high, tick_count, price_sum, price_sq_sum,
+                       price_sum / tick_count, volume
+                FROM price_bars
+                WHERE asset_id = ? AND resolution = 'HOUR' AND bucket_start >= ? AND bucket_start < ?
+            ),
+            seq AS (
+                SELECT *, volume - LAG(volume) OVER (ORDER BY close_t) AS dv FROM pts
+            ),
+            agg AS (
+                SELECT SUM(n)                                        AS sample_count,
+                       MIN(lo)                                       AS min_price,
+                       MAX(hi)                                       AS max_price,
+                       SUM(p_sum) / NULLIF(SUM(n), 0)                AS avg_price,
+                       SQRT(GREATEST(SUM(p_sq) - SUM(p_sum) * SUM(p_sum) / NULLIF(SUM(n), 0), 0)
+                            / NULLIF(SUM(n) - 1, 0))                 AS std_dev,
+                       SUM(vwap_p * dv) FILTER (WHERE dv > 0)
+                           / NULLIF(SUM(dv) FILTER (WHERE dv > 0), 0) AS vwap,
+                       COUNT(*) FILTER (WHERE p_sq IS NULL)          AS missing_sq
+                FROM seq
+            )
+            SELECT COALESCE(sample_count, 0)                         AS sample_count,
+                   min_price, max_price,
+                   ROUND(avg_price, 8)                               AS avg_price,
+                   ROUND(std_dev, 8)                                 AS std_dev,
+                   ROUND(std_dev / NULLIF(avg_price, 0) * 100, 4)    AS volatility,
+                   ROUND(vwap, 8)                                    AS vwap,
+                   (SELECT open_p FROM seq ORDER BY open_t ASC LIMIT 1)    AS first_price,
+                   (SELECT close_p FROM seq ORDER BY close_t DESC LIMIT 1) AS last_price,
+                   missing_sq
+            FROM agg
+            """;
+
+    private static final String HISTORY_PAGE_SELECT = """
+            SELECT id, asset_id, price, timestamp, volume, change_percent, high_24h, low_24h, market_cap, source
+            FROM prices
+            WHERE asset_id = ?
+            """;
+
+    // Mọi cột số được quy scale ngay trong DB (xem PriceExportColumns) để đọc bằng getLong
+    private static final String EXPORT_ROWS_SQL = """
+            SELECT (EXTRACT(EPOCH FROM timestamp) * 1000000)::bigint AS ts_micros,
+                   (price * 100000000)::bigint          AS price_scaled,
+                   (volume * 100)::bigint               AS volume_scaled,
+                   (change_percent * 10000)::bigint     AS change_scaled,
+                   (high_24h * 100000000)::bigint       AS high_scaled,
+                   (low_24h * 100000000)::bigint        AS low_scaled,
+                   (market_cap * 100)::bigint           AS market_cap_scaled,
+                   source
+            FROM prices
+            WHERE asset_id = ? AND timestamp BETWEEN ? AND ?
+            ORDER BY timestamp ASC
+            """;
+
+    private static final int EXPORT_FETCH_SIZE = 5_000;
+
+    /*
+     * Giá gần nhất trước mỗi mốc (now - window) cho nhiều asset trong một câu:
+     * mỗi cặp (asset, window) là một lần seek LIMIT 1 trên index (asset_id, timestamp DESC).
+     * Khi tick gốc trước mốc đã bị retention xoá thì lấy close của bar ngày cuối cùng kết thúc trước mốc.
+     */
+    private static final String PRICES_BEFORE_WINDOWS_SQL = """
+            SELECT ids.asset_id, w.ord, p.price
+            FROM unnest(?::uuid[]) AS ids(asset_id)
+            CROSS JOIN unnest(?::bigint[]) WITH ORDINALITY AS w(seconds, ord)
+            CROSS JOIN LATERAL (SELECT ?::timestamptz - make_interval(secs => w.seconds) AS cutoff) c
+            CROSS JOIN LATERAL (
+                SELECT COALESCE(
+                    (SELECT price
+                     FROM prices
+                     WHERE asset_id = ids.asset_id AND timestamp < c.cutoff
+                     ORDER BY timestamp DESC
+                     LIMIT 1),
+                    (SELECT close
+                     FROM price_bars
+                     WHERE asset_id = ids.asset_id AND resolution = 'DAY'
+                       AND bucket_start <= c.cutoff - interval '1 day'
+                     ORDER BY bucket_start DESC
+                     LIMIT 1)
+                ) AS price
+            ) p
+            WHERE p.price IS NOT NULL
+            """;
+
+    private static final String INSERT_PRICE_SQL = """
+            INSERT INTO prices (id, asset_id, price, timestamp, source, change_percent,
+                                high_24h, low_24h, volume, market_cap, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (asset_id, timestamp, source) DO NOTHING
+            """;
+
+    /*
+     * Dòng gốc đủ điều kiện nén/xoá của một asset: cũ hơn mốc và không phải tick mới nhất của asset
+     * (giữ lại để cache giá mới nhất và % thay đổi vẫn có mốc khi asset ngừng cập nhật).
+     */
+    private static final String OLDEST_COMPACTABLE_SQL = """
+            SELECT MIN(timestamp)
+            FROM prices
+            WHERE asset_id = ?
+              AND timestamp < LEAST(?::timestamptz, (SELECT MAX(timestamp) FROM prices WHERE asset_id = ?))
+            """;
+
+    // Xoá một lô dòng cũ nhất (bounded), đi theo index (asset_id, timestamp)
+    private static final String DELETE_COMPACTED_CHUNK_SQL = """
+            DELETE FROM prices
+            WHERE (id, timestamp) IN (
+                SELECT id, timestamp
+                FROM prices
+                WHERE asset_id = ?
+                  AND timestamp < LEAST(?::timestamptz, (SELECT MAX(timestamp) FROM prices WHERE asset_id = ?))
+                ORDER BY timestamp ASC
+                LIMIT ?
+            )
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @FunctionalInterface
+    public interface TickConsumer {
+        void accept(long epochSecond, long scaledPrice, long volume);
+    }
+
+    // Lấy bản ghi giá mới nhất của mọi asset trong một câu truy vấn
+    public List<PriceSnapshot> findAllLatest() {
+        return jdbcTemplate.query(LATEST_PRICE_PER_ASSET_SQL, (rs, rowNum) -> new PriceSnapshot(
+                rs.getObject("id", UUID.class),
+                rs.getObject("asset_id", UUID.class),
+                rs.getString("symbol"),
+                rs.getString("name"),
+                rs.getBigDecimal("price"),
+                rs.getObject("timestamp", OffsetDateTime.class),
+                rs.getBigDecimal("volume"),
+                rs.getBigDecimal("change_percent"),
+                rs.getBigDecimal("high_24h"),
+                rs.getBigDecimal("low_24h"),
+                rs.getBigDecimal("market_cap"),
+                rs.getString("source")
+        ));
+    }
+
+    /**
+     * Với mỗi asset, giá gần nhất trước {@code now - windows[i]}; phần tử i của mảng là null
+     * nếu không có giá nào trước mốc đó. Asset không có dòng nào vắng mặt trong map.
+     */
+    public Map<UUID, BigDecimal[]> findPricesBefore(Collection<UUID> assetIds, List<Duration> windows,
+                                                     OffsetDateTime now) {
+        Map<UUID, BigDecimal[]> result = new HashMap<>();
+        if (assetIds.isEmpty() || windows.isEmpty()) {
+            return result;
+        }
+        Long[] seconds = windows.stream().map(Duration::toSeconds).toArray(Long[]::new);
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(PRICES_BEFORE_WINDOWS_SQL);
+            ps.setArray(1, con.createArrayOf("uuid", assetIds.toArray()));
+            ps.setArray(2, con.createArrayOf("bigint", seconds));
+            ps.setObject(3, now);
+            return ps;
+        }, rs -> {
+            BigDecimal[] prices = result.computeIfAbsent(rs.getObject("asset_id", UUID.class),
+                    id -> new BigDecimal[seconds.length]);
+            prices[rs.getInt("ord") - 1] = rs.getBigDecimal("price");
+        });
+        return result;
+    }
+
+    // Timestamp của tick sớm nhất trong [from, to), null nếu không có
+    public OffsetDateTime findFirstTickTime(UUID assetId, OffsetDateTime from, OffsetDateTime to) {
+        return jdbcTemplate.queryForObject(FIRST_TICK_SQL, OffsetDateTime.class, assetId, from, to);
+    }
+
+    /**
+     * Duyệt tuần tự các tick của một asset trong khoảng thời gian (tăng dần),
+     * đọc qua cursor theo từng khối {@value #STREAM_FETCH_SIZE} dòng, không tạo entity.
+     * Cần được gọi trong transaction để driver PostgreSQL dùng cursor.
+     */
+    public void streamTicks(UUID assetId, OffsetDateTime from, OffsetDateTime to, TickConsumer consumer) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(TICKS_IN_RANGE_SQL);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            ps.setObject(1, assetId);
+            ps.setObject(2, from);
+            ps.setObject(3, to);
+            return ps;
+        }, rs -> {
+            long volume = rs.getLong("volume");
+            if (rs.wasNull()) volume = CandleAggregator.NO_VOLUME;
+            consumer.accept(rs.getLong("ts"), rs.getLong("price_scaled"), volume);
+        });
+    }
+
+    /**
+     * Đẩy toàn bộ giá của một asset trong [from, to] vào sink theo thứ tự thời gian, qua cursor
+     * {@value #EXPORT_FETCH_SIZE} dòng mỗi lần và không tạo entity; bộ nhớ không phụ thuộc độ dài khoảng.
+     * Cần được gọi trong transaction để driver PostgreSQL dùng cursor. Trả về số dòng.
+     */
+    public long streamExportRows(UUID assetId, OffsetDateTime from, OffsetDateTime to, PriceRowSink sink) {
+        long[] count = {0};
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(EXPORT_ROWS_SQL);
+            ps.setFetchSize(EXPORT_FETCH_SIZE);
+            ps.setObject(1, assetId);
+            ps.setObject(2, from);
+            ps.setObject(3, to);
+            return ps;
+        }, rs -> {
+            try {
+                sink.accept(rs.getLong("ts_micros"),
+                        nullableLong(rs, "price_scaled"),
+                        nullableLong(rs, "volume_scaled"),
+                        nullableLong(rs, "change_scaled"),
+                        nullableLong(rs, "high_scaled"),
+                        nullableLong(rs, "low_scaled"),
+                        nullableLong(rs, "market_cap_scaled"),
+                        rs.getString("source"));
+            } catch (IOException e) {
+                // Client ngắt kết nối: dừng duyệt cursor
+                throw new UncheckedIOException(e);
+            }
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    private static long nullableLong(ResultSet rs, String column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? PriceExportColumns.NULL : value;
+    }
+
+    // Thống kê giá của một asset trong [from, to] bằng một câu aggregate, không nạp dòng nào lên Java
+    public StatisticsDTO aggregateStats(UUID assetId, OffsetDateTime from, OffsetDateTime to) {
+        return jdbcTemplate.queryForObject(STATS_IN_RANGE_SQL, (rs, rowNum) -> mapStats(rs, from, to),
+                assetId, from, to);
+    }
+
+    /**
+     * Thống kê trong [from, to] với phần [barsFrom, barsTo) (căn theo giờ) đọc từ bar giờ,
+     * chỉ quét tick gốc ở hai mép. Trả về null nếu có bar trong khoảng chưa có price_sq_sum.
+     */
+    public StatisticsDTO aggregateStatsWithBars(UUID assetId, OffsetDateTime from, OffsetDateTime to,
+                                                OffsetDateTime barsFrom, OffsetDateTime barsTo) {
+        return jdbcTemplate.queryForObject(STATS_WITH_BARS_SQL, (rs, rowNum) ->
+                        rs.getLong("missing_sq") > 0 ? null : mapStats(rs, from, to),
+                assetId, from, barsFrom, barsTo, to,
+                assetId, barsFrom, barsTo);
+    }
+
+    private static StatisticsDTO mapStats(ResultSet rs, OffsetDateTime from, OffsetDateTime to) throws SQLException {
+        long count = rs.getLong("sample_count");
+        if (count == 0) {
+            return StatisticsDTO.empty(from, to);
+        }
+        return new StatisticsDTO(
+                rs.getBigDecimal("min_price"),
+                rs.getBigDecimal("max_price"),
+                rs.getBigDecimal("avg_price"),
+                rs.getBigDecimal("first_price"),
+                rs.getBigDecimal("last_price"),
+                rs.getBigDecimal("std_dev"),
+                rs.getBigDecimal("volatility"),
+                rs.getBigDecimal("vwap"),
+                count,
+                from,
+                to
+        );
+    }
+
+    /**
+     * Một trang lịch sử giá theo keyset (timestamp, id): seek thẳng tới sau bản ghi {@code after}
+     * trên index (asset_id, timestamp) thay vì OFFSET, và không đếm tổng số dòng.
+     * Điều kiện "timestamp <= t AND (timestamp < t OR id < i)" giữ phần timestamp làm điều kiện index.
+     * Snapshot trả về không có assetSymbol/assetName.
+     */
+    public List<PriceSnapshot> findHistoryPage(UUID assetId, OffsetDateTime from, OffsetDateTime to,
+                                               PriceCursor after, boolean ascending, int limit) {
+        StringBuilder sql = new StringBuilder(HISTORY_PAGE_SELECT);
+        List<Object> args = new ArrayList<>(8);
+        args.add(assetId);
+        if (from != null) {
+            sql.append("  AND timestamp >= ?\n");
+            args.add(from);
+        }
+        if (to != null) {
+            sql.append("  AND timestamp <= ?\n");
+            args.add(to);
+        }
+        if (after != null) {
+            sql.append(ascending
+                    ? "  AND timestamp >= ? AND (timestamp > ? OR id > ?)\n"
+                    : "  AND timestamp <= ? AND (timestamp < ? OR id < ?)\n");
+            args.add(after.timestamp());
+            args.add(after.timestamp());
+            args.add(after.id());
+        }
+        sql.append(ascending ? "ORDER BY timestamp ASC, id ASC\n" : "ORDER BY timestamp DESC, id DESC\n");
+        sql.append("LIMIT ?");
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new PriceSnapshot(
+                rs.getObject("id", UUID.class),
+                rs.getObject("asset_id", UUID.class),
+                null,
+                null,
+                rs.getBigDecimal("price"),
+                rs.getObject("timestamp", OffsetDateTime.class),
+                rs.getBigDecimal("volume"),
+                rs.getBigDecimal("change_percent"),
+                rs.getBigDecimal("high_24h"),
+                rs.getBigDecimal("low_24h"),
+                rs.getBigDecimal("market_cap"),
+                rs.getString("source")
+        ), args.toArray());
+    }
+
+    // Timestamp cũ nhất có thể nén của asset (trước cutoff, trừ tick mới nhất), null nếu không có
+    public OffsetDateTime findOldestCompactable(UUID assetId, OffsetDateTime cutoff) {
+        return jdbcTemplate.queryForObject(OLDEST_COMPACTABLE_SQL, OffsetDateTime.class, assetId, cutoff, assetId);
+    }
+
+    // Xoá tối đa limit dòng gốc cũ hơn cutoff của asset (luôn giữ tick mới nhất), trả về số dòng đã xoá
+    public int deleteCompactedChunk(UUID assetId, OffsetDateTime cutoff, int limit) {
+        return jdbcTemplate.update(DELETE_COMPACTED_CHUNK_SQL, assetId, cutoff, assetId, limit);
+    }
+
+    // Ghi nhiều bản ghi giá bằng JDBC batch, trả về số dòng thực sự được chèn
+    public int insertAll(List<Price> prices) {
+        if (prices == null || prices.isEmpty()) {
+            return 0;
+        }
+
+        OffsetDateTime createdAt = OffsetDateTime.now();
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_PRICE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Price p = prices.get(i);
+                if (p.getId() == null) {
+                    p.setId(UUID.randomUUID());
+                }
+                ps.setObject(1, p.getId());
+                ps.setObject(2, p.getAsset().getId());
+                ps.setBigDecimal(3, p.getPrice());
+                ps.setObject(4, p.getTimestamp());
+                ps.setString(5, p.getSource());
+                ps.setBigDecimal(6, p.getChangePercent());
+                ps.setBigDecimal(7, p.getHigh24h());
+                ps.setBigDecimal(8, p.getLow24h());
+                ps.setBigDecimal(9, p.getVolume());
+                ps.setBigDecimal(10, p.getMarketCap());
+                ps.setObject(11, createdAt);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return prices.size();
+            }
+        });
+
+        int inserted = 0;
+        for (int c : counts) {
+            // Driver có thể trả SUCCESS_NO_INFO (-2) khi bật reWriteBatchedInserts
+            inserted += c == Statement.SUCCESS_NO_INFO ? 1 : Math.max(c, 0);
+        }
+        return inserted;
+    }
+}
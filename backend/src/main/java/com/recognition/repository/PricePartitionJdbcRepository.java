@@ -0,0 +1,76 @@
+package com.recognition.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * DDL quản lý partition theo tháng của bảng prices (xem db_init/prices_partitioning.sql).
+ * Partition tên dạng prices_pYYYY_MM, biên [đầu tháng, đầu tháng sau) theo UTC.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PricePartitionJdbcRepository {
+
+    private static final String IS_PARTITIONED_SQL =
+            "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('public.prices'))";
+
+    private static final String LIST_PARTITIONS_SQL = """
+            SELECT c.relname
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = to_regclass('public.prices')
+            ORDER BY c.relname
+            """;
+
+    private static final Pattern MONTHLY_NAME = Pattern.compile("prices_p(\\d{4})_(\\d{2})");
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("'prices_p'yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public boolean isPartitioned() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_PARTITIONED_SQL, Boolean.class));
+    }
+
+    public List<String> listPartitions() {
+        return jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class);
+    }
+
+    // Tạo partition cho một tháng nếu chưa có
+    public void createMonthlyPartition(YearMonth month) {
+        String from = month.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC).toString();
+        String to = month.plusMonths(1).atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC).toString();
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS public." + partitionName(month)
+                + " PARTITION OF public.prices FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+    }
+
+    // Tách partition khỏi bảng cha rồi xoá: tức thời, không để lại dead tuple như DELETE
+    public void dropPartition(String partitionName) {
+        if (!MONTHLY_NAME.matcher(partitionName).matches()) {
+            throw new IllegalArgumentException("Not a monthly price partition: " + partitionName);
+        }
+        jdbcTemplate.execute("ALTER TABLE public.prices DETACH PARTITION public." + partitionName);
+        jdbcTemplate.execute("DROP TABLE public." + partitionName);
+    }
+
+    public static String partitionName(YearMonth month) {
+        return NAME_FORMAT.format(month);
+    }
+
+    // Tháng của partition theo quy ước tên; rỗng với partition khác (vd. prices_default)
+    public static Optional<YearMonth> monthOf(String partitionName) {
+        Matcher m = MONTHLY_NAME.matcher(partitionName);
+        if (!m.matches()) {
+            return Optional.empty();
+        }
+        return Optional.of(YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2))));
+    }
+}
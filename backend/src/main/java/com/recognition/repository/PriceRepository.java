@@ -1,5 +1,6 @@
 package com.recognition.repository;
 
+import com.recognition.dto.PriceDto;
 import com.recognition.entity.Asset;
 import com.recognition.entity.Price;
 import org.springframework.data.domain.Page;
@@ -49,30 +50,22 @@ public interface PriceRepository extends JpaRepository<Price, UUID> {
                                     @Param("start") OffsetDateTime start,
                                     @Param("end") OffsetDateTime end);
 
-    @Query("""
-    SELECT p
-    FROM Price p
-    JOIN FETCH p.asset a
-    WHERE p.timestamp = (
-        SELECT MAX(p2.timestamp)
-        FROM Price p2
-        WHERE p2.asset.id = p.asset.id
-    )
-    AND p.changePercent IS NOT NULL
-    ORDER BY p.changePercent DESC
-    """)
-    List<Price> findTopGainers(Pageable pageable);
-
-    @Query("""
-    SELECT p
-    FROM Price p
-    WHERE p.timestamp = (
-        SELECT MAX(p2.timestamp)
-        FROM Price p2
-        WHERE p2.asset.id = p.asset.id
-    )
-    AND p.changePercent IS NOT NULL
-    ORDER BY p.changePercent ASC
-    """)
-    List<Price> findTopLosers(Pageable pageable);
+    // Projection thẳng sang PriceDto trong một câu (join assets), không hydrate entity hay proxy Asset
+    @Query(value = """
+            SELECT new com.recognition.dto.PriceDto(
+                       p.id, a.id, a.name, a.symbol, p.price, p.timestamp, p.volume,
+                       p.changePercent, p.high24h, p.low24h, p.marketCap, p.source)
+            FROM Price p JOIN p.asset a
+            WHERE a.id = :assetId
+              AND p.timestamp BETWEEN :start AND :end
+           """,
+           countQuery = """
+            SELECT COUNT(p) FROM Price p
+            WHERE p.asset.id = :assetId
+              AND p.timestamp BETWEEN :start AND :end
+           """)
+    Page<PriceDto> findDtoPageByAssetAndRange(@Param("assetId") UUID assetId,
+                                              @Param("start") OffsetDateTime start,
+                                              @Param("end") OffsetDateTime end,
+                                              Pageable pageable);
 }
@@ -0,0 +1,16 @@
+package com.recognition.repository;
+
+import com.recognition.entity.RefreshJob;
+import com.recognition.entity.RefreshJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface RefreshJobRepository extends JpaRepository<RefreshJob, UUID> {
+
+    List<RefreshJob> findByStatusInOrderByCreatedAtAsc(Collection<RefreshJobStatus> statuses);
+}
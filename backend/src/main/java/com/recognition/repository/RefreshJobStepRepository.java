@@ -0,0 +1,13 @@
+package com.recognition.repository;
+
+import com.recognition.entity.RefreshJobStep;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface RefreshJobStepRepository extends JpaRepository<RefreshJobStep, UUID> {
+
+    int countByJobId(UUID jobId);
+}
@@ -2,6 +2,7 @@ package com.recognition.repository;
 
 import com.recognition.entity.Watchlist;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,4 +16,14 @@ public interface WatchlistRepository extends JpaRepository<Watchlist, UUID> {
     boolean existsByUserIdAndSymbol(UUID userId, String symbol);
 
     void deleteByUserIdAndSymbol(UUID userId, String symbol);
+
+    // Số watchlist theo dõi mỗi mã
+    @Query("SELECT w.symbol AS symbol, COUNT(w) AS watchers FROM Watchlist w GROUP BY w.symbol")
+    List<SymbolWatchCount> countWatchersBySymbol();
+
+    interface SymbolWatchCount {
+        String getSymbol();
+
+        long getWatchers();
+    }
 }
@@ -0,0 +1,242 @@
+package com.recognition.scheduler;
+
+import com.recognition.cache.LatestPriceCache;
+import com.recognition.dto.PriceSnapshot;
+import com.recognition.entity.Asset;
+import com.recognition.repository.AssetRepository;
+import com.recognition.repository.WatchlistRepository;
+import com.recognition.service.PriceService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tự động làm mới giá cho mọi asset active theo chu kỳ riêng của từng asset ({@link RefreshCadencePolicy}).
+ * Hạn làm mới nằm trên một {@link TimingWheel}; mỗi tick, các asset tới hạn vào hàng đợi và được
+ * lấy ra theo một ngân sách cố định suy từ quota Finnhub, nên request được rải đều thay vì dồn cục.
+ * Mỗi "wave" là một lần {@link PriceService#refreshPrices} cho các asset lấy ra trong tick đó.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "price.refresh.scheduler.enabled", havingValue = "true")
+public class MarketRefreshScheduler {
+
+    private static final int WHEEL_SLOTS = 4_096;
+
+    private record Due(UUID assetId, long dueAtMillis) {
+    }
+
+    // Mục trên wheel; chỉ mục có generation khớp generations[assetId] còn hiệu lực
+    private record Ticket(UUID assetId, long generation) {
+    }
+
+    private final PriceService priceService;
+    private final AssetRepository assetRepository;
+    private final WatchlistRepository watchlistRepository;
+    private final LatestPriceCache latestPriceCache;
+    private final RefreshCadencePolicy cadencePolicy;
+
+    private final long tickMillis;
+    private final double permitsPerTick;
+    private final int maxWaveSize;
+
+    // Trạng thái dưới đây chỉ được truy cập khi giữ lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TimingWheel<Ticket> wheel;
+    // Generation của lần đặt lịch mới nhất cho mỗi asset; đặt lịch lại làm các mục cũ trên wheel hết hiệu lực
+    private final Map<UUID, Long> generations = new HashMap<>();
+    private long nextGeneration;
+    private final Map<UUID, Integer> watchersByAsset = new HashMap<>();
+    private final Map<UUID, String> trackedAssets = new HashMap<>();
+    private final Set<UUID> queued = new HashSet<>();
+    private final ArrayDeque<Due> pending = new ArrayDeque<>();
+    private double budget;
+
+    // Metrics
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger scheduledAssets = new AtomicInteger();
+    private final AtomicLong lastWaveLagMillis = new AtomicLong();
+    private final Timer waveTimer;
+    private final Counter refreshedCounter;
+    private final Counter failedCounter;
+
+    public MarketRefreshScheduler(PriceService priceService,
+                                  AssetRepository assetRepository,
+                                  WatchlistRepository watchlistRepository,
+                                  LatestPriceCache latestPriceCache,
+                                  RefreshCadencePolicy cadencePolicy,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${price.refresh.tick-ms:1000}") long tickMillis,
+                                  @Value("${finnhub.rate-limit.per-minute:60}") int permitsPerMinute,
+                                  @Value("${price.refresh.quota-share:0.8}") double quotaShare,
+                                  @Value("${price.refresh.max-wave-size:50}") int maxWaveSize) {
+        this.priceService = priceService;
+        this.assetRepository = assetRepository;
+        this.watchlistRepository = watchlistRepository;
+        this.latestPriceCache = latestPriceCache;
+        this.cadencePolicy = cadencePolicy;
+        this.tickMillis = tickMillis;
+        // Chừa lại một phần quota cho các request thủ công (fetch-all, fetch từng asset)
+        this.permitsPerTick = permitsPerMinute * quotaShare * tickMillis / 60_000d;
+        this.maxWaveSize = maxWaveSize;
+        this.wheel = new TimingWheel<>(tickMillis, WHEEL_SLOTS, System.currentTimeMillis());
+
+        Gauge.builder("price.refresh.queue.depth", queueDepth, AtomicInteger::get)
+                .description("Assets due for refresh waiting for rate-limit budget")
+                .register(meterRegistry);
+        Gauge.builder("price.refresh.scheduled.assets", scheduledAssets, AtomicInteger::get)
+                .description("Assets currently on the refresh timing wheel")
+                .register(meterRegistry);
+        Gauge.builder("price.refresh.lag", lastWaveLagMillis, AtomicLong::get)
+                .description("Max delay between due time and refresh in the last wave")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        this.waveTimer = Timer.builder("price.refresh.wave")
+                .description("Duration of one refresh wave")
+                .register(meterRegistry);
+        this.refreshedCounter = Counter.builder("price.refresh.assets").tag("result", "updated").register(meterRegistry);
+        this.failedCounter = Counter.builder("price.refresh.assets").tag("result", "failed").register(meterRegistry);
+    }
+
+    // Chạy sau khi cache giá đã nạp (@Order(0), @Order(1))
+    @Order(2)
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reconcile();
+    }
+
+    /**
+     * Đồng bộ danh sách asset active và số người theo dõi; asset mới được xếp lịch
+     * với độ lệch ngẫu nhiên trong chu kỳ của nó để không dồn vào cùng một tick.
+     */
+    @Scheduled(fixedDelayString = "${price.refresh.reconcile-ms:300000}", initialDelayString = "${price.refresh.reconcile-ms:300000}")
+    public void reconcile() {
+        List<Asset> active = assetRepository.findByIsActiveTrue();
+        Map<String, Integer> watchersBySymbol = new HashMap<>();
+        watchlistRepository.countWatchersBySymbol()
+                .forEach(w -> watchersBySymbol.put(w.getSymbol(), (int) w.getWatchers()));
+
+        long now = System.currentTimeMillis();
+        int added = 0;
+        lock.lock();
+        try {
+            Set<UUID> stillActive = new HashSet<>();
+            for (Asset asset : active) {
+                stillActive.add(asset.getId());
+                watchersByAsset.put(asset.getId(), watchersBySymbol.getOrDefault(asset.getSymbol(), 0));
+                if (trackedAssets.put(asset.getId(), asset.getSymbol()) == null) {
+                    long interval = intervalFor(asset.getId(), now).toMillis();
+                    schedule(asset.getId(), now + (long) (Math.random() * interval));
+                    added++;
+                }
+            }
+            // Asset bị tắt/xoá: bỏ theo dõi, mục cũ trên wheel hết hiệu lực và bị bỏ qua khi tới hạn
+            trackedAssets.keySet().retainAll(stillActive);
+            watchersByAsset.keySet().retainAll(stillActive);
+            generations.keySet().retainAll(stillActive);
+            scheduledAssets.set(trackedAssets.size());
+        } finally {
+            lock.unlock();
+        }
+        log.info("Refresh scheduler reconciled: {} active assets ({} new)", active.size(), added);
+    }
+
+    @Scheduled(fixedDelayString = "${price.refresh.tick-ms:1000}")
+    public void tick() {
+        long now = System.currentTimeMillis();
+        List<Due> wave = new ArrayList<>();
+
+        lock.lock();
+        try {
+            wheel.advanceTo(now, (ticket, dueAt) -> {
+                UUID assetId = ticket.assetId();
+                if (Objects.equals(generations.get(assetId), ticket.generation()) && queued.add(assetId)) {
+                    pending.addLast(new Due(assetId, dueAt));
+                }
+            });
+
+            // Ngân sách dồn tối đa 2 tick để sau một lần chậm không bắn ra cả loạt request
+            budget = Math.min(budget + permitsPerTick, Math.max(1, permitsPerTick * 2));
+            while (budget >= 1 && !pending.isEmpty() && wave.size() < maxWaveSize) {
+                Due due = pending.pollFirst();
+                queued.remove(due.assetId());
+                wave.add(due);
+                budget -= 1;
+            }
+            queueDepth.set(pending.size());
+        } finally {
+            lock.unlock();
+        }
+
+        if (!wave.isEmpty()) {
+            runWave(wave, now);
+        }
+    }
+
+    private void runWave(List<Due> wave, long startedAt) {
+        long maxLag = 0;
+        List<UUID> assetIds = new ArrayList<>(wave.size());
+        for (Due due : wave) {
+            assetIds.add(due.assetId());
+            maxLag = Math.max(maxLag, startedAt - due.dueAtMillis());
+        }
+        lastWaveLagMillis.set(maxLag);
+
+        Timer.Sample sample = Timer.start();
+        try {
+            Map<String, Object> result = priceService.refreshPrices(assetIds);
+            int failed = result.get("failed") instanceof Collection<?> c ? c.size() : 0;
+            refreshedCounter.increment(wave.size() - failed);
+            failedCounter.increment(failed);
+        } catch (Exception e) {
+            failedCounter.increment(wave.size());
+            log.warn("Refresh wave of {} assets failed: {}", wave.size(), e.getMessage());
+        } finally {
+            long durationNanos = sample.stop(waveTimer);
+            log.debug("Refresh wave: {} assets, lag {} ms, {} ms",
+                    wave.size(), maxLag, Duration.ofNanos(durationNanos).toMillis());
+        }
+
+        // Xếp lịch lần kế tiếp theo chu kỳ hiện tại của từng asset
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            for (UUID assetId : assetIds) {
+                if (trackedAssets.containsKey(assetId)) {
+                    schedule(assetId, now + intervalFor(assetId, now).toMillis());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Gọi khi giữ lock: mỗi asset chỉ có đúng một mục hiệu lực trên wheel
+    private void schedule(UUID assetId, long dueAtMillis) {
+        long generation = ++nextGeneration;
+        generations.put(assetId, generation);
+        wheel.scheduleAt(new Ticket(assetId, generation), dueAtMillis);
+    }
+
+    private Duration intervalFor(UUID assetId, long nowMillis) {
+        int watchers = watchersByAsset.getOrDefault(assetId, 0);
+        var changePercent = latestPriceCache.find(assetId).map(PriceSnapshot::changePercent).orElse(null);
+        return cadencePolicy.intervalFor(watchers, changePercent, Instant.ofEpochMilli(nowMillis));
+    }
+}
@@ -0,0 +1,85 @@
+package com.recognition.scheduler;
+
+import com.recognition.repository.PricePartitionJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Giữ partition theo tháng của bảng prices: tạo trước partition cho {@code months-ahead} tháng tới
+ * và (nếu bật) xoá partition cũ hơn {@code retention-months} tháng bằng DETACH + DROP.
+ * Không làm gì khi prices chưa được chuyển sang partition (db_init/prices_partitioning.sql).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PricePartitionMaintainer {
+
+    private final PricePartitionJdbcRepository partitionRepository;
+
+    @Value("${price.partition.months-ahead:3}")
+    private int monthsAhead;
+
+    // 0 = giữ toàn bộ lịch sử
+    @Value("${price.partition.retention-months:0}")
+    private int retentionMonths;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        try {
+            maintain();
+        } catch (DataAccessException e) {
+            log.warn("Price partition maintenance failed at startup: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${price.partition.cron:0 15 0 * * *}", zone = "UTC")
+    public void maintain() {
+        if (!partitionRepository.isPartitioned()) {
+            log.debug("prices is not partitioned, skipping partition maintenance");
+            return;
+        }
+
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            try {
+                partitionRepository.createMonthlyPartition(month);
+            } catch (DataAccessException e) {
+                // Thường do prices_default đã chứa dòng của tháng này: cần chuyển tay trước khi tạo
+                log.warn("Could not create price partition for {}: {}", month, e.getMessage());
+            }
+        }
+
+        if (retentionMonths > 0) {
+            for (String partition : expiredPartitions(partitionRepository.listPartitions(), current, retentionMonths)) {
+                partitionRepository.dropPartition(partition);
+                log.info("Dropped expired price partition {}", partition);
+            }
+        }
+    }
+
+    // Partition có cả tháng nằm trước mốc giữ lại (tháng hiện tại - retentionMonths)
+    static List<String> expiredPartitions(List<String> partitions, YearMonth current, int retentionMonths) {
+        YearMonth oldestKept = current.minusMonths(retentionMonths);
+        List<String> expired = new ArrayList<>();
+        for (String partition : partitions) {
+            Optional<YearMonth> month = PricePartitionJdbcRepository.monthOf(partition);
+            if (month.isPresent() && month.get().isBefore(oldestKept)) {
+                expired.add(partition);
+            }
+        }
+        return expired;
+    }
+}
@@ -0,0 +1,202 @@
+package com.recognition.scheduler;
+
+import com.recognition.dto.AssetSearchResult;
+import com.recognition.entity.BarResolution;
+import com.recognition.repository.AssetRepository;
+import com.recognition.repository.PriceBarJdbcRepository;
+import com.recognition.repository.PriceJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Giữ lịch sử giá theo tầng: tick gốc giữ {@code raw-days} ngày, cũ hơn thì nén vào price_bars
+ * (phút/giờ/ngày) rồi xoá theo từng lô nhỏ; bar phút/giờ cũng có hạn giữ riêng, bar ngày giữ mãi.
+ * Mỗi câu lệnh tự commit, nghỉ {@code pause-ms} giữa các lô để không chiếm I/O của ingest.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PriceRetentionJob {
+
+    private final PriceJdbcRepository priceJdbcRepository;
+    private final PriceBarJdbcRepository priceBarJdbcRepository;
+    private final AssetRepository assetRepository;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Value("${price.retention.enabled:false}")
+    private boolean enabled;
+
+    @Value("${price.retention.raw-days:90}")
+    private int rawDays;
+
+    // 0 = giữ mãi
+    @Value("${price.retention.minute-bar-days:0}")
+    private int minuteBarDays;
+
+    @Value("${price.retention.hour-bar-days:0}")
+    private int hourBarDays;
+
+    @Value("${price.retention.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${price.retention.pause-ms:200}")
+    private long pauseMs;
+
+    // Giới hạn số dòng xoá mỗi lần chạy; phần còn lại để lần sau
+    @Value("${price.retention.max-rows-per-run:2000000}")
+    private long maxRowsPerRun;
+
+    // Số ngày dữ liệu gốc gom thành bar trong mỗi câu lệnh
+    @Value("${price.retention.compact-window-days:30}")
+    private int compactWindowDays;
+
+    /**
+     * Mốc giữ lại theo tầng. Mốc tick gốc căn về đầu ngày UTC để bucket ngày không bị xoá dở;
+     * bar có hạn 0 thì không có mốc (giữ mãi).
+     */
+    record Policy(int rawDays, int minuteBarDays, int hourBarDays) {
+
+        OffsetDateTime rawCutoff(OffsetDateTime now) {
+            return startOfDay(now.minusDays(rawDays));
+        }
+
+        // null = giữ mãi; bar không bao giờ bị xoá trước dữ liệu gốc của nó
+        OffsetDateTime barCutoff(BarResolution resolution, OffsetDateTime now) {
+            int days = switch (resolution) {
+                case MINUTE -> minuteBarDays;
+                case HOUR -> hourBarDays;
+                case DAY -> 0;
+            };
+            return days <= 0 ? null : startOfDay(now.minusDays(Math.max(days, rawDays)));
+        }
+
+        private static OffsetDateTime startOfDay(OffsetDateTime t) {
+            return t.withOffsetSameInstant(ZoneOffset.UTC).toLocalDate().atStartOfDay().atOffset(ZoneOffset.UTC);
+        }
+    }
+
+    @Scheduled(cron = "${price.retention.cron:0 45 3 * * *}", zone = "UTC")
+    public void scheduledRun() {
+        if (!enabled) return;
+        try {
+            run();
+        } catch (DataAccessException e) {
+            log.warn("Price retention run failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Một lượt nén + xoá. Trả về false nếu đang có lượt khác chạy.
+     */
+    public boolean run() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Price retention already running, skipping.");
+            return false;
+        }
+
+        try {
+            long start = System.currentTimeMillis();
+            OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+            Policy policy = new Policy(rawDays, minuteBarDays, hourBarDays);
+            OffsetDateTime rawCutoff = policy.rawCutoff(now);
+            Map<BarResolution, OffsetDateTime> barCutoffs = new EnumMap<>(BarResolution.class);
+            for (BarResolution resolution : BarResolution.values()) {
+                barCutoffs.put(resolution, policy.barCutoff(resolution, now));
+            }
+
+            long barsWritten = 0;
+            long rowsDeleted = 0;
+            for (AssetSearchResult asset : assetRepository.findAllSearchEntries()) {
+                if (rowsDeleted >= maxRowsPerRun || Thread.currentThread().isInterrupted()) {
+                    log.info("Price retention stopped after {} rows, remaining assets next run", rowsDeleted);
+                    break;
+                }
+                OffsetDateTime oldest = priceJdbcRepository.findOldestCompactable(asset.id(), rawCutoff);
+                if (oldest == null) continue;
+
+                barsWritten += compact(asset.id(), oldest, rawCutoff, barCutoffs);
+                rowsDeleted += deleteRaw(asset.id(), rawCutoff, maxRowsPerRun - rowsDeleted);
+            }
+
+            long barsDeleted = 0;
+            for (Map.Entry<BarResolution, OffsetDateTime> entry : barCutoffs.entrySet()) {
+                if (entry.getValue() != null) {
+                    barsDeleted += deleteBars(entry.getKey(), entry.getValue());
+                }
+            }
+
+            log.info("Price retention (raw before {}): {} bars compacted, {} raw rows and {} bars deleted in {} ms",
+                    rawCutoff, barsWritten, rowsDeleted, barsDeleted, System.currentTimeMillis() - start);
+            return true;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    // Gom dữ liệu gốc [oldest, rawCutoff) của asset thành bar còn thiếu, bỏ phần tầng đó sẽ xoá ngay
+    private long compact(UUID assetId, OffsetDateTime oldest, OffsetDateTime rawCutoff,
+                         Map<BarResolution, OffsetDateTime> barCutoffs) {
+        long written = 0;
+        for (BarResolution resolution : BarResolution.values()) {
+            OffsetDateTime barCutoff = barCutoffs.get(resolution);
+            OffsetDateTime from = Policy.startOfDay(oldest);
+            if (barCutoff != null && from.isBefore(barCutoff)) {
+                from = barCutoff;
+            }
+            while (from.isBefore(rawCutoff)) {
+                OffsetDateTime to = from.plusDays(compactWindowDays);
+                if (to.isAfter(rawCutoff)) to = rawCutoff;
+                written += priceBarJdbcRepository.fillMissing(resolution, assetId, from, to);
+                from = to;
+            }
+        }
+        return written;
+    }
+
+    private long deleteRaw(UUID assetId, OffsetDateTime rawCutoff, long budget) {
+        long deleted = 0;
+        while (deleted < budget) {
+            int n = priceJdbcRepository.deleteCompactedChunk(assetId, rawCutoff, (int) Math.min(chunkSize, budget - deleted));
+            deleted += n;
+            if (n < chunkSize || !pause()) break;
+        }
+        return deleted;
+    }
+
+    private long deleteBars(BarResolution resolution, OffsetDateTime cutoff) {
+        long deleted = 0;
+        int n;
+        do {
+            n = priceBarJdbcRepository.deleteBarsChunk(resolution, cutoff, chunkSize);
+            deleted += n;
+        } while (n == chunkSize && pause());
+        return deleted;
+    }
+
+    // Nghỉ giữa hai lô; false nếu thread bị ngắt (dừng job)
+    private boolean pause() {
+        if (pauseMs <= 0) return true;
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
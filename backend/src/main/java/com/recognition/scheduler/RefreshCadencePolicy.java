@@ -0,0 +1,68 @@
+package com.recognition.scheduler;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.*;
+
+/**
+ * Chọn chu kỳ làm mới giá cho từng asset:
+ * ngoài giờ giao dịch sàn Mỹ dùng chu kỳ dài nhất; trong giờ thì asset được nhiều người theo dõi
+ * hoặc biến động mạnh được làm mới dày hơn.
+ */
+@Component
+public class RefreshCadencePolicy {
+
+    private static final ZoneId MARKET_ZONE = ZoneId.of("America/New_York");
+    private static final LocalTime MARKET_OPEN = LocalTime.of(9, 30);
+    private static final LocalTime MARKET_CLOSE = LocalTime.of(16, 0);
+
+    private static final int HOT_WATCHERS = 5;
+    private static final BigDecimal HOT_CHANGE_PERCENT = BigDecimal.valueOf(3);
+    private static final BigDecimal WARM_CHANGE_PERCENT = BigDecimal.ONE;
+
+    private final Duration hotInterval;
+    private final Duration warmInterval;
+    private final Duration coldInterval;
+    private final Duration closedInterval;
+
+    public RefreshCadencePolicy(@Value("${price.refresh.interval.hot:PT1M}") Duration hotInterval,
+                                @Value("${price.refresh.interval.warm:PT5M}") Duration warmInterval,
+                                @Value("${price.refresh.interval.cold:PT15M}") Duration coldInterval,
+                                @Value("${price.refresh.interval.closed:PT1H}") Duration closedInterval) {
+        this.hotInterval = hotInterval;
+        this.warmInterval = warmInterval;
+        this.coldInterval = coldInterval;
+        this.closedInterval = closedInterval;
+    }
+
+    /**
+     * @param watchers      số watchlist đang theo dõi asset
+     * @param changePercent % thay đổi của giá mới nhất (null nếu chưa có)
+     */
+    public Duration intervalFor(int watchers, BigDecimal changePercent, Instant now) {
+        if (!isMarketOpen(now)) {
+            return closedInterval;
+        }
+        BigDecimal absChange = changePercent != null ? changePercent.abs() : BigDecimal.ZERO;
+        if (watchers >= HOT_WATCHERS || absChange.compareTo(HOT_CHANGE_PERCENT) >= 0) {
+            return hotInterval;
+        }
+        if (watchers > 0 || absChange.compareTo(WARM_CHANGE_PERCENT) >= 0) {
+            return warmInterval;
+        }
+        return coldInterval;
+    }
+
+    // Phiên chính sàn Mỹ, thứ 2 - thứ 6 (không tính ngày lễ)
+    public boolean isMarketOpen(Instant now) {
+        ZonedDateTime t = now.atZone(MARKET_ZONE);
+        DayOfWeek day = t.getDayOfWeek();
+        if (day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY) {
+            return false;
+        }
+        LocalTime time = t.toLocalTime();
+        return !time.isBefore(MARKET_OPEN) && time.isBefore(MARKET_CLOSE);
+    }
+}
@@ -0,0 +1,73 @@
+package com.recognition.scheduler;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timing wheel: mỗi slot ứng với một tick, phần tử có hạn xa hơn một vòng
+ * nằm chung slot và chỉ được trả ra khi tới đúng tick hạn của nó.
+ * Đặt lịch O(1), mỗi tick chỉ duyệt một slot. Không thread-safe: người gọi tự đồng bộ.
+ */
+public final class TimingWheel<T> {
+
+    @FunctionalInterface
+    public interface DueConsumer<T> {
+        void accept(T item, long dueAtMillis);
+    }
+
+    private record Entry<T>(T item, long deadlineTick) {
+    }
+
+    private final long tickMillis;
+    private final long originMillis;
+    private final List<List<Entry<T>>> slots;
+
+    private long currentTick;
+    private int size;
+
+    public TimingWheel(long tickMillis, int slotCount, long originMillis) {
+        if (tickMillis <= 0 || slotCount <= 0) {
+            throw new IllegalArgumentException("tickMillis and slotCount must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.originMillis = originMillis;
+        this.slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    // Đặt lịch tại thời điểm tuyệt đối; thời điểm đã qua được đẩy sang tick kế tiếp
+    public void scheduleAt(T item, long dueAtMillis) {
+        long deadline = Math.max(currentTick + 1, Math.ceilDiv(dueAtMillis - originMillis, tickMillis));
+        slots.get((int) (deadline % slots.size())).add(new Entry<>(item, deadline));
+        size++;
+    }
+
+    /**
+     * Tiến kim tới {@code nowMillis}, trả về (qua consumer) mọi phần tử đã tới hạn.
+     * Nếu lần gọi trước bị trễ, các tick bị lỡ được xử lý bù theo thứ tự.
+     */
+    public void advanceTo(long nowMillis, DueConsumer<T> consumer) {
+        long targetTick = Math.floorDiv(nowMillis - originMillis, tickMillis);
+        // Trễ hơn một vòng thì duyệt mỗi slot đúng một lần là đủ
+        long from = Math.max(currentTick + 1, targetTick - slots.size() + 1);
+        for (long tick = from; tick <= targetTick; tick++) {
+            Iterator<Entry<T>> it = slots.get((int) (tick % slots.size())).iterator();
+            while (it.hasNext()) {
+                Entry<T> entry = it.next();
+                if (entry.deadlineTick() <= targetTick) {
+                    it.remove();
+                    size--;
+                    consumer.accept(entry.item(), originMillis + entry.deadlineTick() * tickMillis);
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, targetTick);
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -1,7 +1,6 @@
 package com.recognition.security;
 
-import com.recognition.entity.Users;
-import com.recognition.repository.UserRepository;
+import com.recognition.security.UserPrincipalCache.CachedPrincipal;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -14,19 +13,21 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.List;
-import java.util.UUID;
+import java.util.Locale;
 
 /**
  * Filter validates JWT from Authorization header and sets Authentication in SecurityContext.
+ * The token is parsed once; the user's existence and current role come from {@link UserPrincipalCache},
+ * so a warm request needs no database query.
  */
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
-    private final UserRepository userRepository;
+    private final UserPrincipalCache principalCache;
 
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserRepository userRepository) {
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserPrincipalCache principalCache) {
         this.tokenProvider = tokenProvider;
-        this.userRepository = userRepository;
+        this.principalCache = principalCache;
     }
 
     @Override
@@ -35,20 +36,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     FilterChain filterChain) throws ServletException, IOException {
 
         String jwt = getJwtFromRequest(request);
-        if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-            UUID userId = tokenProvider.getUserIdFromToken(jwt);
-            Users user = userRepository.findById(userId).orElse(null);
-            if (user != null) {
-                String role = user.getRole() != null ? user.getRole().toUpperCase() : "USER";
-                List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role));
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(userId, null, authorities);
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-            }
+        if (StringUtils.hasText(jwt)) {
+            tokenProvider.parse(jwt).ifPresent(this::authenticate);
         }
         filterChain.doFilter(request, response);
     }
 
+    private void authenticate(JwtClaims claims) {
+        CachedPrincipal principal = principalCache.get(claims.userId());
+        if (!principal.exists()) return;
+
+        // Cached role reflects the DB so a role change applies before old tokens expire; token claim is the fallback
+        String role = principal.role() != null ? principal.role() : claims.role();
+        role = role != null ? role.toUpperCase(Locale.ROOT) : "USER";
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role));
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(claims.userId(), null, authorities);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String auth = request.getHeader("Authorization");
         if (StringUtils.hasText(auth) && auth.startsWith("Bearer ")) {
@@ -0,0 +1,17 @@
+package com.recognition.security;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Claims of a verified JWT, extracted from a single parse.
+ * {@code tokenId} is the jti, or a hash of the token for tokens issued without one; it keys revocations.
+ */
+public record JwtClaims(
+        UUID userId,
+        String role,
+        UUID tokenId,
+        Instant issuedAt,
+        Instant expiresAt
+) {
+}
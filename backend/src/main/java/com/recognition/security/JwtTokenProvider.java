@@ -2,19 +2,24 @@ package com.recognition.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * JWT token helper: create, validate, parse user id & role.
- * Supports in-memory blacklist for invalidated tokens.
+ * Invalidated tokens are recorded by id (jti) in {@link TokenRevocationStore} until they expire.
  * Constructor added for test-friendly instantiation.
+ * The signing parser is built once; {@link #parse(String)} verifies a token and reads all claims in one pass.
  */
 @Component
 public class JwtTokenProvider {
@@ -26,15 +31,19 @@ public class JwtTokenProvider {
     private long jwtExpirationMs;
 
     private Key key;
+    private JwtParser parser;
 
-    // token -> expiry
-    private final Map<String, Long> blacklist = new ConcurrentHashMap<>();
+    private final TokenRevocationStore revocationStore;
 
-    /** Default constructor for Spring */
-    public JwtTokenProvider() {}
+    /** Constructor for Spring */
+    @Autowired
+    public JwtTokenProvider(TokenRevocationStore revocationStore) {
+        this.revocationStore = revocationStore;
+    }
 
-    /** Test-friendly constructor */
+    /** Test-friendly constructor (in-memory revocations) */
     public JwtTokenProvider(String secret, long expirationMs) {
+        this.revocationStore = TokenRevocationStore.inMemory();
         this.jwtSecret = secret;
         this.jwtExpirationMs = expirationMs;
         init();
@@ -46,12 +55,14 @@ public class JwtTokenProvider {
             jwtSecret = "defaultSecretChangeMePleaseChangeInProd1234567890";
         }
         this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
     }
 
     public String createToken(UUID userId, String role) {
         Instant now = Instant.now();
         Instant exp = now.plusMillis(jwtExpirationMs);
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userId.toString())
                 .setIssuedAt(Date.from(now))
                 .setExpiration(Date.from(exp))
@@ -60,44 +71,74 @@ public class JwtTokenProvider {
                 .compact();
     }
 
-    public boolean validateToken(String token) {
+    /**
+     * Verify signature, expiry and revocation, then return all claims; empty if the token is not usable.
+     */
+    public Optional<JwtClaims> parse(String token) {
         try {
-            if (isBlacklisted(token)) return false;
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
-            return true;
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            Instant expiresAt = revocationExpiry(claims);
+            if (expiresAt == null) return Optional.empty();
+
+            UUID tokenId = tokenId(claims, token);
+            if (revocationStore.isRevoked(tokenId, expiresAt)) return Optional.empty();
+
+            Object role = claims.get("role");
+            return Optional.of(new JwtClaims(
+                    UUID.fromString(claims.getSubject()),
+                    role != null ? role.toString() : null,
+                    tokenId,
+                    claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                    expiresAt));
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return Optional.empty();
         }
     }
 
-    public UUID getUserIdFromToken(String token) {
-        Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
-        return UUID.fromString(claims.getSubject());
-    }
-
-    public String getRoleFromToken(String token) {
-        Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
-        Object role = claims.get("role");
-        return role != null ? role.toString() : null;
+    public boolean validateToken(String token) {
+        return parse(token).isPresent();
     }
 
+    // Tokens that fail verification (bad signature, already expired) are unusable and need no entry
     public void invalidateToken(String token) {
         try {
-            Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
-            Date exp = claims.getExpiration();
-            blacklist.put(token, exp != null ? exp.getTime() : Instant.now().plusMillis(jwtExpirationMs).toEpochMilli());
-        } catch (JwtException ignored) {
-            blacklist.put(token, Instant.now().plusMillis(60000).toEpochMilli());
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            Instant expiresAt = revocationExpiry(claims);
+            if (expiresAt != null) {
+                revocationStore.revoke(tokenId(claims, token), expiresAt);
+            }
+        } catch (JwtException | IllegalArgumentException ignored) {
+            // nothing to revoke
         }
     }
 
-    private boolean isBlacklisted(String token) {
-        Long expiry = blacklist.get(token);
-        if (expiry == null) return false;
-        if (expiry < System.currentTimeMillis()) {
-            blacklist.remove(token);
-            return false;
+    // How long a revocation must be kept: the token's exp, or iat + lifetime for tokens without exp
+    private Instant revocationExpiry(Claims claims) {
+        if (claims.getExpiration() != null) return claims.getExpiration().toInstant();
+        if (claims.getIssuedAt() != null) return claims.getIssuedAt().toInstant().plusMillis(jwtExpirationMs);
+        return null;
+    }
+
+    /**
+     * The jti when it is a UUID, otherwise the first 128 bits of SHA-256 over the jti or the whole token
+     * (tokens issued before jti was added).
+     */
+    static UUID tokenId(Claims claims, String token) {
+        String jti = claims.getId();
+        if (jti != null) {
+            try {
+                return UUID.fromString(jti);
+            } catch (IllegalArgumentException ignored) {
+                // not a UUID: hash it below
+            }
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((jti != null ? jti : token).getBytes(StandardCharsets.UTF_8));
+            ByteBuffer buffer = ByteBuffer.wrap(digest);
+            return new UUID(buffer.getLong(), buffer.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
-        return true;
     }
 }
@@ -0,0 +1,199 @@
+package com.recognition.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Revoked token ids, grouped into buckets by token expiry.
+ * A revocation only has to live until the token would have expired anyway, so whole buckets
+ * whose time range has passed are dropped at once; memory is bounded by logouts per token lifetime.
+ * A Bloom filter answers the common "not revoked" case without locking; positives are confirmed
+ * against the single bucket of the token's expiry.
+ * Optionally backed by an append-only file so revocations survive restarts; the file is rewritten
+ * with only live entries when enough of it has expired. If the file cannot be opened the store
+ * stays in memory only.
+ */
+@Slf4j
+@Component
+public class TokenRevocationStore {
+
+    private static final double FALSE_POSITIVE_RATE = 0.001;
+
+    private final long bucketMillis;
+    private final int expectedRevocations;
+    private final Path file;
+
+    // bucket id (expiry / bucketMillis) -> revoked ids expiring in that bucket; guarded by this
+    private final NavigableMap<Long, Set<UUID>> buckets = new TreeMap<>();
+    private volatile BloomFilter bloom;
+    private int size;
+
+    private BufferedWriter writer;
+    private int fileLines;
+
+    public TokenRevocationStore(@Value("${security.revocation.bucket-ms:3600000}") long bucketMillis,
+                                @Value("${security.revocation.expected-revocations:100000}") int expectedRevocations,
+                                @Value("${security.revocation.file:}") String file) {
+        this.bucketMillis = bucketMillis;
+        this.expectedRevocations = expectedRevocations;
+        this.file = file == null || file.isBlank() ? null : Paths.get(file);
+        this.bloom = new BloomFilter(expectedRevocations, FALSE_POSITIVE_RATE);
+    }
+
+    /** In-memory store without persistence (tests, tools). */
+    public static TokenRevocationStore inMemory() {
+        return new TokenRevocationStore(3_600_000, 10_000, null);
+    }
+
+    @PostConstruct
+    public synchronized void load() {
+        if (file == null) return;
+        long now = System.currentTimeMillis();
+        int loaded = 0;
+        try {
+            if (Files.exists(file)) {
+                for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                    fileLines++;
+                    int comma = line.indexOf(',');
+                    if (comma <= 0) continue;
+                    try {
+                        long expiresAt = Long.parseLong(line.substring(0, comma));
+                        if (expiresAt > now && add(UUID.fromString(line.substring(comma + 1)), expiresAt)) loaded++;
+                    } catch (IllegalArgumentException e) {
+                        log.warn("Skipping malformed revocation entry: {}", line);
+                    }
+                }
+            } else if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            compactIfWorthwhile();
+            openWriter();
+        } catch (IOException e) {
+            // A read-only or missing volume must not keep the app from starting; revocations then last until restart
+            log.warn("Cannot open token revocation file {}, keeping revocations in memory only: {}", file, e.toString());
+            close();
+            return;
+        }
+        log.info("Token revocation store loaded {} live entries from {}", loaded, file);
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (writer == null) return;
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.warn("Failed to close token revocation file: {}", e.getMessage());
+        }
+        writer = null;
+    }
+
+    /**
+     * Revoke a token id until {@code expiresAt}; tokens already expired need no entry.
+     */
+    public synchronized void revoke(UUID tokenId, Instant expiresAt) {
+        long expiry = expiresAt.toEpochMilli();
+        if (expiry <= System.currentTimeMillis()) return;
+        if (!add(tokenId, expiry) || writer == null) return;
+        try {
+            writer.write(expiry + "," + tokenId);
+            writer.newLine();
+            writer.flush();
+            fileLines++;
+        } catch (IOException e) {
+            log.warn("Failed to persist token revocation {}: {}", tokenId, e.getMessage());
+        }
+    }
+
+    public boolean isRevoked(UUID tokenId, Instant expiresAt) {
+        if (!bloom.mightContain(tokenId)) return false;
+        long bucket = Math.floorDiv(expiresAt.toEpochMilli(), bucketMillis);
+        synchronized (this) {
+            Set<UUID> ids = buckets.get(bucket);
+            return ids != null && ids.contains(tokenId);
+        }
+    }
+
+    /**
+     * Drop every bucket whose whole range has expired, then rebuild the Bloom filter from what is left
+     * (a Bloom filter cannot forget) and compact the backing file if it is mostly dead.
+     */
+    @Scheduled(fixedDelayString = "${security.revocation.purge-ms:60000}")
+    public synchronized void purgeExpired() {
+        long firstLiveBucket = Math.floorDiv(System.currentTimeMillis(), bucketMillis);
+        SortedMap<Long, Set<UUID>> expired = buckets.headMap(firstLiveBucket);
+        if (expired.isEmpty()) return;
+
+        int dropped = 0;
+        for (Set<UUID> ids : expired.values()) dropped += ids.size();
+        expired.clear();
+        size -= dropped;
+        rebuildBloom();
+        try {
+            compactIfWorthwhile();
+        } catch (IOException e) {
+            log.warn("Failed to compact token revocation file: {}", e.getMessage());
+        }
+        log.debug("Purged {} expired token revocations, {} remain", dropped, size);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // Caller holds the lock
+    private boolean add(UUID tokenId, long expiresAt) {
+        boolean added = buckets.computeIfAbsent(Math.floorDiv(expiresAt, bucketMillis), k -> new HashSet<>())
+                .add(tokenId);
+        if (added) {
+            size++;
+            bloom.put(tokenId);
+        }
+        return added;
+    }
+
+    private void rebuildBloom() {
+        // Grow when live entries outnumber the planned capacity, to hold the false-positive rate
+        BloomFilter fresh = new BloomFilter(Math.max(expectedRevocations, size * 2), FALSE_POSITIVE_RATE);
+        for (Set<UUID> ids : buckets.values()) ids.forEach(fresh::put);
+        bloom = fresh;
+    }
+
+    // Rewrite the file with live entries only, once at least half of it is expired
+    private void compactIfWorthwhile() throws IOException {
+        if (file == null || fileLines < 1_000 || fileLines < size * 2) return;
+
+        boolean reopen = writer != null;
+        close();
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<Long, Set<UUID>> bucket : buckets.entrySet()) {
+                // Exact expiry is not kept in memory; the last instant of the bucket maps back to the same bucket
+                long expiry = (bucket.getKey() + 1) * bucketMillis - 1;
+                for (UUID id : bucket.getValue()) {
+                    out.write(expiry + "," + id);
+                    out.newLine();
+                }
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        fileLines = size;
+        if (reopen) openWriter();
+    }
+
+    private void openWriter() throws IOException {
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+    }
+}
@@ -0,0 +1,93 @@
+package com.recognition.security;
+
+import com.recognition.entity.Users;
+import com.recognition.repository.UserRepository;
+import com.recognition.util.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bounded LRU cache of authenticated users (id -> role) with a TTL.
+ * Lets the JWT filter authenticate without a database round trip; a miss costs one lookup.
+ * Entries must be invalidated whenever a user's role changes or the user is removed.
+ */
+@Component
+public class UserPrincipalCache {
+
+    /**
+     * Cached view of a user; {@code exists == false} caches a lookup miss so forged-but-signed ids don't hit the DB.
+     */
+    public record CachedPrincipal(UUID userId, String role, boolean exists, long loadedAtMillis) {
+    }
+
+    private final UserRepository userRepository;
+    private final long ttlMillis;
+    private final Map<UUID, CachedPrincipal> entries;
+
+    public UserPrincipalCache(UserRepository userRepository,
+                              @Value("${security.principal-cache.ttl-ms:300000}") long ttlMillis,
+                              @Value("${security.principal-cache.max-size:10000}") int maxSize) {
+        this.userRepository = userRepository;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, CachedPrincipal> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public CachedPrincipal get(UUID userId) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            CachedPrincipal cached = entries.get(userId);
+            if (cached != null && now - cached.loadedAtMillis() < ttlMillis) {
+                return cached;
+            }
+        }
+
+        // Load outside the lock; concurrent misses for the same user at worst load it twice
+        CachedPrincipal loaded = userRepository.findById(userId)
+                .map(user -> toPrincipal(user, now))
+                .orElseGet(() -> new CachedPrincipal(userId, null, false, now));
+        synchronized (entries) {
+            entries.put(userId, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Drop a user's entry now and again once the surrounding transaction commits,
+     * so a request racing the update cannot re-cache the old row.
+     */
+    public void invalidate(UUID userId) {
+        evict(userId);
+        AfterCommit.run(() -> evict(userId));
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void evict(UUID userId) {
+        synchronized (entries) {
+            entries.remove(userId);
+        }
+    }
+
+    private static CachedPrincipal toPrincipal(Users user, long now) {
+        return new CachedPrincipal(user.getId(), user.getRole(), true, now);
+    }
+}
@@ -1,5 +1,6 @@
 package com.recognition.service;
 
+import com.recognition.dto.AssetSearchResult;
 import com.recognition.entity.Asset;
 import com.recognition.entity.Price;
 
@@ -16,7 +17,8 @@ public interface AssetService {
 
     boolean existsBySymbol(String symbol);
 
-    List<Asset> searchAssets(String query);
+    // Tìm theo symbol/tên trên chỉ mục trong bộ nhớ, tối đa limit kết quả đã xếp hạng
+    List<AssetSearchResult> searchAssets(String query, int limit);
 
     // Xóa asset + các giá liên quan
     void deleteAsset(UUID assetId);
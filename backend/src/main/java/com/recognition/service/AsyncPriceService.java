@@ -1,48 +1,274 @@
 package com.recognition.service;
 
-import lombok.RequiredArgsConstructor;
+import com.recognition.entity.Asset;
+import com.recognition.entity.RefreshJob;
+import com.recognition.entity.RefreshJobStatus;
+import com.recognition.entity.RefreshJobStep;
+import com.recognition.repository.AssetRepository;
+import com.recognition.repository.RefreshJobRepository;
+import com.recognition.repository.RefreshJobStepRepository;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Job làm mới giá toàn bộ asset active, chạy trên pool worker giới hạn (refreshJobExecutor).
+ * Trạng thái job và từng bước được lưu DB: mỗi lô symbol được ghi giá, ghi step và cập nhật
+ * lastSymbol trong cùng một transaction, nên sau khi khởi động lại job chạy tiếp từ mã kế tiếp.
+ * Tiến độ của job đang chạy được đọc từ bộ đếm trong bộ nhớ, job đã xong đọc từ DB.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class AsyncPriceService {
 
+    private static final EnumSet<RefreshJobStatus> RESUMABLE = EnumSet.of(RefreshJobStatus.QUEUED, RefreshJobStatus.RUNNING);
+
     private final PriceService priceService;
+    private final AssetRepository assetRepository;
+    private final RefreshJobRepository jobRepository;
+    private final RefreshJobStepRepository stepRepository;
+    private final ThreadPoolTaskExecutor executor;
+    private final TransactionTemplate txTemplate;
+
+    // Chỉ chứa job đang chờ/chạy trên node này; bị xoá khi job kết thúc
+    private final Map<UUID, Progress> active = new ConcurrentHashMap<>();
+
+    @Value("${price.job.chunk-size:25}")
+    private int chunkSize;
 
-    // Bộ nhớ tạm lưu trạng thái tiến trình (jobId -> status)
-    private final Map<String, Map<String, Object>> jobStatus = new ConcurrentHashMap<>();
+    private static final class Progress {
+        volatile RefreshJobStatus status = RefreshJobStatus.QUEUED;
+        volatile int total;
+        volatile int processed;
+        volatile int updated;
+        volatile int failed;
+        volatile String lastSymbol;
+        volatile boolean cancelRequested;
+    }
+
+    public AsyncPriceService(PriceService priceService,
+                             AssetRepository assetRepository,
+                             RefreshJobRepository jobRepository,
+                             RefreshJobStepRepository stepRepository,
+                             @Qualifier("refreshJobExecutor") ThreadPoolTaskExecutor executor,
+                             PlatformTransactionManager transactionManager) {
+        this.priceService = priceService;
+        this.assetRepository = assetRepository;
+        this.jobRepository = jobRepository;
+        this.stepRepository = stepRepository;
+        this.executor = executor;
+        this.txTemplate = new TransactionTemplate(transactionManager);
+    }
 
+    // Tạo job và đưa vào pool; trả về ngay, không giữ thread của request
     public String startJob() {
-        String jobId = UUID.randomUUID().toString();
-        jobStatus.put(jobId, Map.of("status", "RUNNING", "progress", 0));
-        runJobAsync(jobId);
-        return jobId;
+        RefreshJob job = jobRepository.save(RefreshJob.builder()
+                .status(RefreshJobStatus.QUEUED)
+                .totalSymbols((int) assetRepository.countByIsActiveTrue())
+                .build());
+        submit(job);
+        return job.getId().toString();
+    }
+
+    public Map<String, Object> getJobStatus(String jobId) {
+        UUID id = parseId(jobId);
+        if (id == null) {
+            return Map.of("status", "NOT_FOUND");
+        }
+
+        Progress live = active.get(id);
+        if (live != null) {
+            return toStatus(id, live.status, live.total, live.processed, live.updated, live.failed,
+                    live.lastSymbol, null);
+        }
+        return jobRepository.findById(id)
+                .map(job -> toStatus(id, job.getStatus(), job.getTotalSymbols(), job.getProcessedSymbols(),
+                        job.getUpdatedCount(), job.getFailedCount(), job.getLastSymbol(), job.getErrorMessage()))
+                .orElse(Map.of("status", "NOT_FOUND"));
+    }
+
+    /**
+     * Yêu cầu huỷ job; job đang chạy dừng sau lô hiện tại (các lô đã commit được giữ lại).
+     * Trả về false nếu job không tồn tại hoặc đã kết thúc.
+     */
+    public boolean cancelJob(String jobId) {
+        UUID id = parseId(jobId);
+        if (id == null) return false;
+
+        Progress live = active.get(id);
+        if (live != null) {
+            live.cancelRequested = true;
+            return true;
+        }
+        // Job chưa được node này nhận (vd. còn QUEUED từ trước khi khởi động lại)
+        return Boolean.TRUE.equals(txTemplate.execute(status -> jobRepository.findById(id)
+                .filter(job -> !job.getStatus().isFinished())
+                .map(job -> {
+                    finish(job, RefreshJobStatus.CANCELLED, null);
+                    return true;
+                })
+                .orElse(false)));
+    }
+
+    // Chạy tiếp các job còn dở khi ứng dụng khởi động lại
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        List<RefreshJob> unfinished = jobRepository.findByStatusInOrderByCreatedAtAsc(RESUMABLE);
+        for (RefreshJob job : unfinished) {
+            log.info("Resuming refresh job {} after symbol {}", job.getId(), job.getLastSymbol());
+            submit(job);
+        }
+    }
+
+    private void submit(RefreshJob job) {
+        Progress progress = new Progress();
+        progress.total = job.getTotalSymbols();
+        progress.processed = job.getProcessedSymbols();
+        progress.updated = job.getUpdatedCount();
+        progress.failed = job.getFailedCount();
+        progress.lastSymbol = job.getLastSymbol();
+        active.put(job.getId(), progress);
+
+        try {
+            executor.execute(() -> run(job.getId(), progress));
+        } catch (TaskRejectedException e) {
+            active.remove(job.getId());
+            txTemplate.executeWithoutResult(status -> jobRepository.findById(job.getId())
+                    .ifPresent(j -> finish(j, RefreshJobStatus.FAILED, "Job queue is full")));
+            log.warn("Refresh job {} rejected: worker queue is full", job.getId());
+        }
     }
 
-    @Async
-    public void runJobAsync(String jobId) {
+    private void run(UUID jobId, Progress progress) {
         try {
-            log.info("Async job {} started", jobId);
-            Map<String, Object> result = priceService.fetchAndSaveAllPricesFromFinnhub();
-            jobStatus.put(jobId, Map.of(
-                    "status", "DONE",
-                    "result", result
-            ));
-            log.info("Async job {} finished", jobId);
+            RefreshJob started = txTemplate.execute(status -> {
+                RefreshJob job = jobRepository.findById(jobId).orElse(null);
+                if (job == null || job.getStatus().isFinished()) return null;
+                job.setStatus(RefreshJobStatus.RUNNING);
+                if (job.getStartedAt() == null) job.setStartedAt(OffsetDateTime.now());
+                // Tổng = đã xử lý + còn lại, tính lại khi chạy tiếp vì danh sách asset có thể đã đổi
+                long remaining = job.getLastSymbol() == null
+                        ? assetRepository.countByIsActiveTrue()
+                        : assetRepository.countByIsActiveTrueAndSymbolGreaterThan(job.getLastSymbol());
+                job.setTotalSymbols(job.getProcessedSymbols() + (int) remaining);
+                return job;
+            });
+            if (started == null) return;
+
+            progress.status = RefreshJobStatus.RUNNING;
+            progress.total = started.getTotalSymbols();
+            log.info("Refresh job {} running: {} symbols", jobId, progress.total);
+
+            int stepNo = stepRepository.countByJobId(jobId);
+            while (true) {
+                if (progress.cancelRequested) {
+                    completeJob(jobId, RefreshJobStatus.CANCELLED, null);
+                    log.info("Refresh job {} cancelled after symbol {}", jobId, progress.lastSymbol);
+                    return;
+                }
+
+                List<Asset> chunk = progress.lastSymbol == null
+                        ? assetRepository.findByIsActiveTrueOrderBySymbolAsc(Pageable.ofSize(chunkSize))
+                        : assetRepository.findByIsActiveTrueAndSymbolGreaterThanOrderBySymbolAsc(
+                                progress.lastSymbol, Pageable.ofSize(chunkSize));
+                if (chunk.isEmpty()) break;
+
+                runStep(jobId, ++stepNo, chunk, progress);
+            }
+
+            completeJob(jobId, RefreshJobStatus.DONE, null);
+            log.info("Refresh job {} finished: {} updated, {} failed", jobId, progress.updated, progress.failed);
         } catch (Exception e) {
-            jobStatus.put(jobId, Map.of("status", "FAILED", "error", e.getMessage()));
-            log.error("Async job {} failed: {}", jobId, e.getMessage());
+            log.error("Refresh job {} failed: {}", jobId, e.getMessage());
+            completeJob(jobId, RefreshJobStatus.FAILED, e.getMessage());
+        } finally {
+            active.remove(jobId);
         }
     }
 
-    public Map<String, Object> getJobStatus(String jobId) {
-        return jobStatus.getOrDefault(jobId, Map.of("status", "NOT_FOUND"));
+    // Một lô: ghi giá + step + tiến độ job trong một transaction
+    private void runStep(UUID jobId, int stepNo, List<Asset> chunk, Progress progress) {
+        long start = System.currentTimeMillis();
+        String firstSymbol = chunk.get(0).getSymbol();
+        String lastSymbol = chunk.get(chunk.size() - 1).getSymbol();
+        List<UUID> ids = chunk.stream().map(Asset::getId).toList();
+
+        int[] counts = txTemplate.execute(status -> {
+            Map<String, Object> result = priceService.refreshPrices(ids);
+            int failed = result.get("failed") instanceof Collection<?> c ? c.size() : 0;
+            int updated = result.get("updated") instanceof Number n ? n.intValue() : 0;
+
+            stepRepository.save(RefreshJobStep.builder()
+                    .jobId(jobId)
+                    .stepNo(stepNo)
+                    .firstSymbol(firstSymbol)
+                    .lastSymbol(lastSymbol)
+                    .symbolCount(chunk.size())
+                    .updatedCount(updated)
+                    .failedCount(failed)
+                    .durationMs(System.currentTimeMillis() - start)
+                    .finishedAt(OffsetDateTime.now())
+                    .build());
+
+            RefreshJob job = jobRepository.findById(jobId).orElseThrow();
+            job.setProcessedSymbols(job.getProcessedSymbols() + chunk.size());
+            job.setUpdatedCount(job.getUpdatedCount() + updated);
+            job.setFailedCount(job.getFailedCount() + failed);
+            job.setLastSymbol(lastSymbol);
+            return new int[]{updated, failed};
+        });
+
+        progress.processed += chunk.size();
+        progress.updated += counts[0];
+        progress.failed += counts[1];
+        progress.lastSymbol = lastSymbol;
     }
-}
 
+    private void completeJob(UUID jobId, RefreshJobStatus status, String error) {
+        txTemplate.executeWithoutResult(tx -> jobRepository.findById(jobId)
+                .ifPresent(job -> finish(job, status, error)));
+    }
+
+    private void finish(RefreshJob job, RefreshJobStatus status, String error) {
+        job.setStatus(status);
+        job.setErrorMessage(error);
+        job.setFinishedAt(OffsetDateTime.now());
+    }
+
+    private static Map<String, Object> toStatus(UUID id, RefreshJobStatus status, int total, int processed,
+                                                int updated, int failed, String lastSymbol, String error) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("jobId", id.toString());
+        result.put("status", status.name());
+        result.put("progress", total > 0 ? Math.min(100, processed * 100 / total) : 0);
+        result.put("totalSymbols", total);
+        result.put("processedSymbols", processed);
+        result.put("updated", updated);
+        result.put("failed", failed);
+        result.put("lastSymbol", lastSymbol);
+        if (error != null) {
+            result.put("error", error);
+        }
+        return result;
+    }
+
+    private static UUID parseId(String jobId) {
+        try {
+            return UUID.fromString(jobId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
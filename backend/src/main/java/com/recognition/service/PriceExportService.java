@@ -0,0 +1,70 @@
+package com.recognition.service;
+
+import com.recognition.export.ColumnarPriceWriter;
+import com.recognition.export.CsvPriceWriter;
+import com.recognition.export.PriceExportFormat;
+import com.recognition.export.PriceRowSink;
+import com.recognition.repository.PriceJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Export lịch sử giá của một asset ra CSV hoặc định dạng cột nhị phân, ghi thẳng từ cursor JDBC
+ * vào output stream của response nên bộ nhớ không đổi dù khoảng thời gian dài bao nhiêu năm.
+ */
+@Slf4j
+@Service
+public class PriceExportService {
+
+    private final PriceJdbcRepository priceJdbcRepository;
+    private final TransactionTemplate readOnlyTx;
+
+    public PriceExportService(PriceJdbcRepository priceJdbcRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.priceJdbcRepository = priceJdbcRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    // Trả về số dòng đã ghi
+    public long export(UUID assetId, OffsetDateTime from, OffsetDateTime to,
+                       PriceExportFormat format, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        long rows;
+        try {
+            rows = switch (format) {
+                case CSV -> {
+                    try (CsvPriceWriter writer = new CsvPriceWriter(out)) {
+                        stream(assetId, from, to, writer);
+                        yield writer.rows();
+                    }
+                }
+                case COLUMNAR -> {
+                    try (ColumnarPriceWriter writer = new ColumnarPriceWriter(out)) {
+                        stream(assetId, from, to, writer);
+                        yield writer.rows();
+                    }
+                }
+            };
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.info("Exported {} prices of asset {} as {} in {} ms",
+                rows, assetId, format, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    // Transaction chỉ để giữ cursor phía server mở trong lúc duyệt
+    private void stream(UUID assetId, OffsetDateTime from, OffsetDateTime to,
+                        PriceRowSink sink) {
+        readOnlyTx.executeWithoutResult(status -> priceJdbcRepository.streamExportRows(assetId, from, to, sink));
+    }
+}
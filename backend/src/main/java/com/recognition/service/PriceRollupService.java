@@ -0,0 +1,147 @@
+package com.recognition.service;
+
+import com.recognition.dto.PriceSnapshot;
+import com.recognition.entity.BarResolution;
+import com.recognition.event.PriceIngestedEvent;
+import com.recognition.repository.PriceBarJdbcRepository;
+import com.recognition.repository.PriceBarJdbcRepository.BucketKey;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Duy trì bảng rollup price_bars (phút/giờ/ngày):
+ * tính lại các bucket bị chạm tới sau mỗi lần ingest và backfill từ lịch sử prices.
+ */
+@Slf4j
+@Service
+public class PriceRollupService {
+
+    private final PriceBarJdbcRepository priceBarJdbcRepository;
+    private final TransactionTemplate requiresNewTx;
+    private final AtomicBoolean backfillRunning = new AtomicBoolean(false);
+
+    // Số ngày dữ liệu gốc xử lý trong mỗi transaction backfill
+    @Value("${price.rollup.backfill-window-days:7}")
+    private int backfillWindowDays;
+
+    // Khi bật retention, dữ liệu gốc cũ hơn raw-days chỉ còn tick sót lại: không dựng lại (ghi đè) bar từ đó
+    @Value("${price.retention.enabled:false}")
+    private boolean retentionEnabled;
+
+    @Value("${price.retention.raw-days:90}")
+    private int retentionRawDays;
+
+    public PriceRollupService(PriceBarJdbcRepository priceBarJdbcRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.priceBarJdbcRepository = priceBarJdbcRepository;
+        this.requiresNewTx = new TransactionTemplate(transactionManager);
+        this.requiresNewTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /*
+     * Chạy sau khi transaction ingest commit, trong transaction riêng để lỗi rollup không làm hỏng ingest.
+     * Các bucket chạm tới được tính lại từ DB chứ không cộng dồn từ event, nên tick bị insert bỏ qua,
+     * event phát lại hay backfill chạy song song đều không đếm trùng.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPriceIngested(PriceIngestedEvent event) {
+        if (event.prices().isEmpty()) return;
+        try {
+            Map<BarResolution, Set<BucketKey>> buckets = affectedBuckets(event.prices());
+            requiresNewTx.executeWithoutResult(status -> buckets.forEach(priceBarJdbcRepository::refreshBuckets));
+        } catch (Exception e) {
+            log.warn("Failed to update price rollups for {} ticks: {}", event.prices().size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Các bucket (asset, bucket_start) bị ảnh hưởng theo từng độ phân giải, theo thứ tự MINUTE → HOUR → DAY
+     * vì mỗi tầng được tính từ tầng mịn hơn.
+     */
+    static Map<BarResolution, Set<BucketKey>> affectedBuckets(List<PriceSnapshot> ticks) {
+        Map<BarResolution, Set<BucketKey>> buckets = new EnumMap<>(BarResolution.class);
+        for (PriceSnapshot tick : ticks) {
+            if (tick.price() == null || tick.timestamp() == null) continue;
+            long epoch = tick.timestamp().toEpochSecond();
+            for (BarResolution resolution : BarResolution.values()) {
+                buckets.computeIfAbsent(resolution, r -> new LinkedHashSet<>())
+                        .add(new BucketKey(tick.assetId(), resolution.bucketStart(epoch)));
+            }
+        }
+        return buckets;
+    }
+
+    // Chạy backfill trên thread nền (gọi từ bean khác để @Async có hiệu lực)
+    @Async
+    public void backfillAsync() {
+        backfill();
+    }
+
+    /**
+     * Dựng lại toàn bộ rollup từ bảng prices theo từng cửa sổ thời gian, mỗi cửa sổ một transaction.
+     * Trả về false nếu đã có một lần backfill đang chạy.
+     */
+    public boolean backfill() {
+        if (!backfillRunning.compareAndSet(false, true)) {
+            log.warn("Price rollup backfill already running, skipping.");
+            return false;
+        }
+
+        try {
+            OffsetDateTime[] range = priceBarJdbcRepository.findPriceTimeRange();
+            if (range == null) {
+                log.info("No price history to backfill.");
+                return true;
+            }
+
+            long start = System.currentTimeMillis();
+            // Căn biên cửa sổ theo ngày để không có bucket nào bị chia đôi giữa hai lần ghi
+            OffsetDateTime from = range[0].withOffsetSameInstant(ZoneOffset.UTC).toLocalDate()
+                    .atStartOfDay().atOffset(ZoneOffset.UTC);
+            if (retentionEnabled) {
+                OffsetDateTime rawCutoff = OffsetDateTime.now(ZoneOffset.UTC).minusDays(retentionRawDays)
+                        .toLocalDate().atStartOfDay().atOffset(ZoneOffset.UTC);
+                if (from.isBefore(rawCutoff)) {
+                    from = rawCutoff;
+                }
+            }
+            OffsetDateTime end = range[1].plusSeconds(1);
+            int total = 0;
+
+            while (from.isBefore(end)) {
+                OffsetDateTime windowStart = from;
+                OffsetDateTime windowEnd = from.plusDays(backfillWindowDays);
+                int written = Objects.requireNonNull(requiresNewTx.execute(status -> {
+                    int n = 0;
+                    for (BarResolution resolution : BarResolution.values()) {
+                        n += priceBarJdbcRepository.backfill(resolution, windowStart, windowEnd);
+                    }
+                    return n;
+                }));
+                total += written;
+                log.info("Rollup backfill {} -> {}: {} bars", windowStart, windowEnd, written);
+                from = windowEnd;
+            }
+
+            log.info("Price rollup backfill finished: {} bars in {} ms", total, System.currentTimeMillis() - start);
+            return true;
+        } finally {
+            backfillRunning.set(false);
+        }
+    }
+
+    public boolean isBackfillRunning() {
+        return backfillRunning.get();
+    }
+}
@@ -2,6 +2,9 @@ package com.recognition.service;
 
 import com.recognition.dto.CandleDTO;
 import com.recognition.dto.PriceDto;
+import com.recognition.dto.QuoteWindow;
+import com.recognition.dto.response.BatchQuoteResponse;
+import com.recognition.dto.response.CursorPage;
 import com.recognition.dto.response.StatisticsDTO;
 import com.recognition.entity.Price;
 import org.springframework.data.domain.Page;
@@ -9,6 +12,7 @@ import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -42,11 +46,31 @@ public interface PriceService {
 
     Page<PriceDto> getPriceHistoryPaged(UUID assetId, OffsetDateTime startDate, OffsetDateTime endDate, Pageable pageable);
 
+    /**
+     * Lịch sử giá phân trang theo cursor (keyset), không đếm tổng; cursor null là trang đầu.
+     */
+    CursorPage<PriceDto> getPriceHistoryCursor(UUID assetId, OffsetDateTime startDate, OffsetDateTime endDate,
+                                               String cursor, int limit, boolean ascending);
+
+    /**
+     * Giá mới nhất và % thay đổi theo từng cửa sổ cho nhiều asset (theo id, symbol và/hoặc watchlist của user)
+     * trong một lần gọi; watchlistUserId null thì không lấy watchlist.
+     */
+    BatchQuoteResponse getBatchQuotes(Collection<UUID> assetIds, Collection<String> symbols,
+                                      UUID watchlistUserId, List<QuoteWindow> windows);
+
     // -------------------------
     /**
      * Lấy dữ liệu nến (candle) theo asset, interval và limit.
      */
-    List<CandleDTO> getCandles(UUID assetId, String interval, int limit);
+    default List<CandleDTO> getCandles(UUID assetId, String interval, int limit) {
+        return getCandles(assetId, interval, null, limit);
+    }
+
+    /**
+     * Lấy dữ liệu nến với độ phân giải bucket (1m/5m/1h/1d); resolution null dùng mặc định theo interval.
+     */
+    List<CandleDTO> getCandles(UUID assetId, String interval, String resolution, int limit);
 
     /**
      * Tính toán thống kê giá theo range (day/week/month).
@@ -54,4 +78,9 @@ public interface PriceService {
     StatisticsDTO getStatistics(UUID assetId, String range);
 
     Map<String, Object> fetchAndSaveAllPricesFromFinnhub();
+
+    /**
+     * Làm mới giá cho một tập asset (bỏ qua asset không còn active), mỗi asset một request /quote.
+     */
+    Map<String, Object> refreshPrices(Collection<UUID> assetIds);
 }
@@ -1,25 +1,37 @@
 package com.recognition.service.impl;
 
+import com.recognition.cache.AssetSearchIndex;
+import com.recognition.cache.AssetSymbolRegistry;
+import com.recognition.cache.LatestPriceCache;
+import com.recognition.cache.TopMoversIndex;
 import com.recognition.client.FinnhubClient;
+import com.recognition.client.MarketSymbol;
+import com.recognition.client.Quote;
+import com.recognition.client.StockMetrics;
+import com.recognition.dto.AssetSearchResult;
 import com.recognition.dto.PriceDto;
+import com.recognition.dto.PriceSnapshot;
 import com.recognition.entity.Asset;
 import com.recognition.entity.Price;
+import com.recognition.event.PriceIngestedEvent;
 import com.recognition.exception.ResourceNotFoundException;
 import com.recognition.repository.AssetRepository;
+import com.recognition.repository.PriceBarRepository;
 import com.recognition.repository.PriceRepository;
 import com.recognition.service.AssetService;
 import com.recognition.service.PriceService;
+import com.recognition.util.AfterCommit;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.Instant;
 import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
 import java.util.*;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -29,8 +41,14 @@ public class AssetServiceImpl implements AssetService {
 
     private final AssetRepository assetRepository;
     private final PriceRepository priceRepository;
+    private final PriceBarRepository priceBarRepository;
     private final FinnhubClient finnhubClient;
     private final PriceService priceService;
+    private final LatestPriceCache latestPriceCache;
+    private final AssetSearchIndex assetSearchIndex;
+    private final AssetSymbolRegistry assetSymbolRegistry;
+    private final TopMoversIndex topMoversIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public List<Asset> getAllAssets() {
@@ -39,15 +57,11 @@ public class AssetServiceImpl implements AssetService {
 
     @Override
     public Map<String, Object> getAssetOverview(String code) {
-        // Tìm asset trong DB
-        Asset asset;
-        if (code.matches("^[0-9a-fA-F\\-]{36}$")) {
-            asset = assetRepository.findById(UUID.fromString(code))
-                    .orElseThrow(() -> new ResourceNotFoundException("Asset not found (id): " + code));
-        } else {
-            asset = assetRepository.findBySymbolIgnoreCase(code)
-                    .orElseThrow(() -> new ResourceNotFoundException("Asset not found (symbol): " + code));
-        }
+        // Phân giải id/symbol trong bộ nhớ; mã không tồn tại không tốn truy vấn nào
+        UUID assetId = assetSymbolRegistry.resolve(code)
+                .orElseThrow(() -> new ResourceNotFoundException("Asset not found: " + code));
+        Asset asset = assetRepository.findById(assetId)
+                .orElseThrow(() -> new ResourceNotFoundException("Asset not found (id): " + code));
 
         // Tạo map kết quả cơ bản
         Map<String, Object> result = new LinkedHashMap<>();
@@ -59,20 +73,18 @@ public class AssetServiceImpl implements AssetService {
         result.put("createdAt", asset.getCreatedAt());
         result.put("updatedAt", asset.getUpdatedAt());
 
-        // Lấy bản ghi giá mới nhất
-        Price latestPrice = priceRepository
-                .findTopByAssetOrderByTimestampDesc(asset)
-                .orElse(null);
+        // Lấy bản ghi giá mới nhất (từ cache)
+        PriceSnapshot latestPrice = latestPriceCache.find(asset.getId()).orElse(null);
 
         if (latestPrice != null) {
-            result.put("currentPrice", latestPrice.getPrice());
-            result.put("changePercent", latestPrice.getChangePercent());
-            result.put("volume", latestPrice.getVolume());
-            result.put("high24h", latestPrice.getHigh24h());
-            result.put("low24h", latestPrice.getLow24h());
-            result.put("marketCap", latestPrice.getMarketCap());
-            result.put("timestamp", latestPrice.getTimestamp());
-            result.put("source", latestPrice.getSource());
+            result.put("currentPrice", latestPrice.price());
+            result.put("changePercent", latestPrice.changePercent());
+            result.put("volume", latestPrice.volume());
+            result.put("high24h", latestPrice.high24h());
+            result.put("low24h", latestPrice.low24h());
+            result.put("marketCap", latestPrice.marketCap());
+            result.put("timestamp", latestPrice.timestamp());
+            result.put("source", latestPrice.source());
         } else {
             result.put("currentPrice", null);
             result.put("source", "Database (no price yet)");
@@ -92,15 +104,16 @@ public class AssetServiceImpl implements AssetService {
 
     @Override
     public boolean existsBySymbol(String symbol) {
-        return assetRepository.existsBySymbol(symbol);
+        return assetSymbolRegistry.containsSymbol(symbol);
     }
 
     @Override
-    public List<Asset> searchAssets(String query) {
+    @Transactional(readOnly = true)
+    public List<AssetSearchResult> searchAssets(String query, int limit) {
         if (query == null || query.trim().isEmpty()) {
             return Collections.emptyList();
         }
-        return assetRepository.findBySymbolContainingIgnoreCaseOrNameContainingIgnoreCase(query, query);
+        return assetSearchIndex.search(query, limit);
     }
 
     @Override
@@ -114,9 +127,14 @@ public class AssetServiceImpl implements AssetService {
             }
 
             priceRepository.deleteAllByAssetId(assetId);
+            priceBarRepository.deleteAllByAssetId(assetId);
             log.info("Deleted all prices linked to asset {}", assetId);
 
             assetRepository.deleteById(assetId);
+            AfterCommit.run(() -> latestPriceCache.evict(assetId));
+            AfterCommit.run(() -> topMoversIndex.evict(assetId));
+            assetSearchIndex.removeAfterCommit(assetId);
+            assetSymbolRegistry.unregisterAfterCommit(assetId);
             log.info("Asset deleted successfully: {}", assetId);
 
         } catch (DataIntegrityViolationException e) {
@@ -131,23 +149,19 @@ public class AssetServiceImpl implements AssetService {
     @Override
     @Transactional
     public List<Map<String, Object>> fetchNewMarketStocks(int limit) {
-        List<Map<String, Object>> response = finnhubClient.fetchMarketSymbols("US");
+        // Đọc streaming, dừng khi đã đủ `limit` mã chưa có trong DB
+        List<MarketSymbol> newStocks = finnhubClient.fetchMarketSymbols("US",
+                stock -> !assetSymbolRegistry.containsSymbol(stock.symbol()), limit);
 
-        if (response == null || response.isEmpty()) {
-            log.warn("Finnhub returned empty stock list.");
+        if (newStocks.isEmpty()) {
+            log.warn("Finnhub returned no new stocks.");
             return Collections.emptyList();
         }
 
-        List<Map<String, Object>> newStocks = response.stream()
-                .filter(stock -> stock.get("symbol") != null)
-                .filter(stock -> !assetRepository.existsBySymbol(stock.get("symbol").toString()))
-                .limit(limit)
-                .toList();
-
         List<Map<String, Object>> result = new ArrayList<>();
 
-        for (Map<String, Object> stock : newStocks) {
-            String symbol = stock.get("symbol").toString();
+        for (MarketSymbol stock : newStocks) {
+            String symbol = stock.symbol();
             try {
                 enrichAndSaveStock(stock, symbol, result);
             } catch (Exception ex) {
@@ -159,42 +173,54 @@ public class AssetServiceImpl implements AssetService {
         return result;
     }
 
-    private void enrichAndSaveStock(Map<String, Object> stock, String symbol, List<Map<String, Object>> result) {
-        BigDecimal currentPrice = finnhubClient.fetchPrice(symbol);
-        if (currentPrice == null) {
+    private static void setIfPresent(BigDecimal value, Consumer<BigDecimal> setter) {
+        if (value != null) {
+            setter.accept(value);
+        }
+    }
+
+    private void enrichAndSaveStock(MarketSymbol stock, String symbol, List<Map<String, Object>> result) {
+        Quote quote = finnhubClient.fetchQuote(symbol);
+        if (quote == null) {
             log.warn("No valid price returned for {}", symbol);
             return;
         }
 
-        Map<String, Object> quote = new HashMap<>();
-        quote.put("c", currentPrice);
-        quote.put("h", currentPrice);
-        quote.put("l", currentPrice);
-        quote.put("t", Instant.now().getEpochSecond());
-
-        // Lấy hoặc tạo mới Asset
-        Asset asset = assetRepository.findBySymbol(symbol)
-                .orElseGet(() -> assetRepository.save(
-                        Asset.builder()
-                                .name(stock.getOrDefault("description", symbol).toString())
-                                .symbol(symbol)
-                                .description(stock.getOrDefault("type", "").toString())
-                                .isActive(true)
-                                .build()
-                ));
+        // Lấy hoặc tạo mới Asset; registry có thể chưa kịp thấy asset do instance khác/SQL tay thêm vào,
+        // nên hỏi lại DB trước khi insert để không vi phạm uq_asset_symbol và rollback cả lô
+        Asset asset = assetSymbolRegistry.findIdBySymbol(symbol)
+                .flatMap(assetRepository::findById)
+                .or(() -> assetRepository.findBySymbol(symbol).map(found -> {
+                    assetSymbolRegistry.register(found.getId(), found.getSymbol());
+                    return found;
+                }))
+                .orElseGet(() -> {
+                    Asset created = assetRepository.save(
+                            Asset.builder()
+                                    .name(stock.description() != null ? stock.description() : symbol)
+                                    .symbol(symbol)
+                                    .description(stock.type() != null ? stock.type() : "")
+                                    .isActive(true)
+                                    .build());
+                    assetSearchIndex.putAfterCommit(new AssetSearchResult(
+                            created.getId(), created.getSymbol(), created.getName(), created.getIsActive()));
+                    assetSymbolRegistry.registerAfterCommit(created.getId(), created.getSymbol());
+                    return created;
+                });
 
         // ✅ Lấy thêm metrics từ Finnhub (nếu có)
-        Map<String, Object> metrics = finnhubClient.fetchStockMetrics(symbol);
-        if (metrics != null && !metrics.isEmpty()) {
+        StockMetrics metrics = finnhubClient.fetchStockMetrics(symbol);
+        if (!metrics.isEmpty()) {
             try {
-                asset.setMarketCap(toBigDecimal(metrics.get("marketCapitalization")));
-                asset.setVolume(toBigDecimal(metrics.get("volume")));
-                asset.setSharesOutstanding(toBigDecimal(metrics.get("shareOutstanding")));
-                asset.setPeRatio(toBigDecimal(metrics.get("peNormalizedAnnual")));
-                asset.setPbRatio(toBigDecimal(metrics.get("pbAnnual")));
-                asset.setEvToEbitda(toBigDecimal(metrics.get("evToEbitdaAnnual")));
-                asset.setEps(toBigDecimal(metrics.get("epsAnnual")));
-                asset.setBookValue(toBigDecimal(metrics.get("bookValuePerShareAnnual")));
+                // Chỉ ghi đè chỉ số có trong response, không xoá giá trị đã lưu bằng null
+                setIfPresent(metrics.marketCapitalization(), asset::setMarketCap);
+                setIfPresent(metrics.volume(), asset::setVolume);
+                setIfPresent(metrics.shareOutstanding(), asset::setSharesOutstanding);
+                setIfPresent(metrics.peNormalizedAnnual(), asset::setPeRatio);
+                setIfPresent(metrics.pbAnnual(), asset::setPbRatio);
+                setIfPresent(metrics.evToEbitdaAnnual(), asset::setEvToEbitda);
+                setIfPresent(metrics.epsAnnual(), asset::setEps);
+                setIfPresent(metrics.bookValuePerShareAnnual(), asset::setBookValue);
                 assetRepository.save(asset);
             } catch (Exception e) {
                 log.warn("Error enriching asset metrics for {}: {}", symbol, e.getMessage());
@@ -202,14 +228,12 @@ public class AssetServiceImpl implements AssetService {
         }
 
         // Xử lý timestamp hợp lệ
-        long ts = ((Number) quote.get("t")).longValue();
-        if (ts == 0) {
+        OffsetDateTime timestamp = quote.timestamp();
+        if (timestamp == null) {
             log.warn("Skipping invalid timestamp (0) for {}", symbol);
             return;
         }
 
-        OffsetDateTime timestamp = OffsetDateTime.ofInstant(Instant.ofEpochSecond(ts), ZoneOffset.UTC);
-
         // Kiểm tra trùng khóa
         Optional<Price> existing = priceRepository.findByAssetAndTimestampAndSource(asset, timestamp, "Finnhub");
         if (existing.isPresent()) {
@@ -219,25 +243,34 @@ public class AssetServiceImpl implements AssetService {
 
         Price price = Price.builder()
                 .asset(asset)
-                .price(new BigDecimal(quote.get("c").toString()))
-                .high24h(new BigDecimal(quote.get("h").toString()))
-                .low24h(new BigDecimal(quote.get("l").toString()))
+                .price(quote.price())
+                .high24h(quote.high())
+                .low24h(quote.low())
+                .volume(quote.volume())
                 .timestamp(timestamp)
                 .source("Finnhub")
                 .build();
 
         try {
             priceRepository.save(price);
+            eventPublisher.publishEvent(PriceIngestedEvent.of(PriceSnapshot.from(price)));
         } catch (DataIntegrityViolationException ex) {
             log.warn("Duplicate price ignored for asset {} at {}", asset.getSymbol(), price.getTimestamp());
         }
 
         // Kết quả trả ra
-        Map<String, Object> enriched = new LinkedHashMap<>(stock);
+        Map<String, Object> enriched = new LinkedHashMap<>();
+        enriched.put("symbol", symbol);
+        enriched.put("displaySymbol", stock.displaySymbol());
+        enriched.put("description", stock.description());
+        enriched.put("type", stock.type());
+        enriched.put("currency", stock.currency());
+        enriched.put("mic", stock.mic());
+        enriched.put("figi", stock.figi());
         enriched.put("assetId", asset.getId());
-        enriched.put("price", quote.get("c"));
-        enriched.put("high24h", quote.get("h"));
-        enriched.put("low24h", quote.get("l"));
+        enriched.put("price", price.getPrice());
+        enriched.put("high24h", price.getHigh24h());
+        enriched.put("low24h", price.getLow24h());
         enriched.put("timestamp", price.getTimestamp().toString());
         enriched.put("marketCap", asset.getMarketCap());
         enriched.put("volume", asset.getVolume());
@@ -255,24 +288,4 @@ public class AssetServiceImpl implements AssetService {
         return priceRepository.findById(priceDto.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Price not found after save: " + priceDto.getId()));
     }
-
-    private BigDecimal toBigDecimal(Object value) {
-        if (value == null) return null;
-
-        return switch (value) {
-            case BigDecimal bd -> bd;
-            case Integer i -> BigDecimal.valueOf(i);
-            case Long l -> BigDecimal.valueOf(l);
-            case Float f -> new BigDecimal(Float.toString(f));
-            case Double d -> BigDecimal.valueOf(d);
-            case Number n -> new BigDecimal(n.toString());
-            default -> {
-                try {
-                    yield new BigDecimal(value.toString());
-                } catch (NumberFormatException e) {
-                    yield null;
-                }
-            }
-        };
-    }
 }
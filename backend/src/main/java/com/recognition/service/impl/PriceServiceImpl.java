@@ -1,26 +1,48 @@
 package com.recognition.service.impl;
 
+import com.recognition.cache.AssetSymbolRegistry;
+import com.recognition.cache.LatestPriceCache;
+import com.recognition.cache.TopMoversIndex;
 import com.recognition.client.FinnhubClient;
+import com.recognition.client.Quote;
 import com.recognition.dto.CandleDTO;
+import com.recognition.dto.PriceCursor;
 import com.recognition.dto.PriceDto;
+import com.recognition.dto.PriceDtoMapper;
+import com.recognition.dto.PriceSnapshot;
+import com.recognition.dto.QuoteWindow;
+import com.recognition.dto.response.AssetQuote;
+import com.recognition.dto.response.BatchQuoteResponse;
+import com.recognition.dto.response.CursorPage;
 import com.recognition.dto.response.StatisticsDTO;
 import com.recognition.entity.Asset;
+import com.recognition.entity.BarResolution;
 import com.recognition.entity.Price;
+import com.recognition.event.PriceIngestedEvent;
+import com.recognition.exception.InvalidCursorException;
 import com.recognition.exception.ResourceNotFoundException;
 import com.recognition.repository.AssetRepository;
+import com.recognition.repository.PriceBarJdbcRepository;
+import com.recognition.repository.PriceJdbcRepository;
 import com.recognition.repository.PriceRepository;
+import com.recognition.repository.WatchlistRepository;
 import com.recognition.service.PriceService;
+import com.recognition.util.CandleAggregator;
+import com.recognition.util.CandleResolution;
+import com.recognition.util.PriceChange;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -38,6 +60,23 @@ public class PriceServiceImpl implements PriceService {
     private final PriceRepository priceRepository;
     private final AssetRepository assetRepository;
     private final FinnhubClient finnhubClient;
+    private final PriceJdbcRepository priceJdbcRepository;
+    private final PriceBarJdbcRepository priceBarJdbcRepository;
+    private final LatestPriceCache latestPriceCache;
+    private final TopMoversIndex topMoversIndex;
+    private final AssetSymbolRegistry assetSymbolRegistry;
+    private final WatchlistRepository watchlistRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final int MAX_CANDLES = 1_000;
+    private static final int MAX_HISTORY_PAGE = 1_000;
+    private static final int MAX_BATCH_ASSETS = 200;
+    private static final OffsetDateTime HISTORY_MIN = OffsetDateTime.of(1970, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    private static final OffsetDateTime HISTORY_MAX = OffsetDateTime.of(9999, 12, 31, 23, 59, 59, 0, ZoneOffset.UTC);
+
+    // Số bản ghi mỗi lô JDBC batch khi ingest hàng loạt
+    @Value("${price.ingest.batch-size:500}")
+    private int ingestBatchSize;
 
     @Override
     public Page<Price> getPriceHistory(UUID assetId, OffsetDateTime startDate,
@@ -57,7 +96,6 @@ public class PriceServiceImpl implements PriceService {
     }
 
     @Override
-    @Cacheable(value = "latestPrice", key = "#assetId")
     public Price getLatestPrice(UUID assetId) {
         return priceRepository.findTopByAssetIdOrderByTimestampDesc(assetId)
                 .orElseThrow(() -> new ResourceNotFoundException("No price data found for asset: " + assetId));
@@ -73,21 +111,67 @@ public class PriceServiceImpl implements PriceService {
         price.setAsset(asset);
         price.setPrice(priceValue);
         price.setTimestamp(OffsetDateTime.now());
-        return priceRepository.save(price);
+        return saveAndPublish(price);
     }
 
     @Override
     public BigDecimal calculatePriceChange(UUID assetId, int hours) {
         OffsetDateTime cutoffTime = OffsetDateTime.now().minusHours(hours);
-        Price current = priceRepository.findTopByAssetIdOrderByTimestampDesc(assetId)
+        PriceSnapshot current = latestPriceCache.find(assetId)
                 .orElseThrow(() -> new ResourceNotFoundException("No price data found"));
-        Price past = priceRepository.findTopByAssetIdAndTimestampBeforeOrderByTimestampDesc(assetId, cutoffTime)
-                .orElse(current);
-        if (past.getPrice().compareTo(BigDecimal.ZERO) == 0) return BigDecimal.ZERO;
-        return current.getPrice()
-                .subtract(past.getPrice())
-                .divide(past.getPrice(), 4, RoundingMode.HALF_UP)
-                .multiply(BigDecimal.valueOf(100));
+        // Tick gốc trước mốc đã bị retention xoá thì dùng close của bar ngày
+        BigDecimal pastPrice = priceRepository.findTopByAssetIdAndTimestampBeforeOrderByTimestampDesc(assetId, cutoffTime)
+                .map(Price::getPrice)
+                .orElseGet(() -> priceBarJdbcRepository.findCloseBefore(assetId, BarResolution.DAY, cutoffTime));
+        return PriceChange.since(pastPrice, current.price());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BatchQuoteResponse getBatchQuotes(Collection<UUID> assetIds, Collection<String> symbols,
+                                             UUID watchlistUserId, List<QuoteWindow> windows) {
+        // Phân giải id/symbol/watchlist trong bộ nhớ, giữ thứ tự yêu cầu và bỏ trùng
+        Map<UUID, String> requested = new LinkedHashMap<>();
+        List<String> notFound = new ArrayList<>();
+        for (UUID assetId : assetIds) {
+            assetSymbolRegistry.symbolOf(assetId).ifPresentOrElse(
+                    symbol -> requested.putIfAbsent(assetId, symbol),
+                    () -> notFound.add(assetId.toString()));
+        }
+        List<String> wanted = new ArrayList<>(symbols);
+        if (watchlistUserId != null) {
+            watchlistRepository.findByUserId(watchlistUserId).forEach(w -> wanted.add(w.getSymbol()));
+        }
+        assetSymbolRegistry.resolveSymbols(wanted).forEach((symbol, assetId) -> requested.putIfAbsent(assetId, symbol));
+        wanted.stream().filter(symbol -> !assetSymbolRegistry.containsSymbol(symbol)).forEach(notFound::add);
+
+        if (requested.size() > MAX_BATCH_ASSETS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_ASSETS + " assets per batch");
+        }
+
+        // Giá hiện tại từ cache, giá quá khứ của mọi (asset, cửa sổ) trong một truy vấn
+        OffsetDateTime now = OffsetDateTime.now();
+        Map<UUID, PriceSnapshot> latest = new HashMap<>();
+        requested.keySet().forEach(assetId -> latestPriceCache.find(assetId).ifPresent(p -> latest.put(assetId, p)));
+        Map<UUID, BigDecimal[]> past = priceJdbcRepository.findPricesBefore(
+                latest.keySet(), windows.stream().map(QuoteWindow::duration).toList(), now);
+
+        List<AssetQuote> quotes = new ArrayList<>(requested.size());
+        requested.forEach((assetId, symbol) -> {
+            PriceSnapshot current = latest.get(assetId);
+            if (current == null) {
+                quotes.add(new AssetQuote(assetId, symbol, null, null, null, null, null, null, null, Map.of()));
+                return;
+            }
+            BigDecimal[] before = past.get(assetId);
+            Map<String, BigDecimal> changes = new LinkedHashMap<>();
+            for (int i = 0; i < windows.size(); i++) {
+                changes.put(windows.get(i).label(), PriceChange.since(before != null ? before[i] : null, current.price()));
+            }
+            quotes.add(new AssetQuote(assetId, symbol, current.assetName(), current.price(), current.volume(),
+                    current.high24h(), current.low24h(), current.timestamp(), current.changePercent(), changes));
+        });
+        return new BatchQuoteResponse(quotes, notFound, now);
     }
 
     @Override
@@ -96,48 +180,37 @@ public class PriceServiceImpl implements PriceService {
         Asset asset = assetRepository.findById(assetId)
                 .orElseThrow(() -> new ResourceNotFoundException("Asset not found: " + assetId));
 
+        // Giá trước đó lấy từ cache (không truy vấn DB)
+        PriceSnapshot previousPrice = latestPriceCache.find(assetId).orElse(null);
+
+        // Một request /quote cho giá, cao/thấp và volume
+        Quote quote = null;
         BigDecimal priceValue;
         String source;
 
         try {
-            priceValue = fetchPriceFromFinnhub(asset.getSymbol());
+            quote = fetchQuoteFromFinnhub(asset.getSymbol());
+            priceValue = quote.price();
             source = "finnhub-api";
         } catch (Exception e) {
             log.warn("Finnhub fetch failed for {} — using last known price", asset.getSymbol());
-            Price lastPrice = priceRepository.findTopByAssetOrderByTimestampDesc(asset)
-                    .orElseThrow(() -> new ResourceNotFoundException("No price for asset: " + asset.getSymbol()));
-            priceValue = lastPrice.getPrice();
-            source = lastPrice.getSource();
+            if (previousPrice == null) {
+                throw new ResourceNotFoundException("No price for asset: " + asset.getSymbol());
+            }
+            priceValue = previousPrice.price();
+            source = previousPrice.source();
         }
 
-        // 🔹 Lấy khối lượng giao dịch (volume)
-        BigDecimal volume = null;
-        try {
-            volume = finnhubClient.fetchQuoteVolume(asset.getSymbol());
-        } catch (Exception e) {
-            log.warn("Unable to fetch volume for {}: {}", asset.getSymbol(), e.getMessage());
-        }
-
-        BigDecimal volumeValue = (volume != null) ? volume : null;
-
-        // Lấy giá trước đó
-        Price previousPrice = priceRepository.findTopByAssetOrderByTimestampDesc(asset).orElse(null);
-
-        BigDecimal changePercent = null;
-        if (previousPrice != null && previousPrice.getPrice() != null
-                && previousPrice.getPrice().compareTo(BigDecimal.ZERO) != 0
-                && priceValue != null) {
-            BigDecimal diff = priceValue.subtract(previousPrice.getPrice());
-            changePercent = diff
-                    .divide(previousPrice.getPrice(), 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100));
-            log.info("Change for {}: {} -> {} = {}%", asset.getSymbol(), previousPrice.getPrice(), priceValue, changePercent);
+        BigDecimal changePercent = PriceChange.percent(
+                previousPrice != null ? previousPrice.price() : null, priceValue);
+        if (changePercent != null) {
+            log.info("Change for {}: {} -> {} = {}%", asset.getSymbol(), previousPrice.price(), priceValue, changePercent);
         }
 
         // Bỏ qua nếu giá trùng nhau (tránh spam record)
-        if (previousPrice != null && previousPrice.getPrice().compareTo(priceValue) == 0) {
+        if (previousPrice != null && previousPrice.price().compareTo(priceValue) == 0) {
             log.info("⏸ No price change for {}, skipping insert.", asset.getSymbol());
-            return mapToDto(previousPrice);
+            return PriceDtoMapper.toDto(previousPrice);
         }
 
         // Lưu bản ghi giá mới
@@ -147,18 +220,20 @@ public class PriceServiceImpl implements PriceService {
                 .timestamp(OffsetDateTime.now())
                 .source(source)
                 .changePercent(changePercent)
-                .volume(volumeValue)
+                .high24h(quote != null ? quote.high() : null)
+                .low24h(quote != null ? quote.low() : null)
+                .volume(quote != null ? quote.volume() : null)
                 .build();
 
-        Price saved = priceRepository.save(price);
-        return mapToDto(saved);
+        Price saved = saveAndPublish(price);
+        return PriceDtoMapper.toDto(saved);
     }
 
     @Override
     public PriceDto getLatestPriceDto(UUID assetId) {
-        Price price = priceRepository.findTopByAssetIdOrderByTimestampDesc(assetId)
+        PriceSnapshot price = latestPriceCache.find(assetId)
                 .orElseThrow(() -> new ResourceNotFoundException("Price not found"));
-        return mapToDto(price);
+        return PriceDtoMapper.toDto(price);
     }
 
     @Override
@@ -172,7 +247,7 @@ public class PriceServiceImpl implements PriceService {
         price.setAsset(assetRepository.findById(assetId)
                 .orElseThrow(() -> new ResourceNotFoundException("Asset not found: " + assetId)));
         price.setTimestamp(OffsetDateTime.now());
-        return priceRepository.save(price);
+        return saveAndPublish(price);
     }
 
     @Override
@@ -194,65 +269,114 @@ public class PriceServiceImpl implements PriceService {
 
     @Override
     public Page<PriceDto> getPriceHistoryPaged(UUID assetId, OffsetDateTime startDate, OffsetDateTime endDate, Pageable pageable) {
-        Page<Price> page;
+        // Biên mở được thay bằng mốc cố định để dùng chung một câu truy vấn projection
+        return priceRepository.findDtoPageByAssetAndRange(assetId,
+                startDate != null ? startDate : HISTORY_MIN,
+                endDate != null ? endDate : HISTORY_MAX,
+                pageable);
+    }
 
-        if (startDate != null && endDate != null) {
-            page = priceRepository.findByAssetIdAndTimestampBetween(assetId, startDate, endDate, pageable);
-        } else if (startDate != null) {
-            page = priceRepository.findByAssetIdAndTimestampAfter(assetId, startDate, pageable);
-        } else if (endDate != null) {
-            page = priceRepository.findByAssetIdAndTimestampBefore(assetId, endDate, pageable);
-        } else {
-            page = priceRepository.findByAssetId(assetId, pageable);
+    @Override
+    public CursorPage<PriceDto> getPriceHistoryCursor(UUID assetId, OffsetDateTime startDate, OffsetDateTime endDate,
+                                                      String cursor, int limit, boolean ascending) {
+        if (!assetRepository.existsById(assetId)) {
+            throw new ResourceNotFoundException("Asset not found with ID: " + assetId);
+        }
+        if (limit <= 0 || limit > MAX_HISTORY_PAGE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_HISTORY_PAGE);
         }
 
-        return page.map(this::mapToDto);
+        PriceCursor after = cursor != null && !cursor.isBlank() ? PriceCursor.decode(cursor) : null;
+        if (after != null && after.ascending() != ascending) {
+            throw new InvalidCursorException("sort order does not match the cursor");
+        }
+
+        // Lấy dư một dòng để biết còn trang sau hay không
+        List<PriceSnapshot> rows = priceJdbcRepository.findHistoryPage(assetId, startDate, endDate, after, ascending, limit + 1);
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            PriceSnapshot last = rows.get(limit - 1);
+            nextCursor = new PriceCursor(ascending, last.timestamp(), last.id()).encode();
+        }
+        return CursorPage.of(rows.stream().map(PriceDtoMapper::toDto).toList(), nextCursor);
     }
 
     @Override
-    public List<CandleDTO> getCandles(UUID assetId, String interval, int limit) {
-        Asset asset = assetRepository.findById(assetId)
-                .orElseThrow(() -> new NoSuchElementException("Asset not found"));
+    public List<CandleDTO> getCandles(UUID assetId, String interval, String resolution, int limit) {
+        if (!assetRepository.existsById(assetId)) {
+            throw new NoSuchElementException("Asset not found");
+        }
+        if (limit <= 0 || limit > MAX_CANDLES) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_CANDLES);
+        }
 
         OffsetDateTime now = OffsetDateTime.now();
         OffsetDateTime start;
+        CandleResolution defaultResolution;
 
         if (interval == null || interval.isBlank()) interval = "all";
 
         switch (interval.toLowerCase()) {
-            case "1d", "day" -> start = now.minusDays(1);
-            case "1w", "week" -> start = now.minusWeeks(1);
-            case "1m", "month" -> start = now.minusMonths(1);
-            case "all" -> start = OffsetDateTime.MIN;
+            case "1d", "day" -> { start = now.minusDays(1); defaultResolution = CandleResolution.FIVE_MINUTES; }
+            case "1w", "week" -> { start = now.minusWeeks(1); defaultResolution = CandleResolution.ONE_HOUR; }
+            case "1m", "month" -> { start = now.minusMonths(1); defaultResolution = CandleResolution.ONE_DAY; }
+            case "all" -> { start = null; defaultResolution = CandleResolution.ONE_DAY; }
             default -> throw new IllegalArgumentException("Invalid interval: " + interval);
         }
 
-        List<Price> prices = "all".equalsIgnoreCase(interval)
-                ? priceRepository.findByAssetIdOrderByTimestampAsc(assetId)
-                : priceRepository.findByAssetAndTimestampBetweenOrderByTimestampAsc(assetId, start, now);
-
-        if (prices.isEmpty()) return Collections.emptyList();
-
-        List<Price> limited = prices.size() > limit
-                ? prices.subList(prices.size() - limit, prices.size())
-                : prices;
-
-        return limited.stream()
-                .map(p -> new CandleDTO(
-                        p.getTimestamp(),
-                        p.getPrice(), // open
-                        p.getPrice(), // high
-                        p.getPrice(), // low
-                        p.getPrice(), // close
-                        p.getVolume() != null ? p.getVolume().longValue() : null // convert BigDecimal -> Long
-                ))
-                .collect(Collectors.toList());
+        CandleResolution bucket = (resolution == null || resolution.isBlank())
+                ? defaultResolution
+                : CandleResolution.fromCode(resolution);
+
+        // Đẩy limit xuống truy vấn: chỉ đọc tick thuộc `limit` bucket cuối cùng
+        long nowEpoch = now.toEpochSecond();
+        long firstBucket = bucket.bucketStart(nowEpoch) - (limit - 1) * bucket.getSeconds();
+        OffsetDateTime from = OffsetDateTime.ofInstant(Instant.ofEpochSecond(firstBucket), ZoneOffset.UTC);
+        if (start != null && start.isAfter(from)) {
+            from = start;
+        }
+
+        /*
+         * Ghép nhiều nguồn theo thời gian: rollup thô nhất phù hợp phủ phần gần nhất; phần trước khi rollup
+         * bắt đầu (chưa backfill, trước khi có rollup, bar phút đã hết hạn) lấy từ tick gốc; phần trước cả
+         * tick gốc (đã bị retention xoá) lấy từ rollup thô hơn. Mỗi nguồn phủ [bản ghi đầu tiên, đầu nguồn sau).
+         */
+        BarResolution tier = BarResolution.forCandle(bucket);
+        List<BarResolution> sources = new ArrayList<>();
+        sources.add(tier);
+        sources.add(null); // tick gốc
+        for (BarResolution r : BarResolution.values()) {
+            if (r.getSeconds() > tier.getSeconds()) sources.add(r);
+        }
+
+        CandleAggregator aggregator = new CandleAggregator(bucket, limit);
+        Deque<Runnable> segments = new ArrayDeque<>();
+        OffsetDateTime end = now.plusNanos(1_000);
+        for (BarResolution source : sources) {
+            if (!from.isBefore(end)) break;
+            OffsetDateTime first = source == null
+                    ? priceJdbcRepository.findFirstTickTime(assetId, from, end)
+                    : priceBarJdbcRepository.findFirstBucketStart(assetId, source, from, end);
+            if (first == null) continue;
+
+            // Các truy vấn stream dùng BETWEEN (bao gồm hai đầu); timestamptz chính xác tới micro giây
+            OffsetDateTime segmentTo = end.minusNanos(1_000);
+            segments.push(source == null
+                    ? () -> priceJdbcRepository.streamTicks(assetId, first, segmentTo, aggregator::addTick)
+                    : () -> priceBarJdbcRepository.streamBars(assetId, source, first, segmentTo, aggregator::addBar));
+            end = first;
+        }
+        // Đoạn cũ nhất ở đầu deque: aggregator nhận dữ liệu theo thời gian tăng dần
+        segments.forEach(Runnable::run);
+        return aggregator.toCandles();
     }
 
     @Override
     public StatisticsDTO getStatistics(UUID assetId, String range) {
-        Asset asset = assetRepository.findById(assetId)
-                .orElseThrow(() -> new NoSuchElementException("Asset not found"));
+        if (!assetRepository.existsById(assetId)) {
+            throw new NoSuchElementException("Asset not found");
+        }
 
         var now = OffsetDateTime.now();
         var start = switch (range) {
@@ -262,119 +386,147 @@ public class PriceServiceImpl implements PriceService {
             default -> throw new IllegalArgumentException("Invalid range: " + range);
         };
 
-        List<Price> prices = priceRepository.findByAssetAndRange(assetId, start, now);
-        if (prices.isEmpty()) return new StatisticsDTO(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, start, now);
-
-        var min = prices.stream().map(Price::getPrice).min(BigDecimal::compareTo).orElse(BigDecimal.ZERO);
-        var max = prices.stream().map(Price::getPrice).max(BigDecimal::compareTo).orElse(BigDecimal.ZERO);
-        var avg = prices.stream()
-                .map(Price::getPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .divide(BigDecimal.valueOf(prices.size()), BigDecimal.ROUND_HALF_UP);
-
-        return new StatisticsDTO(min, max, avg, start, now);
+        /*
+         * Các giờ trọn vẹn đọc từ bar giờ (đã có min/max/Σp/Σp²), tick gốc chỉ cho phần lẻ ở hai mép
+         * và cho đoạn đầu chưa có bar. Không có bar nào hoặc bar cũ thiếu Σp² thì quét tick gốc như trước.
+         */
+        long hour = BarResolution.HOUR.getSeconds();
+        long startEpoch = start.toEpochSecond() + (start.getNano() > 0 ? 1 : 0);
+        OffsetDateTime firstHour = OffsetDateTime.ofInstant(Instant.ofEpochSecond(
+                BarResolution.HOUR.bucketStart(startEpoch + hour - 1)), ZoneOffset.UTC);
+        OffsetDateTime lastHour = OffsetDateTime.ofInstant(Instant.ofEpochSecond(
+                BarResolution.HOUR.bucketStart(now.toEpochSecond())), ZoneOffset.UTC);
+        if (firstHour.isBefore(lastHour)) {
+            OffsetDateTime barsFrom = priceBarJdbcRepository.findFirstBucketStart(assetId, BarResolution.HOUR,
+                    firstHour, lastHour);
+            if (barsFrom != null) {
+                StatisticsDTO stats = priceJdbcRepository.aggregateStatsWithBars(assetId, start, now, barsFrom, lastHour);
+                if (stats != null) {
+                    return stats;
+                }
+            }
+        }
+        return priceJdbcRepository.aggregateStats(assetId, start, now);
     }
 
-    private PriceDto mapToDto(Price price) {
-        PriceDto dto = new PriceDto();
-        dto.setId(price.getId());
-        dto.setAssetId(price.getAsset().getId());
-        dto.setAssetName(price.getAsset().getName());
-        dto.setAssetSymbol(price.getAsset().getSymbol());
-        dto.setPrice(price.getPrice());
-        dto.setTimestamp(price.getTimestamp());
-        dto.setVolume(price.getVolume());
-        dto.setChangePercent(price.getChangePercent());
-        dto.setHigh24h(price.getHigh24h());
-        dto.setLow24h(price.getLow24h());
-        dto.setMarketCap(price.getMarketCap());
-        dto.setSource(price.getSource());
-        return dto;
+    // Lưu một bản ghi giá và thông báo cho cache/các listener ingest
+    private Price saveAndPublish(Price price) {
+        Price saved = priceRepository.save(price);
+        eventPublisher.publishEvent(PriceIngestedEvent.of(PriceSnapshot.from(saved)));
+        return saved;
     }
 
-    private BigDecimal fetchPriceFromFinnhub(String symbol) {
-        BigDecimal price = finnhubClient.fetchPrice(symbol);
-        if (price == null || price.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new RuntimeException("FinnhubClient returned invalid or null price for " + symbol);
+    private Quote fetchQuoteFromFinnhub(String symbol) {
+        Quote quote = finnhubClient.fetchQuote(symbol);
+        if (quote == null || !quote.isValid()) {
+            throw new RuntimeException("FinnhubClient returned invalid or null quote for " + symbol);
         }
-        return price;
+        return quote;
     }
 
     @Override
     @Transactional
     public Map<String, Object> fetchAndSaveAllPricesFromFinnhub() {
-        List<Asset> assets = assetRepository.findByIsActiveTrue();
+        return ingestQuotes(assetRepository.findByIsActiveTrue());
+    }
+
+    @Override
+    @Transactional
+    public Map<String, Object> refreshPrices(Collection<UUID> assetIds) {
+        List<Asset> assets = assetRepository.findAllById(assetIds).stream()
+                .filter(asset -> Boolean.TRUE.equals(asset.getIsActive()))
+                .toList();
+        return ingestQuotes(assets);
+    }
+
+    // Lấy quote cho các asset và ghi theo lô JDBC batch, phát một PriceIngestedEvent cho toàn bộ
+    private Map<String, Object> ingestQuotes(List<Asset> assets) {
+        long startTime = System.currentTimeMillis();
         List<String> symbols = assets.stream().map(Asset::getSymbol).toList();
 
-        // Gọi 1 lần duy nhất để lấy toàn bộ giá
-        Map<String, BigDecimal> prices = finnhubClient.fetchAllPrices(symbols);
+        // Mỗi asset đúng một request /quote
+        Map<String, Quote> quotes = finnhubClient.fetchAllQuotes(symbols);
 
-        int updated = 0;
+        OffsetDateTime timestamp = OffsetDateTime.now();
+        List<Price> records = new ArrayList<>(assets.size());
         List<String> failed = new ArrayList<>();
+        int unchanged = 0;
 
         for (Asset asset : assets) {
-            try {
-                BigDecimal price = prices.get(asset.getSymbol());
-                if (price == null || price.compareTo(BigDecimal.ZERO) <= 0) {
-                    failed.add(asset.getSymbol());
-                    continue;
-                }
-
-                OffsetDateTime timestamp = OffsetDateTime.now();
-
-                // Tính phần trăm thay đổi
-                BigDecimal changePercent = null;
-                var prevOpt = priceRepository.findTopByAssetOrderByTimestampDesc(asset);
-                if (prevOpt.isPresent()) {
-                    BigDecimal prev = prevOpt.get().getPrice();
-                    if (prev != null && prev.compareTo(BigDecimal.ZERO) != 0) {
-                        BigDecimal diff = price.subtract(prev);
-                        changePercent = diff.divide(prev, 4, RoundingMode.HALF_UP)
-                                .multiply(BigDecimal.valueOf(100));
-                    }
-                }
+            Quote quote = quotes.get(asset.getSymbol());
+            if (quote == null || !quote.isValid()) {
+                failed.add(asset.getSymbol());
+                continue;
+            }
+            BigDecimal price = quote.price();
+            BigDecimal previous = latestPriceCache.find(asset.getId()).map(PriceSnapshot::price).orElse(null);
 
-                // Lưu giá mới
-                Price record = Price.builder()
-                        .asset(asset)
-                        .price(price)
-                        .timestamp(timestamp)
-                        .source("Finnhub")
-                        .changePercent(changePercent)
-                        .build();
+            // Giống fetchAndSavePrice: giá không đổi thì không ghi thêm tick
+            if (previous != null && previous.compareTo(price) == 0) {
+                unchanged++;
+                continue;
+            }
 
-                priceRepository.save(record);
-                updated++;
+            records.add(Price.builder()
+                    .id(UUID.randomUUID())
+                    .asset(asset)
+                    .price(price)
+                    .timestamp(timestamp)
+                    .source("Finnhub")
+                    .changePercent(PriceChange.percent(previous, price))
+                    .high24h(quote.high())
+                    .low24h(quote.low())
+                    .volume(quote.volume())
+                    .build());
+        }
 
-            } catch (Exception e) {
-                log.warn("Failed to save price for {}: {}", asset.getSymbol(), e.getMessage());
-                failed.add(asset.getSymbol());
-            }
+        // Ghi theo lô bằng JDBC batch, đo thời gian từng lô
+        int updated = 0;
+        List<Map<String, Object>> batches = new ArrayList<>();
+        List<PriceSnapshot> ingested = new ArrayList<>(records.size());
+        for (int from = 0; from < records.size(); from += ingestBatchSize) {
+            List<Price> chunk = records.subList(from, Math.min(from + ingestBatchSize, records.size()));
+            long batchStart = System.nanoTime();
+            int inserted = priceJdbcRepository.insertAll(chunk);
+            long batchMs = (System.nanoTime() - batchStart) / 1_000_000;
+
+            updated += inserted;
+            chunk.forEach(p -> ingested.add(PriceSnapshot.from(p)));
+            batches.add(Map.of("size", chunk.size(), "inserted", inserted, "durationMs", batchMs));
+            log.info("Price batch {} inserted {}/{} rows in {} ms", batches.size(), inserted, chunk.size(), batchMs);
         }
 
+        eventPublisher.publishEvent(new PriceIngestedEvent(ingested));
+
+        long duration = System.currentTimeMillis() - startTime;
+        log.info("ingestQuotes: {} assets, {} updated, {} unchanged, {} failed in {} ms",
+                assets.size(), updated, unchanged, failed.size(), duration);
+
         return Map.of(
                 "message", "Fetched all prices in one call",
                 "totalAssets", assets.size(),
                 "updated", updated,
-                "failed", failed
+                "unchanged", unchanged,
+                "failed", failed,
+                "batches", batches,
+                "durationMs", duration
         );
     }
 
     @Override
     public List<PriceDto> getTopMovers(String type, int limit) {
-        Pageable pageable = Pageable.ofSize(limit);
-        List<Price> prices;
+        List<PriceSnapshot> prices;
 
         if ("gainers".equalsIgnoreCase(type)) {
-            prices = priceRepository.findTopGainers(pageable);
+            prices = topMoversIndex.topGainers(limit);
         } else if ("losers".equalsIgnoreCase(type)) {
-            prices = priceRepository.findTopLosers(pageable);
+            prices = topMoversIndex.topLosers(limit);
         } else {
             throw new IllegalArgumentException("Invalid type: " + type + ". Use 'gainers' or 'losers'.");
         }
 
         return prices.stream()
-                .map(this::mapToDto)
+                .map(PriceDtoMapper::toDto)
                 .collect(Collectors.toList());
     }
 }
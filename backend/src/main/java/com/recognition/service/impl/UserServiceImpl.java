@@ -6,6 +6,7 @@ import com.recognition.entity.Users;
 import com.recognition.entity.Watchlist;
 import com.recognition.repository.UserRepository;
 import com.recognition.repository.WatchlistRepository;
+import com.recognition.security.UserPrincipalCache;
 import com.recognition.service.UserService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,10 +24,13 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final WatchlistRepository watchlistRepository;
+    private final UserPrincipalCache userPrincipalCache;
 
-    public UserServiceImpl(UserRepository userRepository, WatchlistRepository watchlistRepository) {
+    public UserServiceImpl(UserRepository userRepository, WatchlistRepository watchlistRepository,
+                           UserPrincipalCache userPrincipalCache) {
         this.userRepository = userRepository;
         this.watchlistRepository = watchlistRepository;
+        this.userPrincipalCache = userPrincipalCache;
     }
 
     @Override
@@ -74,6 +78,7 @@ public class UserServiceImpl implements UserService {
 
         user.setUpdatedAt(java.time.OffsetDateTime.now());
         userRepository.save(user);
+        userPrincipalCache.invalidate(id);
         return toDto(user);
     }
 
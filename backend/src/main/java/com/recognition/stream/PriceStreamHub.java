@@ -0,0 +1,167 @@
+package com.recognition.stream;
+
+import com.recognition.cache.LatestPriceCache;
+import com.recognition.dto.PriceSnapshot;
+import com.recognition.event.PriceIngestedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Đẩy giá vừa ingest tới các client SSE.
+ * Sự kiện ingest được ghi vào {@link SnapshotRingBuffer}; một thread fan-out duy nhất đọc ring
+ * và chuyển từng giá tới các subscription đang nghe asset đó. Việc gửi qua mạng chạy trên virtual thread
+ * riêng từng client, có gộp theo asset ({@link StreamSubscription}) nên client chậm không làm chậm ai khác.
+ */
+@Slf4j
+@Component
+public class PriceStreamHub {
+
+    private static final int DRAIN_BATCH = 1_024;
+
+    private final LatestPriceCache latestPriceCache;
+    private final SnapshotRingBuffer ring;
+    private final int maxClients;
+    private final long emitterTimeoutMs;
+
+    private final Map<UUID, Set<StreamSubscription>> subscribersByAsset = new ConcurrentHashMap<>();
+    private final Map<UUID, StreamSubscription> subscriptions = new ConcurrentHashMap<>();
+    private final Map<UUID, SseEmitter> emitters = new ConcurrentHashMap<>();
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+
+    private volatile Thread dispatcher;
+    private volatile boolean running;
+
+    public PriceStreamHub(LatestPriceCache latestPriceCache,
+                          @Value("${price.stream.ring-size:8192}") int ringSize,
+                          @Value("${price.stream.max-clients:5000}") int maxClients,
+                          @Value("${price.stream.timeout-ms:1800000}") long emitterTimeoutMs) {
+        this.latestPriceCache = latestPriceCache;
+        this.ring = new SnapshotRingBuffer(ringSize);
+        this.maxClients = maxClients;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        dispatcher = Thread.ofPlatform().name("price-stream-fanout").daemon().start(this::dispatchLoop);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        LockSupport.unpark(dispatcher);
+        emitters.values().forEach(SseEmitter::complete);
+        sender.shutdownNow();
+    }
+
+    /**
+     * Mở một luồng SSE cho các asset; giá hiện tại của từng asset được gửi ngay khi đăng ký.
+     */
+    public SseEmitter subscribe(Collection<UUID> assetIds) {
+        if (subscriptions.size() >= maxClients) {
+            throw new IllegalStateException("Too many streaming clients");
+        }
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        StreamSubscription subscription = new StreamSubscription(Set.copyOf(assetIds),
+                snapshot -> emitter.send(SseEmitter.event()
+                        .name("price")
+                        .id(String.valueOf(snapshot.timestamp().toEpochSecond()))
+                        .data(snapshot, MediaType.APPLICATION_JSON)),
+                sender,
+                () -> emitter.complete());
+
+        UUID id = subscription.id();
+        subscriptions.put(id, subscription);
+        emitters.put(id, emitter);
+        for (UUID assetId : subscription.assetIds()) {
+            // Thêm bên trong compute để không đua với unsubscribe đang xoá set rỗng
+            subscribersByAsset.compute(assetId, (k, set) -> {
+                Set<StreamSubscription> target = set != null ? set : ConcurrentHashMap.newKeySet();
+                target.add(subscription);
+                return target;
+            });
+        }
+        emitter.onCompletion(() -> unsubscribe(id));
+        emitter.onTimeout(() -> unsubscribe(id));
+        emitter.onError(e -> unsubscribe(id));
+
+        subscription.assetIds().forEach(assetId -> latestPriceCache.find(assetId).ifPresent(subscription::offer));
+        log.debug("Stream client {} subscribed to {} assets", id, subscription.assetIds().size());
+        return emitter;
+    }
+
+    public int clientCount() {
+        return subscriptions.size();
+    }
+
+    // Producer: chỉ ghi vào ring, không gửi gì trên thread của transaction
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPriceIngested(PriceIngestedEvent event) {
+        if (subscriptions.isEmpty()) return;
+        for (PriceSnapshot snapshot : event.prices()) {
+            ring.publish(snapshot);
+        }
+        LockSupport.unpark(dispatcher);
+    }
+
+    // Comment SSE định kỳ để giữ kết nối qua proxy và phát hiện client đã ngắt
+    @Scheduled(fixedDelayString = "${price.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        emitters.forEach((id, emitter) -> sender.execute(() -> {
+            try {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+            } catch (IOException | IllegalStateException e) {
+                unsubscribe(id);
+            }
+        }));
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            int drained = ring.drainTo(this::fanOut, DRAIN_BATCH);
+            if (drained == 0) {
+                LockSupport.parkNanos(50_000_000L);
+            }
+        }
+    }
+
+    private void fanOut(PriceSnapshot snapshot) {
+        Set<StreamSubscription> subscribers = subscribersByAsset.get(snapshot.assetId());
+        if (subscribers == null) return;
+        for (StreamSubscription subscription : subscribers) {
+            subscription.offer(snapshot);
+        }
+    }
+
+    private void unsubscribe(UUID id) {
+        StreamSubscription subscription = subscriptions.remove(id);
+        emitters.remove(id);
+        if (subscription == null) return;
+        subscription.close();
+        for (UUID assetId : subscription.assetIds()) {
+            subscribersByAsset.computeIfPresent(assetId, (k, set) -> {
+                set.remove(subscription);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.recognition.stream;
+
+import com.recognition.dto.PriceSnapshot;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Ring buffer cố định nhiều producer / một consumer cho các giá vừa ingest.
+ * Producer giành sequence bằng một phép cộng nguyên tử, ghi slot rồi công bố sequence của slot;
+ * consumer duy nhất (thread fan-out) đọc tuần tự theo sequence. Khi đầy, producer chờ consumer
+ * thay vì ghi đè, để bản giá mới nhất của mỗi asset không bao giờ bị mất.
+ */
+final class SnapshotRingBuffer {
+
+    private final PriceSnapshot[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private volatile long consumed = -1; // chỉ consumer ghi
+
+    SnapshotRingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two");
+        }
+        this.slots = new PriceSnapshot[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+        this.mask = capacity - 1;
+    }
+
+    void publish(PriceSnapshot snapshot) {
+        long seq = claimed.incrementAndGet();
+        while (seq - consumed > slots.length) {
+            LockSupport.parkNanos(10_000);
+        }
+        int index = (int) (seq & mask);
+        slots[index] = snapshot;
+        published.set(index, seq); // ghi volatile: công bố slot cho consumer
+    }
+
+    // Chỉ được gọi từ thread consumer
+    int drainTo(Consumer<PriceSnapshot> consumer, int max) {
+        int drained = 0;
+        long next = consumed + 1;
+        while (drained < max) {
+            int index = (int) (next & mask);
+            if (published.get(index) != next) {
+                break;
+            }
+            PriceSnapshot snapshot = slots[index];
+            slots[index] = null;
+            consumed = next;
+            consumer.accept(snapshot);
+            next++;
+            drained++;
+        }
+        return drained;
+    }
+
+    long backlog() {
+        return claimed.get() - consumed;
+    }
+}
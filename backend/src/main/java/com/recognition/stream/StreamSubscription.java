@@ -0,0 +1,90 @@
+package com.recognition.stream;
+
+import com.recognition.dto.PriceSnapshot;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Một client đang nghe giá. Giá chờ gửi được gộp theo asset (chỉ giữ bản mới nhất),
+ * nên client chậm nhận giá trị hiện tại thay vì một hàng đợi dồn không giới hạn:
+ * bộ nhớ tối đa bằng số asset đã đăng ký. Mỗi lúc chỉ có một lượt flush chạy cho mỗi client.
+ */
+final class StreamSubscription {
+
+    @FunctionalInterface
+    interface Sink {
+        void send(PriceSnapshot snapshot) throws IOException;
+    }
+
+    private final UUID id = UUID.randomUUID();
+    private final Set<UUID> assetIds;
+    private final Sink sink;
+    private final Executor sender;
+    private final Runnable onFailure;
+
+    private final Map<UUID, PriceSnapshot> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushing = new AtomicBoolean(false);
+    private volatile boolean closed = false;
+
+    StreamSubscription(Set<UUID> assetIds, Sink sink, Executor sender, Runnable onFailure) {
+        this.assetIds = Set.copyOf(assetIds);
+        this.sink = sink;
+        this.sender = sender;
+        this.onFailure = onFailure;
+    }
+
+    UUID id() {
+        return id;
+    }
+
+    Set<UUID> assetIds() {
+        return assetIds;
+    }
+
+    void offer(PriceSnapshot snapshot) {
+        if (closed) return;
+        pending.merge(snapshot.assetId(), snapshot,
+                (current, incoming) -> incoming.isNewerThan(current) ? incoming : current);
+        scheduleFlush();
+    }
+
+    void close() {
+        closed = true;
+        pending.clear();
+    }
+
+    private void scheduleFlush() {
+        if (flushing.compareAndSet(false, true)) {
+            sender.execute(this::flush);
+        }
+    }
+
+    private void flush() {
+        try {
+            Iterator<UUID> it = pending.keySet().iterator();
+            while (it.hasNext() && !closed) {
+                PriceSnapshot snapshot = pending.remove(it.next());
+                if (snapshot != null) {
+                    sink.send(snapshot);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            onFailure.run();
+            return;
+        } finally {
+            flushing.set(false);
+        }
+        // Giá đến trong lúc đang gửi: chạy thêm một lượt
+        if (!pending.isEmpty() && !closed) {
+            scheduleFlush();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.recognition.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Hoãn cập nhật bộ nhớ (cache, chỉ mục) tới khi transaction hiện tại commit;
+ * không có transaction thì áp dụng ngay. Rollback thì bỏ qua.
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    public static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Gom các thay đổi {@code key → value} của cùng một transaction theo {@code owner}
+     * (giá trị sau ghi đè giá trị trước) và gọi {@code apply} một lần với cả lô sau commit.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> void collect(Object owner, K key, V value, Consumer<Map<K, V>> apply) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply.accept(Collections.singletonMap(key, value));
+            return;
+        }
+        Map<K, V> pending = (Map<K, V>) TransactionSynchronizationManager.getResource(owner);
+        if (pending == null) {
+            Map<K, V> batch = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(owner, batch);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.accept(batch);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(owner);
+                }
+            });
+            pending = batch;
+        }
+        pending.put(key, value);
+    }
+}
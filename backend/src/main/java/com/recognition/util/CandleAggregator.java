@@ -0,0 +1,117 @@
+package com.recognition.util;
+
+import com.recognition.dto.CandleDTO;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gom tick/bar (theo thứ tự thời gian tăng dần) thành nến OHLCV trong một lượt duyệt.
+ * Giá được giữ dưới dạng long đã nhân 10^8 (đúng scale của cột prices.price),
+ * các bucket nằm trong ring buffer mảng nguyên thủy nên chỉ giữ tối đa {@code limit} nến cuối.
+ * Volume của Finnhub là khối lượng cộng dồn trong phiên, nên mỗi nến lấy giá trị volume cuối cùng.
+ */
+public final class CandleAggregator {
+
+    public static final int PRICE_SCALE = 8;
+    public static final long NO_VOLUME = Long.MIN_VALUE;
+
+    private final CandleResolution resolution;
+    private final int capacity;
+
+    private final long[] bucketStart;
+    private final long[] open;
+    private final long[] high;
+    private final long[] low;
+    private final long[] close;
+    private final long[] volume;
+
+    private int head = -1; // vị trí nến mới nhất trong ring
+    private int size = 0;
+
+    public CandleAggregator(CandleResolution resolution, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        this.resolution = resolution;
+        this.capacity = limit;
+        this.bucketStart = new long[limit];
+        this.open = new long[limit];
+        this.high = new long[limit];
+        this.low = new long[limit];
+        this.close = new long[limit];
+        this.volume = new long[limit];
+    }
+
+    // Một tick: open = high = low = close = price
+    public void addTick(long epochSecond, long scaledPrice, long tickVolume) {
+        addBar(epochSecond, scaledPrice, scaledPrice, scaledPrice, scaledPrice, tickVolume);
+    }
+
+    public void addTick(long epochSecond, long scaledPrice) {
+        addBar(epochSecond, scaledPrice, scaledPrice, scaledPrice, scaledPrice, NO_VOLUME);
+    }
+
+    // Một bar đã tổng hợp sẵn (vd. từ bảng rollup) có độ phân giải mịn hơn hoặc bằng
+    public void addBar(long epochSecond, long o, long h, long l, long c, long v) {
+        long b = resolution.bucketStart(epochSecond);
+
+        if (size > 0 && b == bucketStart[head]) {
+            if (h > high[head]) high[head] = h;
+            if (l < low[head]) low[head] = l;
+            close[head] = c;
+            if (v != NO_VOLUME) volume[head] = v;
+            return;
+        }
+        if (size > 0 && b < bucketStart[head]) {
+            return; // dữ liệu lùi thời gian: bỏ qua
+        }
+
+        head = (head + 1) % capacity;
+        if (size < capacity) size++;
+        bucketStart[head] = b;
+        open[head] = o;
+        high[head] = h;
+        low[head] = l;
+        close[head] = c;
+        volume[head] = v;
+    }
+
+    public void addBar(long epochSecond, long o, long h, long l, long c) {
+        addBar(epochSecond, o, h, l, c, NO_VOLUME);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Kết quả theo thứ tự thời gian tăng dần
+    public List<CandleDTO> toCandles() {
+        List<CandleDTO> candles = new ArrayList<>(size);
+        int first = (head - size + 1 + capacity) % capacity;
+        for (int n = 0; n < size; n++) {
+            int i = (first + n) % capacity;
+            candles.add(new CandleDTO(
+                    OffsetDateTime.ofInstant(Instant.ofEpochSecond(bucketStart[i]), ZoneOffset.UTC),
+                    fromScaled(open[i]),
+                    fromScaled(high[i]),
+                    fromScaled(low[i]),
+                    fromScaled(close[i]),
+                    volume[i] == NO_VOLUME ? null : volume[i]
+            ));
+        }
+        return candles;
+    }
+
+    public static long toScaled(BigDecimal price) {
+        return price.movePointRight(PRICE_SCALE).longValue();
+    }
+
+    public static BigDecimal fromScaled(long scaled) {
+        return BigDecimal.valueOf(scaled, PRICE_SCALE);
+    }
+}
@@ -0,0 +1,41 @@
+package com.recognition.util;
+
+/**
+ * Độ phân giải của một nến (kích thước bucket thời gian).
+ */
+public enum CandleResolution {
+    ONE_MINUTE("1m", 60),
+    FIVE_MINUTES("5m", 300),
+    ONE_HOUR("1h", 3_600),
+    ONE_DAY("1d", 86_400);
+
+    private final String code;
+    private final long seconds;
+
+    CandleResolution(String code, long seconds) {
+        this.code = code;
+        this.seconds = seconds;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public long getSeconds() {
+        return seconds;
+    }
+
+    // Đầu bucket (epoch second) chứa thời điểm đã cho
+    public long bucketStart(long epochSecond) {
+        return Math.floorDiv(epochSecond, seconds) * seconds;
+    }
+
+    public static CandleResolution fromCode(String code) {
+        for (CandleResolution r : values()) {
+            if (r.code.equalsIgnoreCase(code)) {
+                return r;
+            }
+        }
+        throw new IllegalArgumentException("Invalid resolution: " + code + ". Use 1m, 5m, 1h or 1d.");
+    }
+}
@@ -0,0 +1,39 @@
+package com.recognition.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * % thay đổi giữa hai mức giá, làm tròn HALF_UP tới 4 chữ số của tỉ lệ rồi nhân 100.
+ */
+public final class PriceChange {
+
+    private PriceChange() {
+    }
+
+    /**
+     * % thay đổi so với tick trước đó; null nếu thiếu giá hoặc giá trước bằng 0.
+     */
+    public static BigDecimal percent(BigDecimal previous, BigDecimal current) {
+        if (previous == null || current == null || previous.compareTo(BigDecimal.ZERO) == 0) {
+            return null;
+        }
+        return ratio(previous, current);
+    }
+
+    /**
+     * % thay đổi từ giá quá khứ tới giá hiện tại; null khi không có dữ liệu quá khứ (không báo 0%),
+     * 0 khi giá quá khứ bằng 0.
+     */
+    public static BigDecimal since(BigDecimal pastPrice, BigDecimal currentPrice) {
+        if (pastPrice == null || currentPrice == null) return null;
+        if (pastPrice.compareTo(BigDecimal.ZERO) == 0) return BigDecimal.ZERO;
+        return ratio(pastPrice, currentPrice);
+    }
+
+    private static BigDecimal ratio(BigDecimal previous, BigDecimal current) {
+        return current.subtract(previous)
+                .divide(previous, 4, RoundingMode.HALF_UP)
+                .multiply(BigDecimal.valueOf(100));
+    }
+}
@@ -0,0 +1,68 @@
+package com.recognition.alert;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlertThresholdIndexTest {
+
+    private final AlertThresholdIndex index = new AlertThresholdIndex();
+
+    private AlertThresholdIndex.Entry entry(AlertDirection direction, String threshold) {
+        AlertThresholdIndex.Entry e = new AlertThresholdIndex.Entry(UUID.randomUUID(), direction, new BigDecimal(threshold), 0L);
+        index.add(e);
+        return e;
+    }
+
+    private List<UUID> tick(String price) {
+        List<UUID> fired = new ArrayList<>();
+        index.onPrice(new BigDecimal(price), e -> fired.add(e.alertId));
+        return fired;
+    }
+
+    @Test
+    void testFirstTickOnlyRecordsPrice() {
+        entry(AlertDirection.ABOVE, "100");
+        assertTrue(tick("150").isEmpty());
+        assertEquals(new BigDecimal("150"), index.lastPrice());
+    }
+
+    @Test
+    void testCrossingAboveFiresOnlyThresholdsInRange() {
+        AlertThresholdIndex.Entry low = entry(AlertDirection.ABOVE, "100");
+        AlertThresholdIndex.Entry mid = entry(AlertDirection.ABOVE, "105");
+        entry(AlertDirection.ABOVE, "120");
+        entry(AlertDirection.BELOW, "102");
+
+        tick("100");
+        assertEquals(List.of(low.alertId, mid.alertId), tick("110"));
+        // Giá giữ nguyên trên ngưỡng: không kích hoạt lại
+        assertTrue(tick("111").isEmpty());
+    }
+
+    @Test
+    void testCrossingBelow() {
+        AlertThresholdIndex.Entry e = entry(AlertDirection.BELOW, "50.00");
+        entry(AlertDirection.ABOVE, "40");
+
+        tick("55");
+        assertTrue(tick("50.0").isEmpty()); // chạm ngưỡng chưa tính là rơi xuống dưới
+        assertEquals(List.of(e.alertId), tick("49.99"));
+    }
+
+    @Test
+    void testRemove() {
+        AlertThresholdIndex.Entry e = entry(AlertDirection.ABOVE, "10");
+        assertEquals(1, index.size());
+        assertTrue(index.remove(e.alertId, AlertDirection.ABOVE, new BigDecimal("10.0")));
+        assertEquals(0, index.size());
+
+        tick("9");
+        assertTrue(tick("11").isEmpty());
+    }
+}
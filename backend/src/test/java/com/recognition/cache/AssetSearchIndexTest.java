@@ -0,0 +1,116 @@
+package com.recognition.cache;
+
+import com.recognition.dto.AssetSearchResult;
+import com.recognition.repository.AssetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AssetSearchIndexTest {
+
+    private AssetSearchIndex index;
+    private AssetRepository repository;
+
+    private final AssetSearchResult aapl = asset("AAPL", "Apple Inc.", true);
+    private final AssetSearchResult amd = asset("AMD", "Advanced Micro Devices", true);
+    private final AssetSearchResult apld = asset("APLD", "Applied Digital Corp", true);
+    private final AssetSearchResult msft = asset("MSFT", "Microsoft Corporation", true);
+    private final AssetSearchResult pineapple = asset("PNPL", "Pineapple Energy", false);
+
+    @BeforeEach
+    void setUp() {
+        repository = Mockito.mock(AssetRepository.class);
+        Mockito.when(repository.findAllSearchEntries()).thenReturn(List.of(aapl, amd, apld, msft, pineapple));
+        index = new AssetSearchIndex(repository);
+    }
+
+    private static AssetSearchResult asset(String symbol, String name, boolean active) {
+        return new AssetSearchResult(UUID.randomUUID(), symbol, name, active);
+    }
+
+    @Test
+    void testExactSymbolRanksFirst() {
+        List<AssetSearchResult> results = index.search("amd", 10);
+        assertEquals(amd, results.get(0));
+    }
+
+    @Test
+    void testSymbolPrefixRanksBeforeNamePrefix() {
+        // APLD khớp tiền tố symbol, AAPL chỉ khớp tiền tố tên "Apple"
+        assertEquals(List.of(apld, aapl), index.search("ap", 10));
+    }
+
+    @Test
+    void testNameWordPrefixAndSubstring() {
+        // Tên bắt đầu bằng "micro" xếp trước tên chỉ có một từ bắt đầu bằng "micro"
+        assertEquals(List.of(msft, amd), index.search("micro", 10));
+
+        // Khớp chuỗi con qua trigram; asset inactive xếp sau
+        List<AssetSearchResult> results = index.search("pple", 10);
+        assertEquals(List.of(aapl, pineapple), results);
+    }
+
+    @Test
+    void testCaseInsensitiveAndLimit() {
+        assertEquals(aapl, index.search("  AaPl ", 10).get(0));
+        assertEquals(1, index.search("a", 1).size());
+        assertTrue(index.search("", 10).isEmpty());
+        assertTrue(index.search("zzz", 10).isEmpty());
+    }
+
+    @Test
+    void testPutAndRemoveRebuildIndex() {
+        index.search("x", 1); // nạp lần đầu
+        AssetSearchResult nvda = asset("NVDA", "NVIDIA Corporation", true);
+        index.put(nvda);
+        assertEquals(List.of(nvda), index.search("nvid", 10));
+
+        index.remove(nvda.id());
+        assertTrue(index.search("nvid", 10).isEmpty());
+        Mockito.verify(repository, Mockito.times(1)).findAllSearchEntries();
+    }
+
+    @Test
+    void testPutBeforeFirstLoadSurvivesLoad() {
+        AssetSearchResult nvda = asset("NVDA", "NVIDIA Corporation", true);
+        index.put(nvda);
+
+        assertEquals(List.of(nvda), index.search("nvid", 10));
+        assertEquals(List.of(aapl), index.search("aapl", 1));
+        Mockito.verify(repository, Mockito.times(1)).findAllSearchEntries();
+    }
+
+    @Test
+    void testAfterCommitChangesAppliedOnceOnCommit() {
+        index.search("x", 1);
+        AssetSearchResult nvda = asset("NVDA", "NVIDIA Corporation", true);
+        AssetSearchResult nvdl = asset("NVDL", "GraniteShares 2x Long NVDA", true);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.putAfterCommit(nvda);
+            index.putAfterCommit(nvdl);
+            index.removeAfterCommit(msft.id());
+            // Chưa commit: chỉ mục giữ nguyên, cả lô dùng chung một synchronization
+            assertTrue(index.search("nvd", 10).isEmpty());
+            assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(List.of(nvda, nvdl), index.search("nvd", 10));
+        assertTrue(index.search("msft", 10).isEmpty());
+        assertNull(TransactionSynchronizationManager.getResource(index));
+    }
+}
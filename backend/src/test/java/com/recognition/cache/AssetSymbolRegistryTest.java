@@ -0,0 +1,81 @@
+package com.recognition.cache;
+
+import com.recognition.dto.AssetSearchResult;
+import com.recognition.repository.AssetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AssetSymbolRegistryTest {
+
+    private final UUID aaplId = UUID.randomUUID();
+    private final UUID msftId = UUID.randomUUID();
+
+    private AssetRepository repository;
+    private AssetSymbolRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        repository = Mockito.mock(AssetRepository.class);
+        Mockito.when(repository.findAllSearchEntries()).thenReturn(List.of(
+                new AssetSearchResult(aaplId, "AAPL", "Apple Inc.", true),
+                new AssetSearchResult(msftId, "MSFT", "Microsoft Corporation", true)));
+        registry = new AssetSymbolRegistry(repository);
+    }
+
+    @Test
+    void testResolveBySymbolOrId() {
+        assertEquals(Optional.of(aaplId), registry.resolve("aapl"));
+        assertEquals(Optional.of(msftId), registry.resolve(msftId.toString()));
+        assertTrue(registry.resolve(UUID.randomUUID().toString()).isEmpty());
+        assertTrue(registry.resolve("UNKNOWN").isEmpty());
+
+        // Miss không gọi lại DB: chỉ một lần nạp
+        Mockito.verify(repository, Mockito.times(1)).findAllSearchEntries();
+    }
+
+    @Test
+    void testRegisterAndUnregister() {
+        UUID nvdaId = UUID.randomUUID();
+        registry.register(nvdaId, "NVDA");
+        assertTrue(registry.containsSymbol("nvda"));
+        assertEquals(Optional.of("NVDA"), registry.symbolOf(nvdaId));
+
+        registry.unregister(nvdaId);
+        assertFalse(registry.containsSymbol("NVDA"));
+        assertTrue(registry.symbolOf(nvdaId).isEmpty());
+    }
+
+    @Test
+    void testReloadDropsRemovedAssets() {
+        registry.reload();
+        Mockito.when(repository.findAllSearchEntries()).thenReturn(List.of(
+                new AssetSearchResult(aaplId, "AAPL", "Apple Inc.", true)));
+        registry.reload();
+
+        assertTrue(registry.containsSymbol("AAPL"));
+        assertFalse(registry.containsSymbol("MSFT"));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    void testResolveSymbolsKeepsOrderAndCanonicalCase() {
+        Map<String, UUID> resolved = registry.resolveSymbols(List.of("msft", "NOPE", "AAPL", "MSFT"));
+        assertEquals(List.of("MSFT", "AAPL"), List.copyOf(resolved.keySet()));
+        assertEquals(msftId, resolved.get("MSFT"));
+    }
+
+    @Test
+    void testParseUuidRejectsSymbols() {
+        assertNull(AssetSymbolRegistry.parseUuid("AAPL"));
+        assertNull(AssetSymbolRegistry.parseUuid("zzzzzzzz-zzzz-zzzz-zzzz-zzzzzzzzzzzz"));
+        assertEquals(aaplId, AssetSymbolRegistry.parseUuid(aaplId.toString()));
+    }
+}
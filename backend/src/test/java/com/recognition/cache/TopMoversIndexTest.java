@@ -0,0 +1,62 @@
+package com.recognition.cache;
+
+import com.recognition.dto.PriceSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopMoversIndexTest {
+
+    private TopMoversIndex index;
+    private final OffsetDateTime now = OffsetDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        LatestPriceCache cache = Mockito.mock(LatestPriceCache.class);
+        Mockito.when(cache.snapshots()).thenReturn(List.of());
+        index = new TopMoversIndex(cache);
+    }
+
+    private static PriceSnapshot snapshot(UUID assetId, String change, OffsetDateTime ts) {
+        return new PriceSnapshot(UUID.randomUUID(), assetId, "SYM", "Name", BigDecimal.TEN, ts,
+                null, change != null ? new BigDecimal(change) : null, null, null, null, "Finnhub");
+    }
+
+    @Test
+    void testGainersAndLosersOrdering() {
+        UUID a = UUID.randomUUID(), b = UUID.randomUUID(), c = UUID.randomUUID();
+        index.put(snapshot(a, "5.0", now));
+        index.put(snapshot(b, "-3.0", now));
+        index.put(snapshot(c, "1.5", now));
+        index.put(snapshot(UUID.randomUUID(), null, now)); // không có changePercent: không xếp hạng
+
+        List<PriceSnapshot> gainers = index.topGainers(2);
+        assertEquals(List.of(a, c), gainers.stream().map(PriceSnapshot::assetId).toList());
+
+        List<PriceSnapshot> losers = index.topLosers(5);
+        assertEquals(List.of(b, c, a), losers.stream().map(PriceSnapshot::assetId).toList());
+    }
+
+    @Test
+    void testNewerTickReplacesRankAndOlderIsIgnored() {
+        UUID a = UUID.randomUUID(), b = UUID.randomUUID();
+        index.put(snapshot(a, "5.0", now));
+        index.put(snapshot(b, "2.0", now));
+
+        index.put(snapshot(a, "-1.0", now.plusMinutes(1)));
+        index.put(snapshot(a, "9.0", now.minusMinutes(1))); // cũ hơn: bỏ qua
+
+        assertEquals(b, index.topGainers(1).get(0).assetId());
+        assertEquals(2, index.topLosers(10).size());
+
+        index.evict(a);
+        assertEquals(List.of(b), index.topLosers(10).stream().map(PriceSnapshot::assetId).toList());
+    }
+}
@@ -0,0 +1,220 @@
+package com.recognition.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Chạy FinnhubClient với một HTTP server giả lập cục bộ.
+ */
+class FinnhubClientTest {
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @BeforeEach
+    void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/quote", exchange -> {
+            requests.incrementAndGet();
+            String query = exchange.getRequestURI().getQuery();
+            String body = query.contains("symbol=BAD")
+                    ? "{\"c\":0}"
+                    : "{\"c\":123.45,\"h\":125.0,\"l\":120.0,\"o\":121.0,\"pc\":122.0,\"v\":1000}";
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        });
+        server.createContext("/stock/symbol", exchange -> {
+            requests.incrementAndGet();
+            StringBuilder body = new StringBuilder("[");
+            for (int i = 0; i < 1_000; i++) {
+                if (i > 0) body.append(',');
+                body.append("{\"symbol\":\"SYM").append(i)
+                        .append("\",\"description\":\"Company ").append(i)
+                        .append("\",\"type\":\"Common Stock\",\"currency\":\"USD\",\"isin\":null}");
+            }
+            byte[] bytes = body.append(']').toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            } catch (IOException ignored) {
+                // client ngừng đọc sớm
+            }
+        });
+        server.createContext("/stock/metric", exchange -> {
+            requests.incrementAndGet();
+            byte[] bytes = "{\"metric\":{\"peNormalizedAnnual\":28.5,\"marketCapitalization\":3000000,\"52WeekHigh\":199.6},\"series\":{}}"
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    private FinnhubClient client(int perMinute, int burst) {
+        RestTemplate restTemplate = new RestTemplate(new JdkClientHttpRequestFactory());
+        FinnhubClient client = new FinnhubClient(restTemplate, new ObjectMapper(), perMinute, burst,
+                "http://localhost:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(client, "apiToken", "test-token");
+        return client;
+    }
+
+    @Test
+    void testFetchAllQuotesSkipsInvalidQuotes() {
+        FinnhubClient client = client(6_000, 100);
+
+        Map<String, Quote> quotes = client.fetchAllQuotes(List.of("AAPL", "MSFT", "BAD"));
+
+        assertEquals(2, quotes.size());
+        assertFalse(quotes.containsKey("BAD"));
+        assertEquals(3, requests.get()); // mỗi mã đúng một request
+
+        Quote aapl = quotes.get("AAPL");
+        assertEquals(0, new BigDecimal("123.45").compareTo(aapl.price()));
+        assertEquals(0, new BigDecimal("125.0").compareTo(aapl.high()));
+        assertEquals(0, new BigDecimal("120.0").compareTo(aapl.low()));
+        assertEquals(0, new BigDecimal("1000").compareTo(aapl.volume()));
+        assertNull(aapl.timestamp()); // stub không trả t
+        client.shutdown();
+    }
+
+    @Test
+    void testRequestsAreBoundedByRateLimiter() {
+        // 600/phút = 1 token mỗi 100ms, burst 2: 5 request cần ít nhất ~300ms
+        FinnhubClient client = client(600, 2);
+
+        long start = System.nanoTime();
+        Map<String, Quote> quotes = client.fetchAllQuotes(List.of("A", "B", "C", "D", "E"));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(5, quotes.size());
+        assertTrue(elapsedMs >= 250, "expected rate limiting, took " + elapsedMs + " ms");
+        client.shutdown();
+    }
+
+    @Test
+    void testFetchMarketSymbolsStopsAfterLimitMatches() {
+        FinnhubClient client = client(6_000, 100);
+
+        List<MarketSymbol> symbols = client.fetchMarketSymbols("US",
+                s -> s.symbol().endsWith("5"), 3);
+
+        assertEquals(List.of("SYM5", "SYM15", "SYM25"), symbols.stream().map(MarketSymbol::symbol).toList());
+        assertEquals("Company 5", symbols.get(0).description());
+        assertEquals("USD", symbols.get(0).currency());
+        client.shutdown();
+    }
+
+    @Test
+    void testFetchStockMetricsReadsTypedFields() {
+        FinnhubClient client = client(6_000, 100);
+
+        StockMetrics metrics = client.fetchStockMetrics("AAPL");
+
+        assertEquals(0, new BigDecimal("28.5").compareTo(metrics.peNormalizedAnnual()));
+        assertEquals(0, new BigDecimal("3000000").compareTo(metrics.marketCapitalization()));
+        assertNull(metrics.pbAnnual());
+        assertFalse(metrics.isEmpty());
+        client.shutdown();
+    }
+
+    @Test
+    void testStockMetricsEmptinessChecksFields() {
+        // Khối "metric" toàn null không phải instance EMPTY nhưng vẫn là rỗng
+        assertTrue(new StockMetrics(null, null, null, null, null, null, null, null).isEmpty());
+        assertTrue(StockMetrics.EMPTY.isEmpty());
+        assertFalse(new StockMetrics(null, null, null, null, null, null, BigDecimal.ONE, null).isEmpty());
+    }
+
+    @Test
+    void testTokenBucketRefillsOverTime() {
+        AtomicLong now = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(60, 2, now::get); // 1 token/giây
+
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertFalse(bucket.tryAcquire());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertTrue(bucket.tryAcquire());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10)); // không tích quá capacity
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    void testTokenBucketServesConcurrentWaitersInOrder() throws InterruptedException {
+        int waiters = 25;
+        long intervalMillis = 20;
+        TokenBucket bucket = new TokenBucket((int) (60_000 / intervalMillis), 1);
+        List<Integer> completed = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < waiters; i++) {
+            int index = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    bucket.acquire();
+                    completed.add(index);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+            // Thread đã đặt slot khi đang ngủ (hoặc đã xong); chỉ khi đó mới cho thread sau đến
+            while (thread.getState() != Thread.State.TIMED_WAITING && thread.getState() != Thread.State.TERMINATED) {
+                Thread.onSpinWait();
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(IntStream.range(0, waiters).boxed().toList(), completed);
+        // Token đầu dùng ngay, mỗi token sau cách nhau một interval
+        assertTrue(elapsedMillis >= (waiters - 1) * intervalMillis - 5, "elapsed " + elapsedMillis);
+        assertTrue(elapsedMillis < (waiters - 1) * intervalMillis + 1_000, "elapsed " + elapsedMillis);
+    }
+}
@@ -1,6 +1,7 @@
 package com.recognition.controller;
 
 import com.recognition.config.SecurityConfig;
+import com.recognition.dto.AssetSearchResult;
 import com.recognition.entity.Asset;
 import com.recognition.entity.Price;
 import com.recognition.exception.ResourceNotFoundException;
@@ -112,10 +113,22 @@ class AssetControllerTest {
 
     @Test
     void testSearchAssets() throws Exception {
-        Mockito.when(assetService.searchAssets("apple")).thenReturn(List.of(mockAsset));
+        AssetSearchResult result = new AssetSearchResult(mockAsset.getId(), "AAPL", "Apple Inc.", true);
+        Mockito.when(assetService.searchAssets("apple", 10)).thenReturn(List.of(result));
 
         mockMvc.perform(get("/api/assets/search").param("query", "apple"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].symbol").value("AAPL"));
+                .andExpect(jsonPath("$[0].symbol").value("AAPL"))
+                .andExpect(jsonPath("$[0].description").doesNotExist());
+    }
+
+    @Test
+    void testSearchAssetsWithLimit() throws Exception {
+        Mockito.when(assetService.searchAssets("a", 3)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/assets/search").param("query", "a").param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+        Mockito.verify(assetService).searchAssets("a", 3);
     }
 }
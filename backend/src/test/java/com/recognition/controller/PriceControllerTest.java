@@ -1,9 +1,13 @@
 package com.recognition.controller;
 
 import com.recognition.dto.PriceDto;
+import com.recognition.dto.response.AssetQuote;
+import com.recognition.dto.response.BatchQuoteResponse;
+import com.recognition.dto.response.CursorPage;
 import com.recognition.dto.response.StatisticsDTO;
 import com.recognition.entity.Price;
 import com.recognition.service.AsyncPriceService;
+import com.recognition.service.PriceRollupService;
 import com.recognition.service.PriceService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -39,6 +43,9 @@ class PriceControllerTest {
     @MockBean
     private AsyncPriceService asyncPriceService;
 
+    @MockBean
+    private PriceRollupService priceRollupService;
+
     private UUID assetId;
     private PriceDto mockPrice;
 
@@ -102,6 +109,19 @@ class PriceControllerTest {
                 .andExpect(jsonPath("$.progress").value(50));
     }
 
+    @Test
+    void testCancelFetchAll() throws Exception {
+        Mockito.when(asyncPriceService.cancelJob("job123")).thenReturn(true);
+        Mockito.when(asyncPriceService.cancelJob("missing")).thenReturn(false);
+
+        mockMvc.perform(post("/api/prices/fetch-all/cancel/job123"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.jobId").value("job123"));
+
+        mockMvc.perform(post("/api/prices/fetch-all/cancel/missing"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void testGetPriceHistoryPaged() throws Exception {
         Page<PriceDto> page = new PageImpl<>(List.of(mockPrice));
@@ -113,9 +133,27 @@ class PriceControllerTest {
                 .andExpect(jsonPath("$.content[0].price").value(120.5));
     }
 
+    @Test
+    void testGetPriceHistoryCursor() throws Exception {
+        Mockito.when(priceService.getPriceHistoryCursor(eq(assetId), any(), any(), eq("abc"), eq(50), eq(true)))
+                .thenReturn(CursorPage.of(List.of(mockPrice), "next123"));
+
+        mockMvc.perform(get("/api/prices/{id}/history/cursor", assetId)
+                        .param("cursor", "abc")
+                        .param("limit", "50")
+                        .param("order", "asc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].price").value(120.5))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andExpect(jsonPath("$.nextCursor").value("next123"));
+
+        mockMvc.perform(get("/api/prices/{id}/history/cursor", assetId).param("order", "sideways"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testGetChart() throws Exception {
-        Mockito.when(priceService.getCandles(any(), anyString(), anyInt()))
+        Mockito.when(priceService.getCandles(any(), anyString(), any(), anyInt()))
                 .thenReturn(List.of());
 
         mockMvc.perform(get("/api/prices/{id}/chart", assetId))
@@ -131,6 +169,11 @@ class PriceControllerTest {
         mockMvc.perform(get("/api/prices/{id}/change", assetId))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").value(3.5));
+
+        // Không có giá trước mốc: không trả 0%
+        Mockito.when(priceService.calculatePriceChange(assetId, 8760)).thenReturn(null);
+        mockMvc.perform(get("/api/prices/{id}/change", assetId).param("hours", "8760"))
+                .andExpect(status().isNoContent());
     }
 
     @Test
@@ -150,6 +193,25 @@ class PriceControllerTest {
                 .andExpect(jsonPath("$.data.avgPrice").value(150));
     }
 
+    @Test
+    void testGetStatsWithVolatilityAndVwap() throws Exception {
+        StatisticsDTO stats = new StatisticsDTO(
+                BigDecimal.valueOf(100), BigDecimal.valueOf(200), BigDecimal.valueOf(150),
+                BigDecimal.valueOf(110), BigDecimal.valueOf(190),
+                BigDecimal.valueOf(15), BigDecimal.valueOf(10), BigDecimal.valueOf(152),
+                42,
+                OffsetDateTime.now().minusWeeks(1), OffsetDateTime.now()
+        );
+
+        Mockito.when(priceService.getStatistics(assetId, "week")).thenReturn(stats);
+
+        mockMvc.perform(get("/api/prices/{id}/stats", assetId).param("range", "week"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.volatility").value(10))
+                .andExpect(jsonPath("$.data.vwap").value(152))
+                .andExpect(jsonPath("$.data.sampleCount").value(42));
+    }
+
     @Test
     void testGetTopMovers() throws Exception {
         Mockito.when(priceService.getTopMovers("gainers", 5))
@@ -161,4 +223,26 @@ class PriceControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.data[0].price").value(120.5));
     }
+
+    @Test
+    void testGetBatchQuotes() throws Exception {
+        AssetQuote quote = new AssetQuote(assetId, "AAPL", "Apple Inc.", BigDecimal.valueOf(120.5), null,
+                null, null, OffsetDateTime.now(), null, Map.of("1h", new BigDecimal("1.2500")));
+        Mockito.when(priceService.getBatchQuotes(eq(List.of(assetId)), eq(List.of("MSFT")), isNull(), anyList()))
+                .thenReturn(new BatchQuoteResponse(List.of(quote), List.of("MSFT"), OffsetDateTime.now()));
+
+        mockMvc.perform(get("/api/prices/batch")
+                        .param("assetIds", assetId.toString())
+                        .param("symbols", "MSFT")
+                        .param("windows", "1h"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quotes[0].symbol").value("AAPL"))
+                .andExpect(jsonPath("$.quotes[0].changes['1h']").value(1.25))
+                .andExpect(jsonPath("$.notFound[0]").value("MSFT"));
+
+        mockMvc.perform(get("/api/prices/batch"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/prices/batch").param("symbols", "AAPL").param("windows", "5y"))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,31 @@
+package com.recognition.dto;
+
+import com.recognition.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceCursorTest {
+
+    @Test
+    void testRoundTrip() {
+        PriceCursor cursor = new PriceCursor(false,
+                OffsetDateTime.of(2024, 3, 1, 9, 30, 15, 123_456_000, ZoneOffset.UTC), UUID.randomUUID());
+
+        PriceCursor decoded = PriceCursor.decode(cursor.encode());
+
+        assertEquals(cursor.ascending(), decoded.ascending());
+        assertEquals(cursor.id(), decoded.id());
+        assertTrue(cursor.timestamp().isEqual(decoded.timestamp()));
+    }
+
+    @Test
+    void testRejectsGarbage() {
+        assertThrows(InvalidCursorException.class, () -> PriceCursor.decode("not a cursor!"));
+        assertThrows(InvalidCursorException.class, () -> PriceCursor.decode("AAAA"));
+    }
+}
@@ -0,0 +1,46 @@
+package com.recognition.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuoteWindowTest {
+
+    @Test
+    void testParseUnits() {
+        assertEquals(Duration.ofMinutes(30), QuoteWindow.parse("30m").duration());
+        assertEquals(Duration.ofHours(24), QuoteWindow.parse("24H").duration());
+        assertEquals(Duration.ofDays(14), QuoteWindow.parse("2w").duration());
+        assertEquals("7d", QuoteWindow.parse(" 7D ").label());
+    }
+
+    @Test
+    void testRejectsInvalidWindows() {
+        for (String label : new String[]{"", "h", "0h", "-1d", "1y", "abc", "400d"}) {
+            assertThrows(IllegalArgumentException.class, () -> QuoteWindow.parse(label), label);
+        }
+    }
+
+    @Test
+    void testRejectsOverflowingAmounts() {
+        // amount * 7 tràn long thành -2 ngày; d/h quá lớn làm Duration ném ArithmeticException
+        for (String label : new String[]{"2635249153387078802w", "9223372036854775807d", "9223372036854775807h", "53w"}) {
+            assertThrows(IllegalArgumentException.class, () -> QuoteWindow.parse(label), label);
+        }
+        assertEquals(Duration.ofDays(366), QuoteWindow.parse("366d").duration());
+        assertEquals(Duration.ofDays(364), QuoteWindow.parse("52w").duration());
+    }
+
+    @Test
+    void testParseAllDefaultsAndDeduplicates() {
+        assertEquals(QuoteWindow.DEFAULT_LABELS,
+                QuoteWindow.parseAll(null).stream().map(QuoteWindow::label).toList());
+        assertEquals(List.of("1h", "7d"),
+                QuoteWindow.parseAll(List.of("1h", "1H", "7d")).stream().map(QuoteWindow::label).toList());
+        assertThrows(IllegalArgumentException.class,
+                () -> QuoteWindow.parseAll(List.of("1h", "2h", "3h", "4h", "5h", "6h", "7h", "8h", "9h")));
+    }
+}
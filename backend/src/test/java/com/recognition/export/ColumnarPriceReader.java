@@ -0,0 +1,89 @@
+package com.recognition.export;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Đọc lại file của {@link ColumnarPriceWriter}, đẩy từng dòng vào một {@link PriceRowSink};
+ * dùng trong test để kiểm tra round-trip. Chỉ giữ một row group trong bộ nhớ.
+ */
+final class ColumnarPriceReader {
+
+    private ColumnarPriceReader() {
+    }
+
+    // Trả về tổng số dòng đã đọc
+    static long read(InputStream input, PriceRowSink sink) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input, 64 * 1024));
+        byte[] magic = new byte[4];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, ColumnarPriceWriter.MAGIC)) throw new IOException("Not a columnar price export");
+        int version = in.readUnsignedByte();
+        if (version != ColumnarPriceWriter.VERSION) throw new IOException("Unsupported version " + version);
+        int columnCount = in.readUnsignedByte();
+        if (columnCount != PriceExportColumns.COUNT) throw new IOException("Unexpected column count " + columnCount);
+        for (int c = 0; c < columnCount; c++) {
+            in.skipNBytes(in.readUnsignedByte());
+            in.readUnsignedByte(); // scale
+        }
+
+        long total = 0;
+        long[][] columns = new long[columnCount][];
+        int rowCount;
+        while ((rowCount = (int) readVarint(in)) != 0) {
+            for (int c = 0; c < columnCount; c++) {
+                byte[] chunk = new byte[(int) readVarint(in)];
+                in.readFully(chunk);
+                columns[c] = decodeColumn(chunk, rowCount);
+            }
+            byte[] sourceChunk = new byte[(int) readVarint(in)];
+            in.readFully(sourceChunk);
+            DataInputStream sources = new DataInputStream(new ByteArrayInputStream(sourceChunk));
+
+            for (int i = 0; i < rowCount; i++) {
+                long length = readVarint(sources);
+                String source = null;
+                if (length > 0) {
+                    byte[] bytes = new byte[(int) length - 1];
+                    sources.readFully(bytes);
+                    source = new String(bytes, StandardCharsets.UTF_8);
+                }
+                sink.accept(columns[0][i], columns[1][i], columns[2][i], columns[3][i],
+                        columns[4][i], columns[5][i], columns[6][i], source);
+            }
+            total += rowCount;
+        }
+
+        long declared = readVarint(in);
+        if (declared != total) throw new IOException("Row count mismatch: " + declared + " != " + total);
+        return total;
+    }
+
+    private static long[] decodeColumn(byte[] chunk, int rowCount) throws IOException {
+        int bitmapLength = (rowCount + 7) >>> 3;
+        DataInputStream values = new DataInputStream(new ByteArrayInputStream(chunk, bitmapLength, chunk.length - bitmapLength));
+        long[] column = new long[rowCount];
+        long previous = 0;
+        for (int i = 0; i < rowCount; i++) {
+            if ((chunk[i >>> 3] & (1 << (i & 7))) == 0) {
+                column[i] = PriceExportColumns.NULL;
+                continue;
+            }
+            long raw = readVarint(values);
+            previous += (raw >>> 1) ^ -(raw & 1);
+            column[i] = previous;
+        }
+        return column;
+    }
+
+    private static long readVarint(DataInputStream in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,86 @@
+package com.recognition.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarPriceWriterTest {
+
+    private static final long NULL = PriceExportColumns.NULL;
+
+    private record Row(long[] values, String source) {
+    }
+
+    private static List<Row> roundTrip(List<Row> rows, int rowGroupSize) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ColumnarPriceWriter writer = new ColumnarPriceWriter(bytes, rowGroupSize)) {
+            for (Row r : rows) {
+                long[] v = r.values();
+                writer.accept(v[0], v[1], v[2], v[3], v[4], v[5], v[6], r.source());
+            }
+        }
+
+        List<Row> read = new ArrayList<>();
+        long count = ColumnarPriceReader.read(new ByteArrayInputStream(bytes.toByteArray()),
+                (ts, price, volume, change, high, low, cap, source) ->
+                        read.add(new Row(new long[]{ts, price, volume, change, high, low, cap}, source)));
+        assertEquals(rows.size(), count);
+        return read;
+    }
+
+    @Test
+    void testRoundTripAcrossRowGroupsWithNulls() throws IOException {
+        List<Row> rows = new ArrayList<>();
+        long ts = 1_700_000_000_000_000L;
+        for (int i = 0; i < 25; i++) {
+            rows.add(new Row(new long[]{
+                    ts + i * 60_000_000L,
+                    17_000_000_000L + (i % 2 == 0 ? i : -i) * 1_000_000L,
+                    i % 3 == 0 ? NULL : 1_000_000L + i,
+                    -12_345 + i,
+                    i % 5 == 0 ? NULL : Long.MAX_VALUE - i,
+                    Long.MIN_VALUE + 1,
+                    NULL
+            }, i % 4 == 0 ? null : "Finnhub"));
+        }
+
+        List<Row> read = roundTrip(rows, 10);
+
+        for (int i = 0; i < rows.size(); i++) {
+            assertArrayEquals(rows.get(i).values(), read.get(i).values(), "row " + i);
+            assertEquals(rows.get(i).source(), read.get(i).source());
+        }
+    }
+
+    @Test
+    void testEmptyExport() throws IOException {
+        assertTrue(roundTrip(List.of(), 10).isEmpty());
+    }
+
+    @Test
+    void testTicksEncodeCompactly() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int rows = 10_000;
+        try (ColumnarPriceWriter writer = new ColumnarPriceWriter(bytes)) {
+            for (int i = 0; i < rows; i++) {
+                writer.accept(1_700_000_000_000_000L + i * 15_000_000L, 18_912_000_000L + (i % 7) * 100_000L,
+                        50_000_000L + i * 10L, NULL, NULL, NULL, NULL, "Finnhub");
+            }
+        }
+        // CSV cùng dữ liệu khoảng 60 byte/dòng
+        assertTrue(bytes.size() < rows * 20, "size " + bytes.size());
+    }
+
+    @Test
+    void testRejectsForeignFile() {
+        byte[] junk = Arrays.copyOf("hello world".getBytes(), 16);
+        assertThrows(IOException.class, () -> ColumnarPriceReader.read(new ByteArrayInputStream(junk), (a, b, c, d, e, f, g, h) -> { }));
+    }
+}
@@ -0,0 +1,42 @@
+package com.recognition.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvPriceWriterTest {
+
+    private static String scaled(long value, int scale) {
+        StringBuilder sb = new StringBuilder();
+        CsvPriceWriter.appendScaled(sb, value, scale);
+        return sb.toString();
+    }
+
+    @Test
+    void testAppendScaled() {
+        assertEquals("189.12", scaled(18_912_000_000L, 8));
+        assertEquals("1.0005", scaled(10_005, 4));
+        assertEquals("-0.5", scaled(-5_000, 4));
+        assertEquals("42", scaled(42, 0));
+        assertEquals("7", scaled(700_000_000L, 8));
+        assertEquals("", scaled(PriceExportColumns.NULL, 8));
+    }
+
+    @Test
+    void testWritesHeaderAndRows() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (CsvPriceWriter writer = new CsvPriceWriter(bytes)) {
+            writer.accept(1_700_000_000_123_456L, 18_912_000_000L, 100_050, 25_000, PriceExportColumns.NULL,
+                    PriceExportColumns.NULL, 123_456_789_01L, "Fin,nhub");
+            assertEquals(1, writer.rows());
+        }
+
+        String[] lines = bytes.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals("timestamp,price,volume,change_percent,high_24h,low_24h,market_cap,source", lines[0]);
+        assertEquals("2023-11-14T22:13:20.123456Z,189.12,1000.5,2.5,,,123456789.01,\"Fin,nhub\"", lines[1]);
+    }
+}
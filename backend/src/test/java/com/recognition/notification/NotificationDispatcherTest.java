@@ -0,0 +1,124 @@
+package com.recognition.notification;
+
+import com.recognition.entity.NotificationStatus;
+import com.recognition.repository.AlertJdbcRepository;
+import com.recognition.repository.AlertJdbcRepository.DeliveryFailure;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NotificationDispatcherTest {
+
+    private AlertJdbcRepository repository;
+    private NotificationDispatcher dispatcher;
+    private final List<String> sends = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        repository = Mockito.mock(AlertJdbcRepository.class);
+        NotificationSender sender = new NotificationSender() {
+            @Override
+            public Set<String> methods() {
+                return Set.of("EMAIL");
+            }
+
+            @Override
+            public void send(String target, List<NotificationJob> batch) {
+                if (target.startsWith("broken")) throw new IllegalStateException("smtp down");
+                sends.add(target + ":" + batch.size());
+            }
+        };
+        dispatcher = new NotificationDispatcher(repository, List.of(sender), new SimpleMeterRegistry(),
+                100, 1, 2, 3, Duration.ofSeconds(5), Duration.ofMinutes(1), Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    private static NotificationJob job(String method, String target, int retryCount) {
+        return new NotificationJob(UUID.randomUUID(), UUID.randomUUID(), method, target, "msg",
+                BigDecimal.TEN, OffsetDateTime.now(), retryCount);
+    }
+
+    private void pollAndWait(List<NotificationJob> jobs) throws InterruptedException {
+        when(repository.claimDue(anyInt(), any())).thenReturn(jobs);
+        dispatcher.poll();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (dispatcher.inFlight() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, dispatcher.inFlight());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<DeliveryFailure> capturedFailures() {
+        ArgumentCaptor<List<DeliveryFailure>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repository, atLeastOnce()).markFailed(captor.capture());
+        return captor.getAllValues().stream().flatMap(List::stream).toList();
+    }
+
+    @Test
+    void testBackoffDoublesUpToMax() {
+        Duration base = Duration.ofSeconds(5), max = Duration.ofMinutes(1);
+        assertEquals(Duration.ofSeconds(5), NotificationDispatcher.backoff(1, base, max));
+        assertEquals(Duration.ofSeconds(20), NotificationDispatcher.backoff(3, base, max));
+        assertEquals(max, NotificationDispatcher.backoff(10, base, max));
+        assertEquals(max, NotificationDispatcher.backoff(100, base, max));
+    }
+
+    @Test
+    void testBatchesPerTarget() throws InterruptedException {
+        pollAndWait(List.of(job("EMAIL", "a@x", 0), job("email", "a@x", 0), job("EMAIL", "a@x", 0),
+                job("EMAIL", "b@x", 0)));
+
+        assertEquals(List.of("a@x:1", "a@x:2", "b@x:1"), sends.stream().sorted().toList());
+        verify(repository, times(3)).markSent(anyList());
+        verify(repository, never()).markFailed(anyList());
+    }
+
+    @Test
+    void testFailureSchedulesRetryThenDeadLetters() throws InterruptedException {
+        NotificationJob fresh = job("EMAIL", "broken@x", 0);
+        NotificationJob exhausted = job("EMAIL", "broken-too@x", 3);
+        pollAndWait(List.of(fresh, exhausted));
+
+        Map<UUID, DeliveryFailure> byId = new HashMap<>();
+        capturedFailures().forEach(f -> byId.put(f.logId(), f));
+
+        DeliveryFailure retry = byId.get(fresh.logId());
+        assertEquals(NotificationStatus.FAILED, retry.status());
+        assertEquals(1, retry.retryCount());
+        assertTrue(retry.nextAttemptAt().isAfter(OffsetDateTime.now().plusSeconds(4)));
+        assertEquals("smtp down", retry.errorMessage());
+
+        DeliveryFailure dead = byId.get(exhausted.logId());
+        assertEquals(NotificationStatus.DEAD_LETTER, dead.status());
+        assertNull(dead.nextAttemptAt());
+    }
+
+    @Test
+    void testUnknownMethodIsDeadLettered() throws InterruptedException {
+        NotificationJob job = job("CARRIER_PIGEON", "roof", 0);
+        pollAndWait(List.of(job));
+
+        List<DeliveryFailure> failures = capturedFailures();
+        assertEquals(1, failures.size());
+        assertEquals(NotificationStatus.DEAD_LETTER, failures.get(0).status());
+        assertTrue(sends.isEmpty());
+    }
+}
@@ -0,0 +1,31 @@
+package com.recognition.scheduler;
+
+import com.recognition.repository.PricePartitionJdbcRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PricePartitionMaintainerTest {
+
+    @Test
+    void testPartitionNaming() {
+        assertEquals("prices_p2025_03", PricePartitionJdbcRepository.partitionName(YearMonth.of(2025, 3)));
+        assertEquals(Optional.of(YearMonth.of(2024, 12)), PricePartitionJdbcRepository.monthOf("prices_p2024_12"));
+        assertTrue(PricePartitionJdbcRepository.monthOf("prices_default").isEmpty());
+    }
+
+    @Test
+    void testExpiredPartitionsKeepRetentionWindow() {
+        List<String> partitions = List.of("prices_default", "prices_p2024_10", "prices_p2024_11",
+                "prices_p2024_12", "prices_p2025_01", "prices_p2025_02");
+
+        // Tháng hiện tại 2025-02, giữ 2 tháng: còn 2024-12 trở đi
+        assertEquals(List.of("prices_p2024_10", "prices_p2024_11"),
+                PricePartitionMaintainer.expiredPartitions(partitions, YearMonth.of(2025, 2), 2));
+        assertTrue(PricePartitionMaintainer.expiredPartitions(partitions, YearMonth.of(2025, 2), 12).isEmpty());
+    }
+}
@@ -0,0 +1,38 @@
+package com.recognition.scheduler;
+
+import com.recognition.entity.BarResolution;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceRetentionJobTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.parse("2025-06-15T13:45:00+07:00");
+
+    @Test
+    void testRawCutoffAlignedToUtcDay() {
+        PriceRetentionJob.Policy policy = new PriceRetentionJob.Policy(30, 0, 0);
+
+        // 2025-06-15T06:45Z - 30 ngày, căn về đầu ngày UTC
+        assertEquals(OffsetDateTime.parse("2025-05-16T00:00:00Z"), policy.rawCutoff(NOW));
+    }
+
+    @Test
+    void testBarCutoffsPerTier() {
+        PriceRetentionJob.Policy policy = new PriceRetentionJob.Policy(30, 60, 0);
+
+        assertEquals(OffsetDateTime.parse("2025-04-16T00:00:00Z"), policy.barCutoff(BarResolution.MINUTE, NOW));
+        assertNull(policy.barCutoff(BarResolution.HOUR, NOW));
+        assertNull(policy.barCutoff(BarResolution.DAY, NOW));
+    }
+
+    @Test
+    void testBarsNeverExpireBeforeRawTicks() {
+        // Hạn bar phút ngắn hơn tick gốc: bar giữ ít nhất bằng tick gốc
+        PriceRetentionJob.Policy policy = new PriceRetentionJob.Policy(30, 7, 0);
+
+        assertEquals(policy.rawCutoff(NOW), policy.barCutoff(BarResolution.MINUTE, NOW));
+    }
+}
@@ -0,0 +1,65 @@
+package com.recognition.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    @Test
+    void testItemsFireAtTheirTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(1_000, 8, 0);
+        wheel.scheduleAt("a", 2_000);
+        wheel.scheduleAt("b", 5_500);
+        wheel.scheduleAt("c", 20_000); // hơn một vòng: cùng slot với tick 4 nhưng chưa tới hạn
+
+        List<String> fired = new ArrayList<>();
+        wheel.advanceTo(4_000, (item, dueAt) -> fired.add(item));
+        assertEquals(List.of("a"), fired);
+
+        wheel.advanceTo(6_000, (item, dueAt) -> fired.add(item));
+        assertEquals(List.of("a", "b"), fired);
+        assertEquals(1, wheel.size());
+
+        wheel.advanceTo(20_000, (item, dueAt) -> {
+            fired.add(item);
+            assertEquals(20_000, dueAt);
+        });
+        assertEquals(List.of("a", "b", "c"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testLateAdvanceCatchesUpMoreThanOneLap() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(100, 4, 0);
+        for (int i = 1; i <= 10; i++) {
+            wheel.scheduleAt(i, i * 100L);
+        }
+
+        List<Integer> fired = new ArrayList<>();
+        wheel.advanceTo(5_000, (item, dueAt) -> fired.add(item));
+
+        assertEquals(10, fired.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testCadenceDependsOnMarketHoursWatchersAndVolatility() {
+        RefreshCadencePolicy policy = new RefreshCadencePolicy(
+                Duration.ofMinutes(1), Duration.ofMinutes(5), Duration.ofMinutes(15), Duration.ofHours(1));
+        Instant open = Instant.parse("2025-03-05T15:00:00Z");   // thứ 4, 10:00 New York
+        Instant closed = Instant.parse("2025-03-08T15:00:00Z"); // thứ 7
+
+        assertEquals(Duration.ofHours(1), policy.intervalFor(10, BigDecimal.TEN, closed));
+        assertEquals(Duration.ofMinutes(1), policy.intervalFor(5, null, open));
+        assertEquals(Duration.ofMinutes(1), policy.intervalFor(0, new BigDecimal("-3.5"), open));
+        assertEquals(Duration.ofMinutes(5), policy.intervalFor(1, null, open));
+        assertEquals(Duration.ofMinutes(15), policy.intervalFor(0, new BigDecimal("0.2"), open));
+    }
+}
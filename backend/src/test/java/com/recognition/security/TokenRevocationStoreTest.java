@@ -0,0 +1,87 @@
+package com.recognition.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenRevocationStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRevokeAndLookup() {
+        TokenRevocationStore store = TokenRevocationStore.inMemory();
+        UUID revoked = UUID.randomUUID();
+        Instant exp = Instant.now().plusSeconds(600);
+
+        store.revoke(revoked, exp);
+
+        assertTrue(store.isRevoked(revoked, exp));
+        assertFalse(store.isRevoked(UUID.randomUUID(), exp));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testAlreadyExpiredTokenIsNotStored() {
+        TokenRevocationStore store = TokenRevocationStore.inMemory();
+        store.revoke(UUID.randomUUID(), Instant.now().minusSeconds(1));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testPurgeDropsExpiredBuckets() throws InterruptedException {
+        TokenRevocationStore store = new TokenRevocationStore(50, 100, null);
+        UUID shortLived = UUID.randomUUID();
+        UUID longLived = UUID.randomUUID();
+        Instant longExp = Instant.now().plusSeconds(600);
+        store.revoke(shortLived, Instant.now().plusMillis(100));
+        store.revoke(longLived, longExp);
+
+        Thread.sleep(250);
+        store.purgeExpired();
+
+        assertEquals(1, store.size());
+        assertTrue(store.isRevoked(longLived, longExp));
+    }
+
+    @Test
+    void testRevocationsSurviveRestart() {
+        String file = tempDir.resolve("revoked.log").toString();
+        UUID id = UUID.randomUUID();
+        Instant exp = Instant.now().plusSeconds(600);
+
+        TokenRevocationStore first = new TokenRevocationStore(3_600_000, 100, file);
+        first.load();
+        first.revoke(id, exp);
+        first.close();
+
+        TokenRevocationStore second = new TokenRevocationStore(3_600_000, 100, file);
+        second.load();
+        assertTrue(second.isRevoked(id, exp));
+        assertEquals(1, second.size());
+        second.close();
+    }
+
+    @Test
+    void testUnwritableFileFallsBackToMemory() throws IOException {
+        // Thư mục cha là một file thường nên không tạo được file thu hồi
+        Path blocker = Files.createFile(tempDir.resolve("not-a-dir"));
+        TokenRevocationStore store = new TokenRevocationStore(3_600_000, 100, blocker.resolve("revoked.log").toString());
+        UUID id = UUID.randomUUID();
+        Instant exp = Instant.now().plusSeconds(600);
+
+        assertDoesNotThrow(store::load);
+        store.revoke(id, exp);
+
+        assertTrue(store.isRevoked(id, exp));
+        store.close();
+    }
+}
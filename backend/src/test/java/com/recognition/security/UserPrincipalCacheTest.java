@@ -0,0 +1,84 @@
+package com.recognition.security;
+
+import com.recognition.entity.Users;
+import com.recognition.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserPrincipalCacheTest {
+
+    private UserRepository userRepository;
+    private UserPrincipalCache cache;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = Mockito.mock(UserRepository.class);
+        cache = new UserPrincipalCache(userRepository, 60_000, 2);
+    }
+
+    private Users user(UUID id, String role) {
+        Users user = new Users();
+        user.setId(id);
+        user.setRole(role);
+        when(userRepository.findById(id)).thenReturn(Optional.of(user));
+        return user;
+    }
+
+    @Test
+    void testHitDoesNotQueryRepository() {
+        UUID id = UUID.randomUUID();
+        user(id, "admin");
+
+        assertEquals("admin", cache.get(id).role());
+        assertEquals("admin", cache.get(id).role());
+        verify(userRepository, times(1)).findById(id);
+    }
+
+    @Test
+    void testInvalidateReloadsChangedRole() {
+        UUID id = UUID.randomUUID();
+        Users user = user(id, "user");
+        assertEquals("user", cache.get(id).role());
+
+        user.setRole("admin");
+        cache.invalidate(id);
+        assertEquals("admin", cache.get(id).role());
+        verify(userRepository, times(2)).findById(id);
+    }
+
+    @Test
+    void testMissingUserIsCachedAsNonExistent() {
+        UUID id = UUID.randomUUID();
+        when(userRepository.findById(id)).thenReturn(Optional.empty());
+
+        assertFalse(cache.get(id).exists());
+        assertFalse(cache.get(id).exists());
+        verify(userRepository, times(1)).findById(id);
+    }
+
+    @Test
+    void testBoundedSizeEvictsLeastRecentlyUsed() {
+        UUID a = UUID.randomUUID(), b = UUID.randomUUID(), c = UUID.randomUUID();
+        user(a, "user");
+        user(b, "user");
+        user(c, "user");
+
+        cache.get(a);
+        cache.get(b);
+        cache.get(a); // a được dùng gần đây hơn b
+        cache.get(c);
+
+        assertEquals(2, cache.size());
+        cache.get(a);
+        verify(userRepository, times(1)).findById(a);
+        cache.get(b);
+        verify(userRepository, times(2)).findById(b);
+    }
+}
@@ -1,5 +1,6 @@
 package com.recognition.service;
 
+import com.recognition.security.JwtClaims;
 import com.recognition.security.JwtTokenProvider;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -30,8 +31,9 @@ class AuthServiceTest {
         String token = jwtTokenProvider.createToken(userId, role);
 
         assertTrue(jwtTokenProvider.validateToken(token), "Token should be valid immediately after creation");
-        assertTrue(userId.equals(jwtTokenProvider.getUserIdFromToken(token)), "UserId should match");
-        assertTrue(role.equals(jwtTokenProvider.getRoleFromToken(token)), "Role should match");
+        JwtClaims claims = jwtTokenProvider.parse(token).orElseThrow();
+        assertTrue(userId.equals(claims.userId()), "UserId should match");
+        assertTrue(role.equals(claims.role()), "Role should match");
     }
 
     @Test
@@ -0,0 +1,147 @@
+package com.recognition.service;
+
+import com.recognition.dto.PriceDto;
+import com.recognition.dto.response.CursorPage;
+import com.recognition.entity.Asset;
+import com.recognition.entity.Price;
+import com.recognition.repository.AssetRepository;
+import com.recognition.repository.PriceRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Đếm số câu SQL mà mỗi đường đọc giá gửi xuống DB: không được tăng theo số dòng trả về.
+ */
+@SpringBootTest
+@Transactional
+@Import(PriceQueryCountIntegrationTest.StatementCountingConfig.class)
+class PriceQueryCountIntegrationTest {
+
+    static final AtomicInteger STATEMENTS = new AtomicInteger();
+
+    @TestConfiguration
+    static class StatementCountingConfig {
+
+        private static final Set<String> STATEMENT_METHODS = Set.of("prepareStatement", "prepareCall", "createStatement");
+
+        // Bọc DataSource để đếm mọi statement, cả từ Hibernate lẫn JdbcTemplate
+        @Bean
+        static BeanPostProcessor statementCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource)) return bean;
+                    return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DataSource.class},
+                            (proxy, method, args) -> {
+                                Object result = invoke(dataSource, method, args);
+                                return result instanceof Connection connection ? countingConnection(connection) : result;
+                            });
+                }
+            };
+        }
+
+        private static Connection countingConnection(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (STATEMENT_METHODS.contains(method.getName())) STATEMENTS.incrementAndGet();
+                        return invoke(connection, method, args);
+                    });
+        }
+
+        private static Object invoke(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    @Autowired
+    private PriceService priceService;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private UUID assetId;
+    private String symbol;
+
+    @BeforeEach
+    void setUp() {
+        symbol = "QC" + UUID.randomUUID().toString().substring(0, 6).toUpperCase();
+        Asset asset = assetRepository.save(Asset.builder().symbol(symbol).name("Query count").isActive(true).build());
+        assetId = asset.getId();
+
+        OffsetDateTime now = OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        for (int i = 0; i < 30; i++) {
+            priceRepository.save(Price.builder()
+                    .asset(asset)
+                    .price(BigDecimal.valueOf(100 + i))
+                    .timestamp(now.minusMinutes(i))
+                    .source("Test")
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        STATEMENTS.set(0);
+    }
+
+    @Test
+    void testHistoryPagedIsOneSelectPlusCount() {
+        Page<PriceDto> page = priceService.getPriceHistoryPaged(assetId, null, null,
+                PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "timestamp")));
+
+        assertEquals(10, page.getContent().size());
+        assertEquals(30, page.getTotalElements());
+        page.getContent().forEach(dto -> assertEquals(symbol, dto.getAssetSymbol()));
+        assertEquals(2, STATEMENTS.get(), "page select + count, no per-row asset lookup");
+    }
+
+    @Test
+    void testHistoryCursorDoesNotCount() {
+        CursorPage<PriceDto> first = priceService.getPriceHistoryCursor(assetId, null, null, null, 10, false);
+        assertEquals(2, STATEMENTS.get(), "asset existence + seek");
+
+        STATEMENTS.set(0);
+        CursorPage<PriceDto> second = priceService.getPriceHistoryCursor(assetId, null, null, first.nextCursor(), 10, false);
+        assertEquals(10, second.size());
+        assertEquals(2, STATEMENTS.get());
+    }
+
+    @Test
+    void testTopMoversIsServedFromMemory() {
+        priceService.getTopMovers("gainers", 5);
+        priceService.getTopMovers("losers", 5);
+        assertEquals(0, STATEMENTS.get());
+    }
+}
@@ -0,0 +1,63 @@
+package com.recognition.service;
+
+import com.recognition.dto.PriceSnapshot;
+import com.recognition.entity.BarResolution;
+import com.recognition.repository.PriceBarJdbcRepository.BucketKey;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceRollupServiceTest {
+
+    private static PriceSnapshot tick(UUID assetId, String price, OffsetDateTime ts, String volume) {
+        return new PriceSnapshot(UUID.randomUUID(), assetId, "AAPL", "Apple Inc.",
+                new BigDecimal(price), ts, volume != null ? new BigDecimal(volume) : null,
+                null, null, null, null, "Finnhub");
+    }
+
+    @Test
+    void testTicksInSameBucketShareOneKey() {
+        UUID assetId = UUID.randomUUID();
+        OffsetDateTime base = OffsetDateTime.of(2025, 1, 2, 10, 0, 5, 0, ZoneOffset.UTC);
+
+        Map<BarResolution, Set<BucketKey>> buckets = PriceRollupService.affectedBuckets(List.of(
+                tick(assetId, "100", base, "1000"),
+                tick(assetId, "105", base.plusSeconds(20), "1200"),
+                tick(assetId, "98", base.plusSeconds(40), null)
+        ));
+
+        // Mỗi resolution đúng một bucket, theo thứ tự MINUTE → HOUR → DAY
+        assertEquals(List.of(BarResolution.MINUTE, BarResolution.HOUR, BarResolution.DAY), List.copyOf(buckets.keySet()));
+        assertEquals(Set.of(new BucketKey(assetId, base.withSecond(0).toEpochSecond())),
+                buckets.get(BarResolution.MINUTE));
+        assertEquals(Set.of(new BucketKey(assetId, base.withSecond(0).toEpochSecond())),
+                buckets.get(BarResolution.HOUR));
+        assertEquals(Set.of(new BucketKey(assetId, base.withHour(0).withSecond(0).toEpochSecond())),
+                buckets.get(BarResolution.DAY));
+    }
+
+    @Test
+    void testTicksInDifferentMinutesShareHourAndDayBuckets() {
+        UUID assetId = UUID.randomUUID();
+        UUID otherId = UUID.randomUUID();
+        OffsetDateTime base = OffsetDateTime.of(2025, 1, 2, 10, 0, 0, 0, ZoneOffset.UTC);
+
+        Map<BarResolution, Set<BucketKey>> buckets = PriceRollupService.affectedBuckets(List.of(
+                tick(assetId, "100", base, null),
+                tick(assetId, "101", base.plusMinutes(5), null),
+                tick(otherId, "50", base.plusMinutes(5), null)
+        ));
+
+        assertEquals(3, buckets.get(BarResolution.MINUTE).size());
+        assertEquals(2, buckets.get(BarResolution.HOUR).size());
+        assertEquals(2, buckets.get(BarResolution.DAY).size());
+    }
+}
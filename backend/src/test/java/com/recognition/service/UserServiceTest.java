@@ -4,6 +4,7 @@ import com.recognition.dto.request.UpdateUserRequest;
 import com.recognition.entity.Users;
 import com.recognition.repository.UserRepository;
 import com.recognition.repository.WatchlistRepository;
+import com.recognition.security.UserPrincipalCache;
 import com.recognition.service.impl.UserServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -26,6 +27,9 @@ class UserServiceTest {
     @Mock
     private WatchlistRepository watchlistRepository;
 
+    @Mock
+    private UserPrincipalCache userPrincipalCache;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -99,6 +103,7 @@ class UserServiceTest {
 
         assertEquals("NewFirst", dto.getFirstName());
         assertEquals("NewLast", dto.getLastName());
+        Mockito.verify(userPrincipalCache).invalidate(id);
     }
 
     @Test
@@ -0,0 +1,88 @@
+package com.recognition.stream;
+
+import com.recognition.dto.PriceSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceStreamHubTest {
+
+    private static PriceSnapshot snapshot(UUID assetId, int price, OffsetDateTime ts) {
+        return new PriceSnapshot(UUID.randomUUID(), assetId, "SYM", "Name", BigDecimal.valueOf(price), ts,
+                null, null, null, null, null, "Finnhub");
+    }
+
+    @Test
+    void testRingBufferDeliversInOrderAcrossProducers() throws Exception {
+        SnapshotRingBuffer ring = new SnapshotRingBuffer(16);
+        UUID assetId = UUID.randomUUID();
+        OffsetDateTime now = OffsetDateTime.now();
+        int producers = 4, perProducer = 500;
+
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        for (int p = 0; p < producers; p++) {
+            pool.execute(() -> {
+                for (int i = 0; i < perProducer; i++) ring.publish(snapshot(assetId, i, now));
+            });
+        }
+
+        List<PriceSnapshot> received = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (received.size() < producers * perProducer && System.nanoTime() < deadline) {
+            ring.drainTo(received::add, 64); // ring nhỏ: producer phải chờ consumer
+        }
+        pool.shutdown();
+
+        assertEquals(producers * perProducer, received.size());
+        assertEquals(0, ring.backlog());
+    }
+
+    @Test
+    void testSlowClientReceivesLatestValuePerAsset() throws Exception {
+        UUID a = UUID.randomUUID(), b = UUID.randomUUID();
+        OffsetDateTime now = OffsetDateTime.now();
+        CountDownLatch firstSendStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<PriceSnapshot> sent = new CopyOnWriteArrayList<>();
+
+        ExecutorService sender = Executors.newSingleThreadExecutor();
+        StreamSubscription subscription = new StreamSubscription(Set.of(a, b), snapshot -> {
+            firstSendStarted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sent.add(snapshot);
+        }, sender, () -> {});
+
+        subscription.offer(snapshot(a, 1, now));
+        assertTrue(firstSendStarted.await(5, TimeUnit.SECONDS));
+
+        // Trong lúc client đang chậm: 100 bản giá của a và 1 của b chỉ còn 2 mục chờ gửi
+        for (int i = 2; i <= 100; i++) {
+            subscription.offer(snapshot(a, i, now.plusSeconds(i)));
+        }
+        subscription.offer(snapshot(b, 7, now));
+        release.countDown();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sent.size() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        sender.shutdown();
+
+        assertEquals(3, sent.size());
+        assertEquals(1, sent.get(0).price().intValue());
+        assertTrue(sent.stream().anyMatch(s -> s.assetId().equals(a) && s.price().intValue() == 100));
+        assertTrue(sent.stream().anyMatch(s -> s.assetId().equals(b) && s.price().intValue() == 7));
+    }
+}
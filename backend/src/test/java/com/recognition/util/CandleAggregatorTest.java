@@ -0,0 +1,77 @@
+package com.recognition.util;
+
+import com.recognition.dto.CandleDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandleAggregatorTest {
+
+    private static long px(String value) {
+        return CandleAggregator.toScaled(new BigDecimal(value));
+    }
+
+    @Test
+    void testTicksAreBucketedIntoOhlc() {
+        CandleAggregator aggregator = new CandleAggregator(CandleResolution.ONE_MINUTE, 10);
+
+        aggregator.addTick(60, px("10"), 100);
+        aggregator.addTick(75, px("12"), 150);
+        aggregator.addTick(90, px("9"), 180);
+        aggregator.addTick(119, px("11"), 200);
+        aggregator.addTick(120, px("11.5"), 220);
+
+        List<CandleDTO> candles = aggregator.toCandles();
+
+        assertEquals(2, candles.size());
+        CandleDTO first = candles.get(0);
+        assertEquals(60, first.timestamp().toEpochSecond());
+        assertEquals(0, first.open().compareTo(new BigDecimal("10")));
+        assertEquals(0, first.high().compareTo(new BigDecimal("12")));
+        assertEquals(0, first.low().compareTo(new BigDecimal("9")));
+        assertEquals(0, first.close().compareTo(new BigDecimal("11")));
+        assertEquals(200L, first.volume());
+        assertEquals(0, candles.get(1).open().compareTo(new BigDecimal("11.5")));
+    }
+
+    @Test
+    void testOnlyLastLimitBucketsAreKept() {
+        CandleAggregator aggregator = new CandleAggregator(CandleResolution.ONE_HOUR, 3);
+
+        for (int hour = 0; hour < 10; hour++) {
+            aggregator.addTick(hour * 3_600L + 5, px(String.valueOf(hour + 1)));
+        }
+
+        List<CandleDTO> candles = aggregator.toCandles();
+
+        assertEquals(3, candles.size());
+        assertEquals(7 * 3_600L, candles.get(0).timestamp().toEpochSecond());
+        assertEquals(9 * 3_600L, candles.get(2).timestamp().toEpochSecond());
+        assertNull(candles.get(2).volume());
+    }
+
+    @Test
+    void testFinerBarsMergeIntoCoarserBuckets() {
+        CandleAggregator aggregator = new CandleAggregator(CandleResolution.FIVE_MINUTES, 5);
+
+        aggregator.addBar(0, px("10"), px("11"), px("9"), px("10.5"));
+        aggregator.addBar(60, px("10.5"), px("13"), px("10"), px("12"));
+        aggregator.addBar(300, px("12"), px("12"), px("8"), px("8"));
+
+        List<CandleDTO> candles = aggregator.toCandles();
+
+        assertEquals(2, candles.size());
+        assertEquals(0, candles.get(0).high().compareTo(new BigDecimal("13")));
+        assertEquals(0, candles.get(0).low().compareTo(new BigDecimal("9")));
+        assertEquals(0, candles.get(0).close().compareTo(new BigDecimal("12")));
+    }
+
+    @Test
+    void testInvalidResolutionCode() {
+        assertThrows(IllegalArgumentException.class, () -> CandleResolution.fromCode("2h"));
+        assertEquals(CandleResolution.FIVE_MINUTES, CandleResolution.fromCode("5m"));
+    }
+}
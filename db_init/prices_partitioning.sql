@@ -0,0 +1,101 @@
+--
+-- Chuyển bảng prices sang partition theo tháng (RANGE trên "timestamp").
+--
+-- Chạy sau backup_stock.sql khi container DB được tạo mới (docker-entrypoint-initdb.d chạy theo thứ tự tên file),
+-- hoặc chạy tay trên DB đang có: psql -v ON_ERROR_STOP=1 -f db_init/prices_partitioning.sql
+-- Script idempotent: bỏ qua nếu prices đã là bảng partition. Toàn bộ chạy trong một transaction,
+-- bảng cũ bị khoá ghi trong lúc copy nên nên dừng backend (hoặc job ingest) trước khi chạy trên DB lớn.
+--
+-- Sau khi chuyển, backend (PricePartitionMaintainer) tự tạo trước partition cho các tháng tới.
+--
+
+BEGIN;
+
+-- Tạo partition cho tháng chứa month_start (UTC) nếu chưa có, tên dạng prices_pYYYY_MM
+CREATE OR REPLACE FUNCTION public.create_price_partition(parent regclass, month_start date)
+RETURNS void
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    from_ts timestamptz := (date_trunc('month', month_start)::timestamp AT TIME ZONE 'UTC');
+    to_ts   timestamptz := ((date_trunc('month', month_start) + interval '1 month')::timestamp AT TIME ZONE 'UTC');
+    part    text        := 'prices_p' || to_char(date_trunc('month', month_start), 'YYYY_MM');
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS public.%I PARTITION OF %s FOR VALUES FROM (%L) TO (%L)',
+                   part, parent, from_ts, to_ts);
+END;
+$$;
+
+DO $$
+DECLARE
+    first_month date;
+    last_month  date;
+    m           date;
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('public.prices')) THEN
+        RAISE NOTICE 'public.prices is already partitioned, skipping migration';
+        RETURN;
+    END IF;
+
+    IF to_regclass('public.prices') IS NULL THEN
+        -- DB mới chưa có bảng: tạo thẳng dạng partition, Hibernate sẽ không tạo lại
+        CREATE TABLE public.prices (
+            id             uuid                     DEFAULT gen_random_uuid() NOT NULL,
+            change_percent numeric(10,4),
+            created_at     timestamp with time zone,
+            high_24h       numeric(18,8),
+            low_24h        numeric(18,8),
+            market_cap     numeric(20,2),
+            price          numeric(18,8)            NOT NULL,
+            source         character varying(50)    NOT NULL,
+            "timestamp"    timestamp with time zone NOT NULL,
+            volume         numeric(20,2),
+            asset_id       uuid                     NOT NULL
+        ) PARTITION BY RANGE ("timestamp");
+        first_month := date_trunc('month', now() AT TIME ZONE 'UTC')::date;
+    ELSE
+        -- Bảng mới cùng cấu trúc cột (kể cả cột thừa từ bản dump), không mang theo index/constraint cũ
+        LOCK TABLE public.prices IN SHARE MODE;
+        CREATE TABLE public.prices_partitioned
+            (LIKE public.prices INCLUDING DEFAULTS)
+            PARTITION BY RANGE ("timestamp");
+        SELECT date_trunc('month', COALESCE(MIN("timestamp"), now()) AT TIME ZONE 'UTC')::date
+        INTO first_month
+        FROM public.prices;
+    END IF;
+
+    -- Partition từ tháng dữ liệu cũ nhất tới 3 tháng sau tháng hiện tại
+    last_month := (date_trunc('month', now() AT TIME ZONE 'UTC') + interval '3 months')::date;
+    m := first_month;
+    WHILE m <= last_month LOOP
+        PERFORM public.create_price_partition(
+                COALESCE(to_regclass('public.prices_partitioned'), 'public.prices'::regclass), m);
+        m := (m + interval '1 month')::date;
+    END LOOP;
+
+    IF to_regclass('public.prices_partitioned') IS NOT NULL THEN
+        -- Partition mặc định chỉ hứng dữ liệu ngoài mọi tháng đã tạo (timestamp tương lai xa)
+        CREATE TABLE public.prices_default PARTITION OF public.prices_partitioned DEFAULT;
+
+        INSERT INTO public.prices_partitioned SELECT * FROM public.prices;
+        DROP TABLE public.prices;
+        ALTER TABLE public.prices_partitioned RENAME TO prices;
+    ELSE
+        CREATE TABLE public.prices_default PARTITION OF public.prices DEFAULT;
+    END IF;
+
+    -- Khoá chính và unique phải chứa cột partition; id vẫn do UUID sinh ra nên không trùng
+    ALTER TABLE public.prices ADD CONSTRAINT prices_pkey PRIMARY KEY (id, "timestamp");
+    ALTER TABLE public.prices ADD CONSTRAINT uq_price_asset_timestamp_source UNIQUE (asset_id, "timestamp", source);
+    IF to_regclass('public.assets') IS NOT NULL THEN
+        ALTER TABLE public.prices ADD CONSTRAINT fk_price_asset FOREIGN KEY (asset_id) REFERENCES public.assets(id);
+    END IF;
+    CREATE INDEX idx_price_asset_timestamp ON public.prices USING btree (asset_id, "timestamp" DESC);
+
+    RAISE NOTICE 'public.prices migrated to monthly partitions from % to %', first_month, last_month;
+END;
+$$;
+
+COMMIT;
+
+ANALYZE public.prices;